@@ -0,0 +1,65 @@
+package com.soya.votacao.benchmark;
+
+import com.soya.votacao.VotacaoApplication;
+import com.soya.votacao.client.CpfClient;
+import com.soya.votacao.client.CpfClientResult;
+import com.soya.votacao.client.CpfStatus;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.service.PautaService;
+import com.soya.votacao.service.SessaoService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Boots the application without a web server on its own in-memory database, with a CPF client
+ * that answers instantly: CPFs starting with {@value #INELEGIVEL} are unable to vote, the rest can.
+ */
+final class BenchmarkContexto {
+    static final String INELEGIVEL = "inelegivel-";
+
+    private BenchmarkContexto() {
+    }
+
+    static ConfigurableApplicationContext iniciar(String... propriedades) {
+        List<String> todas = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:jmh-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "management.tracing.sampling.probability=0.0",
+                "logging.level.root=WARN"));
+        todas.addAll(List.of(propriedades));
+        return new SpringApplicationBuilder(VotacaoApplication.class, CpfClientBenchmarkConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(todas.toArray(String[]::new))
+                .run();
+    }
+
+    static Pauta criarPautaAberta(ConfigurableApplicationContext context, String titulo) {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo(titulo);
+        request.setDescricao("JMH");
+        Pauta pauta = context.getBean(PautaService.class).criar(request);
+        OpenSessaoRequest sessao = new OpenSessaoRequest();
+        sessao.setDuracaoMinutos(600);
+        context.getBean(SessaoService.class).abrirSessao(pauta.getId(), sessao);
+        return pauta;
+    }
+
+    /** Registered explicitly instead of through component scanning, so tests never pick it up. */
+    static class CpfClientBenchmarkConfig {
+        @Bean
+        @Primary
+        CpfClient benchmarkCpfClient() {
+            return cpf -> cpf.startsWith(INELEGIVEL)
+                    ? new CpfClientResult(true, CpfStatus.UNABLE_TO_VOTE)
+                    : new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.soya.votacao.benchmark;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks once per thread count in {@code jmh.threads} (default {@code 1,4}) and
+ * writes one JSON result per run to {@code jmh.output} (default {@code target/jmh}).
+ * Arguments, and the whitespace separated {@code jmh.args} property, are regular JMH command
+ * line options and override the defaults below.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String extras = System.getProperty("jmh.args", "").trim();
+        CommandLineOptions linhaDeComando = new CommandLineOptions(
+                extras.isEmpty() ? args : Stream.concat(Arrays.stream(args), Arrays.stream(extras.split("\\s+")))
+                        .toArray(String[]::new));
+        String include = System.getProperty("jmh.include", BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+        if (!linhaDeComando.getIncludes().isEmpty()) {
+            include = String.join("|", linhaDeComando.getIncludes());
+        }
+        File saida = new File(System.getProperty("jmh.output", "target/jmh"));
+        saida.mkdirs();
+        for (String valor : System.getProperty("jmh.threads", "1,4").split(",")) {
+            int threads = Integer.parseInt(valor.trim());
+            Options options = new OptionsBuilder()
+                    .parent(linhaDeComando)
+                    .include(include)
+                    .threads(threads)
+                    .forks(linhaDeComando.getForkCount().orElse(1))
+                    .warmupIterations(linhaDeComando.getWarmupIterations().orElse(2))
+                    .warmupTime(linhaDeComando.getWarmupTime().orElse(TimeValue.seconds(1)))
+                    .measurementIterations(linhaDeComando.getMeasurementIterations().orElse(3))
+                    .measurementTime(linhaDeComando.getMeasurementTime().orElse(TimeValue.seconds(2)))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(saida, "resultado-t" + threads + ".json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
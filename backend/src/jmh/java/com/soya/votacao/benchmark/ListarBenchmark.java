@@ -0,0 +1,59 @@
+package com.soya.votacao.benchmark;
+
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.service.PautaQueryService;
+import com.soya.votacao.service.PautaService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * First page of {@link PautaQueryService#listar} with a growing number of pautas, half of them
+ * with a session; with keyset pagination the cost should stay flat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ListarBenchmark {
+    @Param({"10", "100", "1000"})
+    public int pautas;
+
+    private ConfigurableApplicationContext context;
+    private PautaQueryService pautaQueryService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = BenchmarkContexto.iniciar();
+        pautaQueryService = context.getBean(PautaQueryService.class);
+        PautaService pautaService = context.getBean(PautaService.class);
+        for (int i = 0; i < pautas; i++) {
+            if (i % 2 == 0) {
+                BenchmarkContexto.criarPautaAberta(context, "Pauta " + i);
+            } else {
+                CreatePautaRequest request = new CreatePautaRequest();
+                request.setTitulo("Pauta " + i);
+                request.setDescricao("JMH");
+                pautaService.criar(request);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object listar() {
+        return pautaQueryService.listar(null, null);
+    }
+}
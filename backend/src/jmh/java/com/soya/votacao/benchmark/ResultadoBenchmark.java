@@ -0,0 +1,88 @@
+package com.soya.votacao.benchmark;
+
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.service.VotoService;
+import com.soya.votacao.service.VotoTallyRegistry;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * {@link VotoService#resultado} over pautas of different sizes, served from the in-memory tally
+ * or from the aggregate query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResultadoBenchmark {
+    private static final int CHUNK = 10_000;
+
+    @Param({"1000", "100000"})
+    public int votos;
+
+    @Param({"true", "false"})
+    public boolean tally;
+
+    private ConfigurableApplicationContext context;
+    private VotoService votoService;
+    private Long pautaId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = BenchmarkContexto.iniciar("votacao.tally.enabled=" + tally);
+        votoService = context.getBean(VotoService.class);
+        pautaId = BenchmarkContexto.criarPautaAberta(context, "Resultado").getId();
+        inserirVotos(context.getBean(JdbcTemplate.class));
+        context.getBean(VotoTallyRegistry.class).reconstruir();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object resultado() {
+        return votoService.resultado(pautaId);
+    }
+
+    private void inserirVotos(JdbcTemplate jdbcTemplate) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        for (int offset = 0; offset < votos; offset += CHUNK) {
+            int base = offset;
+            int size = Math.min(CHUNK, votos - offset);
+            jdbcTemplate.batchUpdate(
+                    "insert into votos (id, pauta_id, associado_id, valor, created_at) values (next value for votos_seq, ?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            int n = base + i;
+                            ps.setLong(1, pautaId);
+                            ps.setString(2, "cpf-" + n);
+                            ps.setString(3, (n % 3 == 0 ? VotoValor.NAO : VotoValor.SIM).name());
+                            ps.setObject(4, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    });
+        }
+    }
+}
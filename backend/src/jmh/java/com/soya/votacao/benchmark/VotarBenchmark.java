@@ -0,0 +1,80 @@
+package com.soya.votacao.benchmark;
+
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.exception.NotFoundException;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.service.VotoService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * {@link VotoService#votar} on its three outcomes: an accepted vote, a duplicate rejected
+ * with 409 and an associado the CPF client declares unable to vote (404).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VotarBenchmark {
+    private static final int DUPLICADOS = 1_000;
+
+    private final AtomicLong sequencia = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private VotoService votoService;
+    private Long pautaId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = BenchmarkContexto.iniciar();
+        votoService = context.getBean(VotoService.class);
+        pautaId = BenchmarkContexto.criarPautaAberta(context, "Votar").getId();
+        for (int i = 0; i < DUPLICADOS; i++) {
+            votoService.votar(pautaId, request("duplicado-" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object aceito() {
+        return votoService.votar(pautaId, request("aceito-" + sequencia.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Object duplicado() {
+        try {
+            return votoService.votar(pautaId, request("duplicado-" + sequencia.incrementAndGet() % DUPLICADOS));
+        } catch (ConflictException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object inelegivel() {
+        try {
+            return votoService.votar(pautaId, request(BenchmarkContexto.INELEGIVEL + sequencia.incrementAndGet()));
+        } catch (NotFoundException ex) {
+            return ex;
+        }
+    }
+
+    private static VotoRequest request(String associadoId) {
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId(associadoId);
+        request.setVoto(VotoValor.SIM);
+        return request;
+    }
+}
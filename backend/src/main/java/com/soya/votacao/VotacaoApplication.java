@@ -2,11 +2,12 @@ package com.soya.votacao;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class VotacaoApplication {
     public static void main(String[] args) {
         SpringApplication.run(VotacaoApplication.class, args);
     }
 }
-
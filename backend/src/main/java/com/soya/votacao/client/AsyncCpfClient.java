@@ -0,0 +1,7 @@
+package com.soya.votacao.client;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncCpfClient {
+    CompletableFuture<CpfClientResult> consultarAsync(String cpf);
+}
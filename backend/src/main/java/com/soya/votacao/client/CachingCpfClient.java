@@ -0,0 +1,67 @@
+package com.soya.votacao.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Decorates a {@link CpfClient} with a size-bounded, time-expiring cache shared by every pauta.
+ * Eviction is W-TinyLFU; hits, misses and evictions are published as {@code cache.*{cache=cpf}}.
+ * The cache stores futures, so a lookup never blocks while holding the cache's internal lock
+ * (which would pin a virtual thread); failed lookups are dropped from the cache. A delegate that
+ * is also an {@link AsyncCpfClient} is called asynchronously, any other one on {@code executor},
+ * which also runs the cache's maintenance.
+ */
+public class CachingCpfClient implements CpfClient, AsyncCpfClient {
+    private final CpfClient delegate;
+    private final AsyncCache<String, CpfClientResult> cache;
+
+    public CachingCpfClient(CpfClient delegate, Duration ttl, long maximumSize, MeterRegistry meterRegistry) {
+        this(delegate, ttl, maximumSize, ForkJoinPool.commonPool(), meterRegistry);
+    }
+
+    public CachingCpfClient(CpfClient delegate, Duration ttl, long maximumSize, Executor executor,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .executor(executor)
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "cpf");
+    }
+
+    @Override
+    public CpfClientResult consultar(String cpf) {
+        try {
+            return consultarAsync(cpf).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public CompletableFuture<CpfClientResult> consultarAsync(String cpf) {
+        CompletableFuture<CpfClientResult> consulta = cache.get(cpf, (chave, executor) ->
+                delegate instanceof AsyncCpfClient async
+                        ? async.consultarAsync(chave)
+                        : CompletableFuture.supplyAsync(() -> delegate.consultar(chave), executor));
+        // Caffeine drops a failed future on its own, but only after its callers may already have
+        // seen the failure; remove it first so the next lookup goes to the delegate again.
+        return consulta.whenComplete((resultado, falha) -> {
+            if (falha != null) {
+                cache.asMap().remove(cpf, consulta);
+            }
+        });
+    }
+}
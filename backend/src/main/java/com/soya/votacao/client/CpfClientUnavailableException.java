@@ -0,0 +1,9 @@
+package com.soya.votacao.client;
+
+import com.soya.votacao.exception.ServiceUnavailableException;
+
+public class CpfClientUnavailableException extends ServiceUnavailableException {
+    public CpfClientUnavailableException(String message) {
+        super(message);
+    }
+}
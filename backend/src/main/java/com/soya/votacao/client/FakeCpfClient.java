@@ -1,16 +1,60 @@
 package com.soya.votacao.client;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
 
-@Component
-public class FakeCpfClient implements CpfClient {
+public class FakeCpfClient implements CpfClient, AsyncCpfClient {
     private static final Logger log = LoggerFactory.getLogger(FakeCpfClient.class);
 
+    private final Duration latencia;
+    private final Executor executor;
+
+    public FakeCpfClient() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * @param latencia simulated response time of the CPF service
+     */
+    public FakeCpfClient(Duration latencia) {
+        this(latencia, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param latencia simulated response time of the CPF service
+     * @param executor runs the async lookups once the latency has elapsed
+     */
+    public FakeCpfClient(Duration latencia, Executor executor) {
+        this.latencia = latencia;
+        this.executor = executor;
+    }
+
     @Override
     public CpfClientResult consultar(String cpf) {
+        if (!latencia.isZero()) {
+            try {
+                Thread.sleep(latencia.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CpfClientUnavailableException("Consulta de CPF interrompida");
+            }
+        }
+        return sortear(cpf);
+    }
+
+    @Override
+    public CompletableFuture<CpfClientResult> consultarAsync(String cpf) {
+        return CompletableFuture.supplyAsync(() -> sortear(cpf),
+                CompletableFuture.delayedExecutor(latencia.toNanos(), TimeUnit.NANOSECONDS, executor));
+    }
+
+    private CpfClientResult sortear(String cpf) {
         boolean valid = ThreadLocalRandom.current().nextInt(100) >= 20;
         if (!valid) {
             log.info("CPF {} inválido na checagem", cpf);
@@ -23,5 +67,3 @@ public class FakeCpfClient implements CpfClient {
         return new CpfClientResult(true, status);
     }
 }
-
-
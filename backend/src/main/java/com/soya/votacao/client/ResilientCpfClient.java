@@ -0,0 +1,120 @@
+package com.soya.votacao.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Guards an {@link AsyncCpfClient}: concurrent lookups for the same CPF share one in-flight call,
+ * every call is bounded by a timeout and at most {@code maxConcurrent} calls reach the delegate.
+ * A bulkhead permit is held until the delegate call really finishes, so a hanging service keeps
+ * the bulkhead full and new lookups fail fast instead of piling up threads. Timeouts complete on
+ * {@code executor}, the same one the delegate's lookups run on.
+ */
+public class ResilientCpfClient implements CpfClient, AsyncCpfClient {
+    private final AsyncCpfClient delegate;
+    private final Duration timeout;
+    private final Executor executor;
+    private final Semaphore bulkhead;
+    private final Map<String, CompletableFuture<CpfClientResult>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter timeoutCounter;
+    private final Counter bulkheadCounter;
+    private final Counter coalescidoCounter;
+
+    public ResilientCpfClient(AsyncCpfClient delegate, Duration timeout, int maxConcurrent, MeterRegistry meterRegistry) {
+        this(delegate, timeout, maxConcurrent, ForkJoinPool.commonPool(), meterRegistry);
+    }
+
+    public ResilientCpfClient(AsyncCpfClient delegate, Duration timeout, int maxConcurrent, Executor executor,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.executor = executor;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.timeoutCounter = Counter.builder("votacao.cpf.timeout")
+                .description("Consultas de CPF encerradas por tempo esgotado")
+                .register(meterRegistry);
+        this.bulkheadCounter = Counter.builder("votacao.cpf.bulkhead.rejeitado")
+                .description("Consultas de CPF rejeitadas pelo limite de concorrencia")
+                .register(meterRegistry);
+        this.coalescidoCounter = Counter.builder("votacao.cpf.coalescido")
+                .description("Consultas de CPF atendidas por uma chamada ja em andamento")
+                .register(meterRegistry);
+        Gauge.builder("votacao.cpf.em_andamento", emAndamento, Map::size)
+                .description("Consultas de CPF em andamento")
+                .register(meterRegistry);
+        Gauge.builder("votacao.cpf.bulkhead.disponivel", bulkhead, Semaphore::availablePermits)
+                .description("Permissoes livres no limite de concorrencia de CPF")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CpfClientResult consultar(String cpf) {
+        try {
+            return consultarAsync(cpf).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CpfClientUnavailableException("Consulta de CPF interrompida");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new CompletionException(ex.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<CpfClientResult> consultarAsync(String cpf) {
+        CompletableFuture<CpfClientResult> resultado = new CompletableFuture<>();
+        CompletableFuture<CpfClientResult> existente = emAndamento.putIfAbsent(cpf, resultado);
+        if (existente != null) {
+            coalescidoCounter.increment();
+            return existente;
+        }
+        if (!bulkhead.tryAcquire()) {
+            bulkheadCounter.increment();
+            concluir(cpf, resultado, null,
+                    new CpfClientUnavailableException("Limite de consultas de CPF atingido, tente novamente"));
+            return resultado;
+        }
+        CompletableFuture<CpfClientResult> chamada;
+        try {
+            chamada = delegate.consultarAsync(cpf);
+        } catch (RuntimeException ex) {
+            bulkhead.release();
+            concluir(cpf, resultado, null, ex);
+            return resultado;
+        }
+        // The permit is back before the caller sees the result, so it can start another lookup at once.
+        CompletableFuture<CpfClientResult> limitada = chamada.whenComplete((valor, erro) -> bulkhead.release()).copy();
+        CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS, executor)
+                .execute(() -> limitada.completeExceptionally(new TimeoutException()));
+        limitada.whenComplete((valor, erro) -> concluir(cpf, resultado, valor, erro));
+        return resultado;
+    }
+
+    private void concluir(String cpf, CompletableFuture<CpfClientResult> resultado, CpfClientResult valor, Throwable erro) {
+        emAndamento.remove(cpf, resultado);
+        if (erro == null) {
+            resultado.complete(valor);
+            return;
+        }
+        Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+        if (causa instanceof TimeoutException) {
+            timeoutCounter.increment();
+            causa = new CpfClientUnavailableException("Tempo de consulta de CPF esgotado");
+        }
+        resultado.completeExceptionally(causa);
+    }
+}
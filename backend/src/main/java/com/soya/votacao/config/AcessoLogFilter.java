@@ -0,0 +1,53 @@
+package com.soya.votacao.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Access log on the {@code votacao.acesso} logger, one line per request once it completes.
+ * Responses with status {@code erro-a-partir-de} or above and requests that throw are always
+ * logged; the others with probability {@code amostragem}.
+ */
+public class AcessoLogFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger("votacao.acesso");
+
+    private final double amostragem;
+    private final int erroAPartirDe;
+
+    public AcessoLogFilter(double amostragem, int erroAPartirDe) {
+        this.amostragem = amostragem;
+        this.erroAPartirDe = erroAPartirDe;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            log.warn("{} {} failed after {}ms client={}: {}", request.getMethod(), request.getRequestURI(),
+                    (System.nanoTime() - inicio) / 1_000_000, request.getRemoteAddr(), ex.toString());
+            throw ex;
+        }
+        int status = response.getStatus();
+        boolean erro = status >= erroAPartirDe;
+        if (erro || (amostragem > 0 && ThreadLocalRandom.current().nextDouble() < amostragem)) {
+            long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+            if (erro) {
+                log.warn("{} {} {} {}ms client={}", request.getMethod(), request.getRequestURI(), status, duracaoMs,
+                        request.getRemoteAddr());
+            } else {
+                log.info("{} {} {} {}ms client={}", request.getMethod(), request.getRequestURI(), status, duracaoMs,
+                        request.getRemoteAddr());
+            }
+        }
+    }
+}
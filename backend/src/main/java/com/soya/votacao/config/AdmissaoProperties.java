@@ -0,0 +1,116 @@
+package com.soya.votacao.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "votacao.admissao")
+public class AdmissaoProperties {
+    private boolean enabled = false;
+    private int limiteInicial = 200;
+    private int limiteMinimo = 8;
+    private int limiteMaximo = 2000;
+    private Duration latenciaAlvo = Duration.ofMillis(500);
+    private double fatorReducao = 0.9;
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private double globalPorSegundo = 5000;
+    private int globalRajada = 1000;
+    private double associadoPorSegundo = 2;
+    private int associadoRajada = 10;
+    private long maximoAssociados = 100000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLimiteInicial() {
+        return limiteInicial;
+    }
+
+    public void setLimiteInicial(int limiteInicial) {
+        this.limiteInicial = limiteInicial;
+    }
+
+    public int getLimiteMinimo() {
+        return limiteMinimo;
+    }
+
+    public void setLimiteMinimo(int limiteMinimo) {
+        this.limiteMinimo = limiteMinimo;
+    }
+
+    public int getLimiteMaximo() {
+        return limiteMaximo;
+    }
+
+    public void setLimiteMaximo(int limiteMaximo) {
+        this.limiteMaximo = limiteMaximo;
+    }
+
+    public Duration getLatenciaAlvo() {
+        return latenciaAlvo;
+    }
+
+    public void setLatenciaAlvo(Duration latenciaAlvo) {
+        this.latenciaAlvo = latenciaAlvo;
+    }
+
+    public double getFatorReducao() {
+        return fatorReducao;
+    }
+
+    public void setFatorReducao(double fatorReducao) {
+        this.fatorReducao = fatorReducao;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public double getGlobalPorSegundo() {
+        return globalPorSegundo;
+    }
+
+    public void setGlobalPorSegundo(double globalPorSegundo) {
+        this.globalPorSegundo = globalPorSegundo;
+    }
+
+    public int getGlobalRajada() {
+        return globalRajada;
+    }
+
+    public void setGlobalRajada(int globalRajada) {
+        this.globalRajada = globalRajada;
+    }
+
+    public double getAssociadoPorSegundo() {
+        return associadoPorSegundo;
+    }
+
+    public void setAssociadoPorSegundo(double associadoPorSegundo) {
+        this.associadoPorSegundo = associadoPorSegundo;
+    }
+
+    public int getAssociadoRajada() {
+        return associadoRajada;
+    }
+
+    public void setAssociadoRajada(int associadoRajada) {
+        this.associadoRajada = associadoRajada;
+    }
+
+    public long getMaximoAssociados() {
+        return maximoAssociados;
+    }
+
+    public void setMaximoAssociados(long maximoAssociados) {
+        this.maximoAssociados = maximoAssociados;
+    }
+}
@@ -0,0 +1,95 @@
+package com.soya.votacao.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.List;
+
+/**
+ * Tail part of the sampling policy: when a root span recorded but not sampled by
+ * {@link AmostragemSampler} ends with an error (exception or HTTP 5xx) or slower than its
+ * {@code lento} limit, it is exported on its own. 503 rejections are not kept, so an overload
+ * does not turn into a burst of traces.
+ */
+public class AmostragemCaudaSpanProcessor implements SpanProcessor {
+    private static final AttributeKey<String> METODO = AttributeKey.stringKey("method");
+    private static final AttributeKey<String> URI = AttributeKey.stringKey("uri");
+    private static final AttributeKey<String> STATUS = AttributeKey.stringKey("status");
+
+    private final AmostragemSampler sampler;
+    private final SpanExporter exportador;
+    private final Counter erroCounter;
+    private final Counter lentoCounter;
+
+    public AmostragemCaudaSpanProcessor(AmostragemSampler sampler, SpanExporter exportador, MeterRegistry meterRegistry) {
+        this.sampler = sampler;
+        this.exportador = exportador;
+        this.erroCounter = amostrado(meterRegistry, "erro");
+        this.lentoCounter = amostrado(meterRegistry, "lento");
+    }
+
+    static Counter amostrado(MeterRegistry meterRegistry, String motivo) {
+        return Counter.builder("votacao.tracing.amostrado")
+                .description("Traces mantidos pela politica de amostragem por motivo")
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (span.getSpanContext().isSampled()) {
+            return;
+        }
+        SpanContext pai = span.getParentSpanContext();
+        if (pai.isValid() && !pai.isRemote()) {
+            return;
+        }
+        if (erro(span)) {
+            erroCounter.increment();
+        } else if (span.getLatencyNanos() >= sampler.lento(span.getAttribute(METODO), span.getAttribute(URI)).toNanos()) {
+            lentoCounter.increment();
+        } else {
+            return;
+        }
+        exportador.export(List.of(span.toSpanData()));
+    }
+
+    /**
+     * HTTP roots are judged by response status, since handled exceptions such as a 409 are also
+     * tagged on them; only other roots need the span status, which takes a snapshot of the span.
+     */
+    private static boolean erro(ReadableSpan span) {
+        String status = span.getAttribute(STATUS);
+        if (status != null) {
+            return status.startsWith("5") && !status.equals("503");
+        }
+        return span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
@@ -0,0 +1,68 @@
+package com.soya.votacao.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Trace sampling ({@link AmostragemSampler}, {@link AmostragemCaudaSpanProcessor}) and the
+ * allowlist of observations that create spans ({@link SpanSeletivoObservationHandler}).
+ */
+@Configuration
+public class AmostragemConfig {
+
+    @Bean
+    public AmostragemSampler amostragemSampler(
+            @Value("${management.tracing.sampling.probability:0.01}") double probabilidade,
+            AmostragemProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        return new AmostragemSampler(probabilidade, properties, meterRegistry);
+    }
+
+    @Bean
+    public AmostragemCaudaSpanProcessor amostragemCaudaSpanProcessor(
+            AmostragemSampler sampler,
+            ObjectProvider<SpanExporter> exportadores,
+            MeterRegistry meterRegistry
+    ) {
+        return new AmostragemCaudaSpanProcessor(sampler,
+                SpanExporter.composite(exportadores.orderedStream().toList()), meterRegistry);
+    }
+
+    @Bean
+    public SpanSeletivoObservationHandler defaultTracingObservationHandler(Tracer tracer, AmostragemProperties properties) {
+        return new SpanSeletivoObservationHandler(tracer, Set.copyOf(properties.getSpans()));
+    }
+
+    /**
+     * Runs ahead of the observation filter so the sampler sees the request of the root span.
+     */
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> amostragemRequisicaoFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registro = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                try (AmostragemSampler.Escopo escopo = AmostragemSampler.requisicao(request.getMethod(), request.getRequestURI())) {
+                    chain.doFilter(request, response);
+                }
+            }
+        });
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
@@ -0,0 +1,85 @@
+package com.soya.votacao.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Trace sampling. The default rate is {@code management.tracing.sampling.probability}.
+ */
+@ConfigurationProperties(prefix = "votacao.tracing")
+public class AmostragemProperties {
+    private Duration lento = Duration.ofSeconds(1);
+    private List<String> spans = new ArrayList<>(List.of(
+            "votacao.voto.registrar",
+            "votacao.voto.enfileirar",
+            "votacao.voto.lote",
+            "votacao.pauta.criar",
+            "votacao.pauta.remover",
+            "votacao.sessao.abrir"));
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    public Duration getLento() {
+        return lento;
+    }
+
+    public void setLento(Duration lento) {
+        this.lento = lento;
+    }
+
+    public List<String> getSpans() {
+        return spans;
+    }
+
+    public void setSpans(List<String> spans) {
+        this.spans = spans;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public static class Endpoint {
+        private String metodo;
+        private String caminho;
+        private Double probabilidade;
+        private Duration lento;
+
+        public String getMetodo() {
+            return metodo;
+        }
+
+        public void setMetodo(String metodo) {
+            this.metodo = metodo;
+        }
+
+        public String getCaminho() {
+            return caminho;
+        }
+
+        public void setCaminho(String caminho) {
+            this.caminho = caminho;
+        }
+
+        public Double getProbabilidade() {
+            return probabilidade;
+        }
+
+        public void setProbabilidade(Double probabilidade) {
+            this.probabilidade = probabilidade;
+        }
+
+        public Duration getLento() {
+            return lento;
+        }
+
+        public void setLento(Duration lento) {
+            this.lento = lento;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.soya.votacao.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Head part of the sampling policy. A trace root is sampled with the probability of the first
+ * {@link AmostragemProperties.Endpoint} matching the request (or the default rate), by trace id,
+ * and then its whole trace is recorded and exported. A root that loses is only recorded, so
+ * {@link AmostragemCaudaSpanProcessor} can still keep it when it fails or is slow; its child
+ * spans are dropped. A sampled remote parent is honored.
+ *
+ * <p>The request is known here because a filter ahead of the observation filter publishes it
+ * with {@link #requisicao}.
+ */
+public class AmostragemSampler implements Sampler {
+    private static final ThreadLocal<Requisicao> REQUISICAO = new ThreadLocal<>();
+    private static final SamplingResult SOMENTE_GRAVAR = SamplingResult.create(SamplingDecision.RECORD_ONLY);
+    private static final AntPathMatcher CAMINHOS = new AntPathMatcher();
+
+    private final Sampler padrao;
+    private final List<AmostragemProperties.Endpoint> endpoints;
+    private final List<Sampler> porEndpoint;
+    private final Duration lento;
+    private final Counter cabecaCounter;
+
+    public AmostragemSampler(double probabilidade, AmostragemProperties properties, MeterRegistry meterRegistry) {
+        this.padrao = Sampler.traceIdRatioBased(probabilidade);
+        this.endpoints = List.copyOf(properties.getEndpoints());
+        this.porEndpoint = endpoints.stream()
+                .map(endpoint -> endpoint.getProbabilidade() == null
+                        ? padrao
+                        : Sampler.traceIdRatioBased(endpoint.getProbabilidade()))
+                .toList();
+        this.lento = properties.getLento();
+        this.cabecaCounter = AmostragemCaudaSpanProcessor.amostrado(meterRegistry, "cabeca");
+    }
+
+    /**
+     * Publishes the request being handled by this thread to the sampler; close the scope when
+     * the request ends.
+     */
+    public static Escopo requisicao(String metodo, String caminho) {
+        REQUISICAO.set(new Requisicao(metodo, caminho));
+        return REQUISICAO::remove;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        SpanContext pai = Span.fromContext(parentContext).getSpanContext();
+        if (pai.isValid() && (pai.isSampled() || !pai.isRemote())) {
+            return pai.isSampled() ? SamplingResult.recordAndSample() : SamplingResult.drop();
+        }
+        Requisicao requisicao = REQUISICAO.get();
+        int indice = requisicao == null ? -1 : endpoint(requisicao.metodo, requisicao.caminho);
+        Sampler sampler = indice < 0 ? padrao : porEndpoint.get(indice);
+        SamplingResult resultado = sampler.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+        if (resultado.getDecision() == SamplingDecision.RECORD_AND_SAMPLE) {
+            cabecaCounter.increment();
+            return resultado;
+        }
+        return SOMENTE_GRAVAR;
+    }
+
+    /**
+     * Latency above which an unsampled request is kept; {@code caminho} may be the concrete path
+     * or the matched URI template.
+     */
+    Duration lento(String metodo, String caminho) {
+        int indice = caminho == null ? -1 : endpoint(metodo, caminho);
+        Duration limite = indice < 0 ? null : endpoints.get(indice).getLento();
+        return limite == null ? lento : limite;
+    }
+
+    private int endpoint(String metodo, String caminho) {
+        for (int i = 0; i < endpoints.size(); i++) {
+            AmostragemProperties.Endpoint endpoint = endpoints.get(i);
+            if ((endpoint.getMetodo() == null || endpoint.getMetodo().equalsIgnoreCase(metodo))
+                    && CAMINHOS.match(endpoint.getCaminho(), caminho)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getDescription() {
+        return "AmostragemSampler{" + padrao.getDescription() + ", endpoints=" + endpoints.size() + "}";
+    }
+
+    public interface Escopo extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record Requisicao(String metodo, String caminho) {
+    }
+}
@@ -1,6 +1,9 @@
 package com.soya.votacao.config;
 
+import com.soya.votacao.controller.PautaController;
+import com.soya.votacao.service.IdempotenciaService;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -11,7 +14,8 @@ public class CorsConfig implements WebMvcConfigurer {
         registry.addMapping("/api/**")
                 .allowedOrigins("http://localhost:5173")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                .allowedHeaders("*");
+                .allowedHeaders("*")
+                .exposedHeaders(PautaController.PROXIMO_CURSOR_HEADER, HttpHeaders.ETAG, IdempotenciaService.REPETIDA_HEADER);
     }
 }
 
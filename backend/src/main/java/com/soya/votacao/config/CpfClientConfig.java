@@ -0,0 +1,44 @@
+package com.soya.votacao.config;
+
+import com.soya.votacao.client.CachingCpfClient;
+import com.soya.votacao.client.CpfClient;
+import com.soya.votacao.client.FakeCpfClient;
+import com.soya.votacao.client.ResilientCpfClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+@Configuration
+public class CpfClientConfig {
+
+    @Bean
+    public CpfClient fakeCpfClient(CpfClientProperties properties, MeterRegistry meterRegistry, Environment environment) {
+        Executor executor = cpfExecutor(environment);
+        ResilientCpfClient client = new ResilientCpfClient(
+                new FakeCpfClient(properties.getFakeLatencia(), executor),
+                properties.getTimeout(),
+                properties.getMaxConcurrent(),
+                executor,
+                meterRegistry);
+        CpfClientProperties.Cache cache = properties.getCache();
+        if (!cache.isEnabled()) {
+            return client;
+        }
+        return new CachingCpfClient(client, cache.getTtl(), cache.getMaximumSize(), executor, meterRegistry);
+    }
+
+    /**
+     * Where CPF lookups and their timeouts run: a virtual thread per lookup when
+     * {@code spring.threads.virtual.enabled} is on (Java 21+), otherwise the common pool.
+     */
+    static Executor cpfExecutor(Environment environment) {
+        return Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("cpf-")
+                : ForkJoinPool.commonPool();
+    }
+}
@@ -0,0 +1,70 @@
+package com.soya.votacao.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "votacao.cpf")
+public class CpfClientProperties {
+    private Duration timeout = Duration.ofSeconds(2);
+    private int maxConcurrent = 64;
+    private Duration fakeLatencia = Duration.ZERO;
+    private final Cache cache = new Cache();
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public Duration getFakeLatencia() {
+        return fakeLatencia;
+    }
+
+    public void setFakeLatencia(Duration fakeLatencia) {
+        this.fakeLatencia = fakeLatencia;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public static class Cache {
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofMinutes(10);
+        private long maximumSize = 100000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+}
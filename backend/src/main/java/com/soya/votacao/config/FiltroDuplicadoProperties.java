@@ -0,0 +1,34 @@
+package com.soya.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "votacao.filtro-duplicado")
+public class FiltroDuplicadoProperties {
+    private boolean enabled = true;
+    private int expectedVotos = 100000;
+    private double falsoPositivo = 0.01;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getExpectedVotos() {
+        return expectedVotos;
+    }
+
+    public void setExpectedVotos(int expectedVotos) {
+        this.expectedVotos = expectedVotos;
+    }
+
+    public double getFalsoPositivo() {
+        return falsoPositivo;
+    }
+
+    public void setFalsoPositivo(double falsoPositivo) {
+        this.falsoPositivo = falsoPositivo;
+    }
+}
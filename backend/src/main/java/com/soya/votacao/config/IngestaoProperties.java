@@ -0,0 +1,116 @@
+package com.soya.votacao.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "votacao.ingestao")
+public class IngestaoProperties {
+    private boolean enabled = false;
+    private int queueCapacity = 10000;
+    private int batchSize = 500;
+    private Duration flushInterval = Duration.ofMillis(50);
+    private int maxRecibos = 100000;
+    private int tentativas = 3;
+    private Duration esperaTentativa = Duration.ofMillis(100);
+    private final Journal journal = new Journal();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxRecibos() {
+        return maxRecibos;
+    }
+
+    public void setMaxRecibos(int maxRecibos) {
+        this.maxRecibos = maxRecibos;
+    }
+
+    public int getTentativas() {
+        return tentativas;
+    }
+
+    public void setTentativas(int tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    public Duration getEsperaTentativa() {
+        return esperaTentativa;
+    }
+
+    public void setEsperaTentativa(Duration esperaTentativa) {
+        this.esperaTentativa = esperaTentativa;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public static class Journal {
+        private boolean enabled = false;
+        private String diretorio = "./data/journal";
+        private DataSize segmento = DataSize.ofMegabytes(64);
+        private Duration fsyncIntervalo = Duration.ofMillis(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDiretorio() {
+            return diretorio;
+        }
+
+        public void setDiretorio(String diretorio) {
+            this.diretorio = diretorio;
+        }
+
+        public DataSize getSegmento() {
+            return segmento;
+        }
+
+        public void setSegmento(DataSize segmento) {
+            this.segmento = segmento;
+        }
+
+        public Duration getFsyncIntervalo() {
+            return fsyncIntervalo;
+        }
+
+        public void setFsyncIntervalo(Duration fsyncIntervalo) {
+            this.fsyncIntervalo = fsyncIntervalo;
+        }
+    }
+}
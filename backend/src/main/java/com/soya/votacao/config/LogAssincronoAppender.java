@@ -0,0 +1,65 @@
+package com.soya.votacao.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback {@link AsyncAppender} whose ring buffer of {@code queueSize} events is drained by one
+ * worker thread, with a drop policy instead of logback's block-on-full default:
+ * <ul>
+ *   <li>{@code descartar-info}: INFO and below are dropped once the buffer is 80% full, and any
+ *   event when it is full;</li>
+ *   <li>{@code descartar}: any event is dropped only when the buffer is full;</li>
+ *   <li>{@code bloquear}: nothing is dropped and the logging thread waits for room.</li>
+ * </ul>
+ * Dropped events are counted for {@code votacao.log.descartado}.
+ */
+public class LogAssincronoAppender extends AsyncAppender {
+    public enum Descarte {
+        DESCARTAR_INFO, DESCARTAR, BLOQUEAR
+    }
+
+    private final LongAdder descartados = new LongAdder();
+    private Descarte descarte = Descarte.DESCARTAR_INFO;
+
+    public void setDescarte(String descarte) {
+        this.descarte = Descarte.valueOf(descarte.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public Descarte getDescarte() {
+        return descarte;
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    @Override
+    public void start() {
+        setNeverBlock(descarte != Descarte.BLOQUEAR);
+        if (descarte != Descarte.DESCARTAR_INFO) {
+            setDiscardingThreshold(0);
+        }
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            descartados.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean descartavel = super.isDiscardable(event);
+        if (descartavel) {
+            descartados.increment();
+        }
+        return descartavel;
+    }
+}
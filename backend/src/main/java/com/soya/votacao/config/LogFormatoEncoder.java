@@ -0,0 +1,93 @@
+package com.soya.votacao.config;
+
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Console encoder chosen by {@code votacao.log.formato}, so the logback config declares a single
+ * appender instead of one per format:
+ * <ul>
+ *   <li>{@code json}: logback's {@link JsonEncoder} with the formatted message and MDC;</li>
+ *   <li>{@code texto}: a {@link PatternLayoutEncoder} with {@code pattern} and {@code charset}.</li>
+ * </ul>
+ */
+public class LogFormatoEncoder extends EncoderBase<ILoggingEvent> {
+    public enum Formato {
+        JSON, TEXTO
+    }
+
+    private Formato formato = Formato.JSON;
+    private String pattern;
+    private Charset charset;
+    private Encoder<ILoggingEvent> delegate;
+
+    public void setFormato(String formato) {
+        this.formato = Formato.valueOf(formato.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public Formato getFormato() {
+        return formato;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    @Override
+    public void start() {
+        delegate = formato == Formato.TEXTO ? texto() : json();
+        delegate.setContext(getContext());
+        delegate.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (delegate != null) {
+            delegate.stop();
+        }
+        super.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return delegate.headerBytes();
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        return delegate.encode(event);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return delegate.footerBytes();
+    }
+
+    private Encoder<ILoggingEvent> texto() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setPattern(pattern);
+        encoder.setCharset(charset);
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> json() {
+        JsonEncoder encoder = new JsonEncoder();
+        encoder.setWithSequenceNumber(false);
+        encoder.setWithNanoseconds(false);
+        encoder.setWithContext(false);
+        encoder.setWithMessage(false);
+        encoder.setWithArguments(false);
+        encoder.setWithFormattedMessage(true);
+        return encoder;
+    }
+}
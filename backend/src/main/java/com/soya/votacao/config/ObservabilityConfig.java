@@ -1,21 +1,57 @@
 package com.soya.votacao.config;
 
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Iterator;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.filter.CommonsRequestLoggingFilter;
 
 @Configuration
 public class ObservabilityConfig {
 
     @Bean
-    public CommonsRequestLoggingFilter requestLoggingFilter() {
-        CommonsRequestLoggingFilter filter = new CommonsRequestLoggingFilter();
-        filter.setIncludeClientInfo(true);
-        filter.setIncludeQueryString(true);
-        filter.setIncludeHeaders(false);
-        filter.setIncludePayload(false);
-        filter.setAfterMessagePrefix("Request ");
-        return filter;
+    @ConditionalOnProperty(name = "votacao.log.acesso.enabled", havingValue = "true", matchIfMissing = true)
+    public AcessoLogFilter acessoLogFilter(
+            @Value("${votacao.log.acesso.amostragem:0.01}") double amostragem,
+            @Value("${votacao.log.acesso.erro-a-partir-de:500}") int erroAPartirDe
+    ) {
+        return new AcessoLogFilter(amostragem, erroAPartirDe);
     }
-}
 
+    /**
+     * Queue depth and drops of each {@link LogAssincronoAppender} on the root logger.
+     */
+    @Bean
+    public MeterBinder logAssincronoMetricas() {
+        return registry -> {
+            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+            while (appenders.hasNext()) {
+                if (appenders.next() instanceof LogAssincronoAppender appender) {
+                    Tags tags = Tags.of("appender", appender.getName());
+                    Gauge.builder("votacao.log.fila", appender, LogAssincronoAppender::getNumberOfElementsInQueue)
+                            .description("Eventos de log aguardando escrita")
+                            .tags(tags)
+                            .register(registry);
+                    Gauge.builder("votacao.log.fila.capacidade", appender, LogAssincronoAppender::getQueueSize)
+                            .description("Capacidade do buffer de log")
+                            .tags(tags)
+                            .register(registry);
+                    FunctionCounter.builder("votacao.log.descartado", appender, LogAssincronoAppender::getDescartados)
+                            .description("Eventos de log descartados com o buffer cheio")
+                            .tags(tags)
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
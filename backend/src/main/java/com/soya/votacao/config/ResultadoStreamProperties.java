@@ -0,0 +1,53 @@
+package com.soya.votacao.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "votacao.resultado.stream")
+public class ResultadoStreamProperties {
+    private Duration intervalo = Duration.ofMillis(100);
+    private Duration timeout = Duration.ofMinutes(30);
+    private int maxAssinantes = 1000;
+    private int threadsEnvio = 4;
+    private Duration prazoEnvio = Duration.ofSeconds(5);
+
+    public Duration getIntervalo() {
+        return intervalo;
+    }
+
+    public void setIntervalo(Duration intervalo) {
+        this.intervalo = intervalo;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxAssinantes() {
+        return maxAssinantes;
+    }
+
+    public void setMaxAssinantes(int maxAssinantes) {
+        this.maxAssinantes = maxAssinantes;
+    }
+
+    public int getThreadsEnvio() {
+        return threadsEnvio;
+    }
+
+    public void setThreadsEnvio(int threadsEnvio) {
+        this.threadsEnvio = threadsEnvio;
+    }
+
+    public Duration getPrazoEnvio() {
+        return prazoEnvio;
+    }
+
+    public void setPrazoEnvio(Duration prazoEnvio) {
+        this.prazoEnvio = prazoEnvio;
+    }
+}
@@ -0,0 +1,67 @@
+package com.soya.votacao.config;
+
+import com.soya.votacao.model.SequenciaIdGenerator;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Id sequences of {@link SequenciaIdGenerator}. Once the schema is up to date and before the
+ * session factory serves anyone, each sequence is moved past the ids already in its table (rows
+ * written while the tables used {@code IDENTITY}) and set to step by
+ * {@code votacao.id.allocation-size}, so changing that setting cannot hand out overlapping blocks.
+ */
+@Configuration
+public class SequenciaIdConfig {
+    private static final Logger log = LoggerFactory.getLogger(SequenciaIdConfig.class);
+    static final Map<String, String> SEQUENCIAS = Map.of(
+            "pautas", "pautas_seq",
+            "sessoes", "sessoes_seq",
+            "votos", "votos_seq");
+
+    @Bean
+    public HibernatePropertiesCustomizer sequenciaIdCustomizer(
+            DataSource dataSource,
+            @Value("${votacao.id.allocation-size:" + SequenciaIdGenerator.ALLOCATION_SIZE_PADRAO + "}") int allocationSize
+    ) {
+        return properties -> {
+            properties.put(SequenciaIdGenerator.ALLOCATION_SIZE, allocationSize);
+            properties.put(AvailableSettings.SESSION_FACTORY_OBSERVER, new SessionFactoryObserver() {
+                @Override
+                public void sessionFactoryCreated(SessionFactory factory) {
+                    sincronizar(new JdbcTemplate(dataSource), allocationSize);
+                }
+            });
+        };
+    }
+
+    static void sincronizar(JdbcTemplate jdbcTemplate, int allocationSize) {
+        SEQUENCIAS.forEach((tabela, sequencia) -> {
+            Long maiorId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + tabela, Long.class);
+            Map<String, Object> atual = jdbcTemplate.queryForMap(
+                    "select base_value, increment from information_schema.sequences where sequence_name = ?",
+                    sequencia.toUpperCase());
+            long proximo = ((Number) atual.get("BASE_VALUE")).longValue();
+            long incremento = ((Number) atual.get("INCREMENT")).longValue();
+            // The pooled optimizer uses the block that ends at the fetched value, except for the
+            // initial value of a new sequence, where it starts at 1.
+            long minimo = maiorId + allocationSize + 1;
+            boolean nova = maiorId == 0 && proximo == 1;
+            if ((nova || proximo >= minimo) && incremento == allocationSize) {
+                return;
+            }
+            long inicio = Math.max(proximo, minimo);
+            jdbcTemplate.execute("alter sequence " + sequencia + " restart with " + inicio + " increment by " + allocationSize);
+            log.info("Sequence {} restarted at {} with increment {}", sequencia, inicio, allocationSize);
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.soya.votacao.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import java.util.Set;
+
+/**
+ * Creates spans only for the {@code votacao.*} observations in {@code votacao.tracing.spans};
+ * other observations keep the default behavior. A skipped observation still gets an empty
+ * tracing context, which the metrics handler expects, and the current span stays the parent's,
+ * so nested spans and log correlation are unaffected.
+ */
+public class SpanSeletivoObservationHandler extends DefaultTracingObservationHandler {
+    private final Set<String> spans;
+
+    public SpanSeletivoObservationHandler(Tracer tracer, Set<String> spans) {
+        super(tracer);
+        this.spans = spans;
+    }
+
+    boolean criaSpan(Observation.Context context) {
+        String nome = context.getName();
+        return nome == null || !nome.startsWith("votacao.") || spans.contains(nome);
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        if (criaSpan(context)) {
+            super.onStart(context);
+        } else {
+            getTracingContext(context);
+        }
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        if (criaSpan(context)) {
+            super.onStop(context);
+        }
+    }
+
+    @Override
+    public void onScopeOpened(Observation.Context context) {
+        if (criaSpan(context)) {
+            super.onScopeOpened(context);
+        }
+    }
+
+    @Override
+    public void onScopeClosed(Observation.Context context) {
+        if (criaSpan(context)) {
+            super.onScopeClosed(context);
+        }
+    }
+
+    @Override
+    public void onScopeReset(Observation.Context context) {
+        if (criaSpan(context)) {
+            super.onScopeReset(context);
+        }
+    }
+
+    @Override
+    public void onEvent(Observation.Event event, Observation.Context context) {
+        if (criaSpan(context)) {
+            super.onEvent(event, context);
+        }
+    }
+
+    @Override
+    public void onError(Observation.Context context) {
+        if (criaSpan(context)) {
+            super.onError(context);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.soya.votacao.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event while virtual threads are enabled, so a
+ * carrier thread blocked inside {@code synchronized} or native code shows up as the
+ * {@code votacao.virtual.pinned} timer and a log line pointing at the pinning frame.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final Timer pinnedTimer;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            @Value("${votacao.virtual.pinning-threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry
+    ) {
+        this.threshold = threshold;
+        this.pinnedTimer = Timer.builder("votacao.virtual.pinned")
+                .description("Tempo em que virtual threads ficaram presas ao carrier")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {})", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void registrar(RecordedEvent evento) {
+        pinnedTimer.record(evento.getDuration());
+        if (log.isWarnEnabled() && evento.getStackTrace() != null) {
+            List<RecordedFrame> frames = evento.getStackTrace().getFrames();
+            String origem = frames.stream()
+                    .filter(frame -> frame.getMethod().getType().getName().startsWith("com.soya"))
+                    .findFirst()
+                    .or(() -> frames.stream().findFirst())
+                    .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                            + ":" + frame.getLineNumber())
+                    .orElse("?");
+            log.warn("Virtual thread pinned for {} ms at {}", evento.getDuration().toMillis(), origem);
+        }
+    }
+}
@@ -2,50 +2,94 @@ package com.soya.votacao.controller;
 
 import com.soya.votacao.dto.CreatePautaRequest;
 import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.dto.PautaPagina;
 import com.soya.votacao.dto.PautaResponse;
 import com.soya.votacao.dto.ResultadoResponse;
 import com.soya.votacao.dto.SessaoResponse;
+import com.soya.votacao.dto.VotoReciboResponse;
 import com.soya.votacao.dto.VotoRequest;
 import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.ResultadoFinal;
 import com.soya.votacao.model.Sessao;
+import com.soya.votacao.service.AdmissaoVotoService;
+import com.soya.votacao.service.IdempotenciaService;
 import com.soya.votacao.service.PautaQueryService;
 import com.soya.votacao.service.PautaService;
+import com.soya.votacao.service.ResultadoBroadcaster;
+import com.soya.votacao.service.ResultadoFinalService;
 import com.soya.votacao.service.SessaoQueryService;
 import com.soya.votacao.service.SessaoService;
+import com.soya.votacao.service.VersaoRegistry;
+import com.soya.votacao.service.VotoIngestaoService;
+import com.soya.votacao.service.VotoLoteService;
 import com.soya.votacao.service.VotoService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/pautas")
 public class PautaController {
+    public static final String PROXIMO_CURSOR_HEADER = "X-Next-Cursor";
+
     private final PautaService pautaService;
     private final SessaoService sessaoService;
     private final VotoService votoService;
     private final PautaQueryService pautaQueryService;
     private final SessaoQueryService sessaoQueryService;
+    private final VotoIngestaoService votoIngestaoService;
+    private final VotoLoteService votoLoteService;
+    private final ResultadoBroadcaster resultadoBroadcaster;
+    private final ResultadoFinalService resultadoFinalService;
+    private final VersaoRegistry versaoRegistry;
+    private final IdempotenciaService idempotenciaService;
+    private final AdmissaoVotoService admissaoVotoService;
 
     public PautaController(
             PautaService pautaService,
             SessaoService sessaoService,
             VotoService votoService,
             PautaQueryService pautaQueryService,
-            SessaoQueryService sessaoQueryService
+            SessaoQueryService sessaoQueryService,
+            VotoIngestaoService votoIngestaoService,
+            VotoLoteService votoLoteService,
+            ResultadoBroadcaster resultadoBroadcaster,
+            ResultadoFinalService resultadoFinalService,
+            VersaoRegistry versaoRegistry,
+            IdempotenciaService idempotenciaService,
+            AdmissaoVotoService admissaoVotoService
     ) {
         this.pautaService = pautaService;
         this.sessaoService = sessaoService;
         this.votoService = votoService;
         this.pautaQueryService = pautaQueryService;
         this.sessaoQueryService = sessaoQueryService;
+        this.votoIngestaoService = votoIngestaoService;
+        this.votoLoteService = votoLoteService;
+        this.resultadoBroadcaster = resultadoBroadcaster;
+        this.resultadoFinalService = resultadoFinalService;
+        this.versaoRegistry = versaoRegistry;
+        this.idempotenciaService = idempotenciaService;
+        this.admissaoVotoService = admissaoVotoService;
     }
 
     @PostMapping
@@ -55,13 +99,30 @@ public class PautaController {
     }
 
     @GetMapping
-    public ResponseEntity<List<PautaResponse>> listar() {
-        return ResponseEntity.ok(pautaQueryService.listar());
+    public ResponseEntity<List<PautaResponse>> listar(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limite", required = false) Integer limite,
+            WebRequest webRequest
+    ) {
+        String etag = versaoRegistry.etagListagem();
+        if (naoModificado(etag, webRequest)) {
+            return respostaNaoModificada(etag);
+        }
+        PautaPagina pagina = pautaQueryService.listar(cursor, limite);
+        ResponseEntity.BodyBuilder response = ok(etag);
+        if (pagina.getProximoCursor() != null) {
+            response.header(PROXIMO_CURSOR_HEADER, pagina.getProximoCursor());
+        }
+        return response.body(pagina.getItens());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PautaResponse> buscar(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(pautaQueryService.buscar(id));
+    public ResponseEntity<PautaResponse> buscar(@PathVariable("id") Long id, WebRequest webRequest) {
+        String etag = versaoRegistry.etagPauta(id);
+        if (naoModificado(etag, webRequest)) {
+            return respostaNaoModificada(etag);
+        }
+        return ok(etag).body(pautaQueryService.buscar(id));
     }
 
     @PostMapping("/{id}/sessoes")
@@ -72,14 +133,60 @@ public class PautaController {
     }
 
     @PostMapping("/{id}/votos")
-    public ResponseEntity<Void> votar(@PathVariable("id") Long id, @Valid @RequestBody VotoRequest request) {
-        votoService.votar(id, request);
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+    public ResponseEntity<VotoReciboResponse> votar(
+            @PathVariable("id") Long id,
+            @Valid @RequestBody VotoRequest request,
+            @RequestHeader(value = IdempotenciaService.HEADER, required = false) String idempotencyKey
+    ) {
+        String impressao = request.getAssociadoId() + ":" + request.getVoto();
+        return idempotenciaService.executar(id, idempotencyKey, impressao,
+                () -> admissaoVotoService.executar(request.getAssociadoId(), () -> {
+                    if (votoIngestaoService.isEnabled()) {
+                        return ResponseEntity.status(HttpStatus.ACCEPTED).body(votoIngestaoService.enfileirar(id, request));
+                    }
+                    votoService.votar(id, request);
+                    return ResponseEntity.status(HttpStatus.CREATED).build();
+                }));
+    }
+
+    @PostMapping(value = "/{id}/votos/lote", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> votarLote(@PathVariable("id") Long id, HttpServletRequest request) throws IOException {
+        Pauta pauta = pautaService.buscarPorId(id);
+        Sessao sessao = sessaoService.buscarPorPauta(id);
+        InputStream entrada = request.getInputStream();
+        StreamingResponseBody body = saida -> votoLoteService.processar(pauta, sessao, entrada, saida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/{id}/votos/recibos/{reciboId}")
+    public ResponseEntity<VotoReciboResponse> recibo(@PathVariable("id") Long id, @PathVariable("reciboId") String reciboId) {
+        return ResponseEntity.ok(votoIngestaoService.buscarRecibo(id, reciboId));
     }
 
     @GetMapping("/{id}/resultado")
-    public ResponseEntity<ResultadoResponse> resultado(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(votoService.resultado(id));
+    public ResponseEntity<ResultadoResponse> resultado(@PathVariable("id") Long id, WebRequest webRequest) {
+        Optional<ResultadoFinal> resultadoFinal = resultadoFinalService.buscar(id);
+        if (resultadoFinal.isEmpty()) {
+            String etag = versaoRegistry.etagResultado(id);
+            if (naoModificado(etag, webRequest)) {
+                return respostaNaoModificada(etag);
+            }
+            return ok(etag).body(votoService.resultadoEmAndamento(id));
+        }
+        String etag = resultadoFinalService.etag(resultadoFinal.get());
+        CacheControl cacheControl = CacheControl.maxAge(resultadoFinalService.getMaxAge()).cachePublic().immutable();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(resultadoFinalService.toResponse(resultadoFinal.get()));
+    }
+
+    @GetMapping(value = "/{id}/resultado/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter resultadoStream(@PathVariable("id") Long id) {
+        return resultadoBroadcaster.assinar(id);
     }
 
     @DeleteMapping("/{id}")
@@ -87,5 +194,20 @@ public class PautaController {
         pautaService.remover(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    private boolean naoModificado(String etag, WebRequest webRequest) {
+        return etag != null && webRequest.checkNotModified(etag);
+    }
+
+    private <T> ResponseEntity<T> respostaNaoModificada(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    private ResponseEntity.BodyBuilder ok(String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (etag != null) {
+            response.eTag(etag).cacheControl(CacheControl.noCache());
+        }
+        return response;
+    }
+}
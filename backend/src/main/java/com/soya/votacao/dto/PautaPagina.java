@@ -0,0 +1,21 @@
+package com.soya.votacao.dto;
+
+import java.util.List;
+
+public class PautaPagina {
+    private final List<PautaResponse> itens;
+    private final String proximoCursor;
+
+    public PautaPagina(List<PautaResponse> itens, String proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public List<PautaResponse> getItens() {
+        return itens;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+}
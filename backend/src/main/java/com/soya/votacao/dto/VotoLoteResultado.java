@@ -0,0 +1,31 @@
+package com.soya.votacao.dto;
+
+public class VotoLoteResultado {
+    private int linha;
+    private String associadoId;
+    private String status;
+    private String motivo;
+
+    public VotoLoteResultado(int linha, String associadoId, String status, String motivo) {
+        this.linha = linha;
+        this.associadoId = associadoId;
+        this.status = status;
+        this.motivo = motivo;
+    }
+
+    public int getLinha() {
+        return linha;
+    }
+
+    public String getAssociadoId() {
+        return associadoId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+}
@@ -0,0 +1,25 @@
+package com.soya.votacao.dto;
+
+public class VotoReciboResponse {
+    private String reciboId;
+    private Long pautaId;
+    private String status;
+
+    public VotoReciboResponse(String reciboId, Long pautaId, String status) {
+        this.reciboId = reciboId;
+        this.pautaId = pautaId;
+        this.status = status;
+    }
+
+    public String getReciboId() {
+        return reciboId;
+    }
+
+    public Long getPautaId() {
+        return pautaId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
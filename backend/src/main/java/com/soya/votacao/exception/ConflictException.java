@@ -1,8 +1,23 @@
 package com.soya.votacao.exception;
 
 public class ConflictException extends RuntimeException {
+    private final boolean transitorio;
+
     public ConflictException(String message) {
+        this(message, false);
+    }
+
+    public ConflictException(String message, boolean transitorio) {
         super(message);
+        this.transitorio = transitorio;
+    }
+
+    /**
+     * Whether the conflict goes away on its own, such as another request for the same vote still
+     * being processed, so a retry may succeed.
+     */
+    public boolean isTransitorio() {
+        return transitorio;
     }
 }
 
@@ -1,11 +1,14 @@
 package com.soya.votacao.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -33,6 +36,16 @@ public class RestExceptionHandler {
         return buildError(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleUnavailable(ServiceUnavailableException ex, HttpServletRequest request) {
+        return comRetryAfter(buildError(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request.getRequestURI()), ex.getRetryAfter());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex, HttpServletRequest request) {
+        return comRetryAfter(buildError(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request.getRequestURI()), ex.getRetryAfter());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException ex, HttpServletRequest request) {
         String message = ex.getBindingResult().getFieldErrors().stream()
@@ -57,9 +70,22 @@ public class RestExceptionHandler {
         return buildError(HttpStatus.INTERNAL_SERVER_ERROR, "Erro inesperado", request.getRequestURI());
     }
 
+    private ResponseEntity<ErrorResponse> comRetryAfter(ResponseEntity<ErrorResponse> response, Duration retryAfter) {
+        if (retryAfter == null) {
+            return response;
+        }
+        // Retry-After is in whole seconds; round up so clients never come back early.
+        long segundos = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(segundos))
+                .body(response.getBody());
+    }
+
     private ResponseEntity<ErrorResponse> buildError(HttpStatus status, String message, String path) {
         ErrorResponse response = new ErrorResponse(Instant.now(), status.value(), status.getReasonPhrase(), message, path);
-        return ResponseEntity.status(status).body(response);
+        // Explicit content type so errors on streaming endpoints (Accept: text/event-stream) still render as JSON.
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(response);
     }
 }
 
@@ -0,0 +1,23 @@
+package com.soya.votacao.exception;
+
+import java.time.Duration;
+
+public class ServiceUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message) {
+        this(message, null);
+    }
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * How long the client should wait before retrying, or null when unknown.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,37 @@
+package com.soya.votacao.model;
+
+/**
+ * Numeric form of an associado id: an id made of exactly 11 ASCII digits (a CPF without
+ * punctuation) is stored as its value in a {@code BIGINT} and restored with leading zeros.
+ * Any other id, including formatted CPFs, has no numeric form and stays as text, so two ids
+ * that differ as text never share a key.
+ */
+public final class AssociadoChave {
+    static final int DIGITOS = 11;
+
+    private AssociadoChave() {
+    }
+
+    /**
+     * Numeric key of the id, or null when the id is not exactly 11 digits.
+     */
+    public static Long codificar(String associadoId) {
+        if (associadoId == null || associadoId.length() != DIGITOS) {
+            return null;
+        }
+        long valor = 0;
+        for (int i = 0; i < DIGITOS; i++) {
+            char c = associadoId.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    public static String decodificar(long chave) {
+        String digitos = Long.toString(chave);
+        return "0".repeat(DIGITOS - digitos.length()) + digitos;
+    }
+}
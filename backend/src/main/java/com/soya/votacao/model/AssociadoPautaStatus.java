@@ -6,12 +6,20 @@ import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import java.time.Instant;
+import org.springframework.data.domain.Persistable;
 
+/**
+ * Eligibility of an associado on a pauta. New instances are inserted without a lookup by id
+ * ({@link Persistable}), so statuses can be saved in batches.
+ */
 @Entity
 @Table(name = "associados_pauta_status")
-public class AssociadoPautaStatus {
+public class AssociadoPautaStatus implements Persistable<AssociadoPautaId> {
     @EmbeddedId
     private AssociadoPautaId id;
 
@@ -22,6 +30,9 @@ public class AssociadoPautaStatus {
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
 
+    @Transient
+    private boolean novo = true;
+
     protected AssociadoPautaStatus() {
     }
 
@@ -30,10 +41,22 @@ public class AssociadoPautaStatus {
         this.status = status;
     }
 
+    @Override
     public AssociadoPautaId getId() {
         return id;
     }
 
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        novo = false;
+    }
+
     public CpfStatus getStatus() {
         return status;
     }
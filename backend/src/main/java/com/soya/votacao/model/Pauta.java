@@ -2,17 +2,16 @@ package com.soya.votacao.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.Instant;
 
 @Entity
-@Table(name = "pautas")
+@Table(name = "pautas", indexes = @Index(name = "idx_pautas_created_id_desc", columnList = "created_at desc, id desc"))
 public class Pauta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SequenciaId("pautas_seq")
     private Long id;
 
     @Column(nullable = false, length = 120)
@@ -0,0 +1,36 @@
+package com.soya.votacao.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * One of the counter cells of a pauta and vote value. The running tally is the sum of the
+ * cells, so concurrent votes increment different rows instead of queueing on one row lock.
+ */
+@Entity
+@Table(name = "pauta_tally_cell")
+public class PautaTallyCell {
+    @EmbeddedId
+    private PautaTallyCellId id;
+
+    @Column(nullable = false)
+    private long total;
+
+    protected PautaTallyCell() {
+    }
+
+    public PautaTallyCell(PautaTallyCellId id, long total) {
+        this.id = id;
+        this.total = total;
+    }
+
+    public PautaTallyCellId getId() {
+        return id;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
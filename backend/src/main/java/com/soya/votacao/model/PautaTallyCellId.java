@@ -0,0 +1,61 @@
+package com.soya.votacao.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class PautaTallyCellId implements Serializable {
+    @Column(name = "pauta_id", nullable = false)
+    private Long pautaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 3)
+    private VotoValor valor;
+
+    @Column(nullable = false)
+    private int celula;
+
+    protected PautaTallyCellId() {
+    }
+
+    public PautaTallyCellId(Long pautaId, VotoValor valor, int celula) {
+        this.pautaId = pautaId;
+        this.valor = valor;
+        this.celula = celula;
+    }
+
+    public Long getPautaId() {
+        return pautaId;
+    }
+
+    public VotoValor getValor() {
+        return valor;
+    }
+
+    public int getCelula() {
+        return celula;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PautaTallyCellId that = (PautaTallyCellId) o;
+        return celula == that.celula
+                && Objects.equals(pautaId, that.pautaId)
+                && valor == that.valor;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pautaId, valor, celula);
+    }
+}
@@ -0,0 +1,65 @@
+package com.soya.votacao.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Immutable result of a closed session, written once by the finalization job.
+ */
+@Entity
+@Table(name = "resultados_finais")
+public class ResultadoFinal {
+    @Id
+    @Column(name = "pauta_id")
+    private Long pautaId;
+
+    @Column(nullable = false)
+    private long votosSim;
+
+    @Column(nullable = false)
+    private long votosNao;
+
+    @Column(nullable = false)
+    private Instant fechaEm;
+
+    @Column(nullable = false)
+    private Instant finalizadoEm;
+
+    protected ResultadoFinal() {
+    }
+
+    public ResultadoFinal(Long pautaId, long votosSim, long votosNao, Instant fechaEm, Instant finalizadoEm) {
+        this.pautaId = pautaId;
+        this.votosSim = votosSim;
+        this.votosNao = votosNao;
+        this.fechaEm = fechaEm;
+        this.finalizadoEm = finalizadoEm;
+    }
+
+    public Long getPautaId() {
+        return pautaId;
+    }
+
+    public long getVotosSim() {
+        return votosSim;
+    }
+
+    public long getVotosNao() {
+        return votosNao;
+    }
+
+    public long getTotalVotos() {
+        return votosSim + votosNao;
+    }
+
+    public Instant getFechaEm() {
+        return fechaEm;
+    }
+
+    public Instant getFinalizadoEm() {
+        return finalizadoEm;
+    }
+}
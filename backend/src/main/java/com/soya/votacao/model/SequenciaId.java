@@ -0,0 +1,18 @@
+package com.soya.votacao.model;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Id drawn from the database sequence {@link #value()} through {@link SequenciaIdGenerator}.
+ */
+@IdGeneratorType(SequenciaIdGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface SequenciaId {
+    String value();
+}
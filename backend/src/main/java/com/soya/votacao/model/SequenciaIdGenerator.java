@@ -0,0 +1,42 @@
+package com.soya.votacao.model;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence generator with the pooled optimizer: one {@code next value} call hands out
+ * {@value #ALLOCATION_SIZE} ids (default {@value #ALLOCATION_SIZE_PADRAO}) from memory, and ids
+ * are known before the insert, so Hibernate can batch inserts, which it cannot do with
+ * {@code IDENTITY}. The database sequence must step by the same amount; see
+ * {@code SequenciaIdConfig}.
+ */
+public class SequenciaIdGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE = "votacao.id.allocation-size";
+    public static final int ALLOCATION_SIZE_PADRAO = 50;
+
+    private final String sequencia;
+
+    public SequenciaIdGenerator(SequenciaId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequencia = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE, StandardConverters.INTEGER, ALLOCATION_SIZE_PADRAO);
+        parameters.put(SEQUENCE_PARAM, sequencia);
+        parameters.put(OptimizableGenerator.INITIAL_PARAM, "1");
+        parameters.put(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
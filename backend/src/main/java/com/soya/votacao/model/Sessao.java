@@ -2,8 +2,6 @@ package com.soya.votacao.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
@@ -14,7 +12,7 @@ import java.time.Instant;
 @Table(name = "sessoes")
 public class Sessao {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SequenciaId("sessoes_seq")
     private Long id;
 
     @OneToOne(optional = false)
@@ -4,8 +4,6 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
@@ -13,30 +11,43 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
+import org.hibernate.annotations.Check;
 
 @Entity
 @Table(
         name = "votos",
         uniqueConstraints = {
-                @UniqueConstraint(name = "uk_votos_pauta_associado", columnNames = {"pauta_id", "associado_id"})
+                @UniqueConstraint(name = "uk_votos_pauta_associado", columnNames = {"pauta_id", "associado_id"}),
+                @UniqueConstraint(name = "uk_votos_pauta_associado_num", columnNames = {"pauta_id", "associado_num"})
         },
         indexes = {
-                @Index(name = "idx_votos_pauta", columnList = "pauta_id"),
-                @Index(name = "idx_votos_associado", columnList = "associado_id")
+                @Index(name = "idx_votos_pauta_valor", columnList = "pauta_id, valor"),
+                @Index(name = "idx_votos_associado", columnList = "associado_id"),
+                @Index(name = "idx_votos_associado_num", columnList = "associado_num")
         }
 )
+@Check(name = "ck_votos_associado", constraints = "associado_id is not null or associado_num is not null")
 public class Voto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SequenciaId("votos_seq")
     private Long id;
 
     @ManyToOne(optional = false)
     @JoinColumn(name = "pauta_id", nullable = false)
     private Pauta pauta;
 
-    @Column(name = "associado_id", nullable = false, length = 20)
+    /**
+     * Text id; null when the id is stored in {@link #associadoNum}.
+     */
+    @Column(name = "associado_id", length = 20)
     private String associadoId;
 
+    /**
+     * {@link AssociadoChave} of an 11-digit id, set only in compact key mode.
+     */
+    @Column(name = "associado_num")
+    private Long associadoNum;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 3)
     private VotoValor valor;
@@ -57,11 +68,27 @@ public class Voto {
     }
 
     public String getAssociadoId() {
-        return associadoId;
+        return associadoId != null || associadoNum == null ? associadoId : AssociadoChave.decodificar(associadoNum);
     }
 
     public void setAssociadoId(String associadoId) {
         this.associadoId = associadoId;
+        this.associadoNum = null;
+    }
+
+    public Long getAssociadoNum() {
+        return associadoNum;
+    }
+
+    /**
+     * Moves an 11-digit id to the numeric column; other ids stay as text.
+     */
+    public void compactarAssociado() {
+        Long chave = AssociadoChave.codificar(associadoId);
+        if (chave != null) {
+            associadoNum = chave;
+            associadoId = null;
+        }
     }
 
     public VotoValor getValor() {
@@ -75,5 +102,9 @@ public class Voto {
     public Instant getCreatedAt() {
         return createdAt;
     }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
 }
 
@@ -0,0 +1,7 @@
+package com.soya.votacao.model;
+
+public enum VotoReciboStatus {
+    PENDENTE,
+    PERSISTIDO,
+    REJEITADO
+}
@@ -1,8 +1,20 @@
 package com.soya.votacao.repository;
 
 import com.soya.votacao.model.Pauta;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PautaRepository extends JpaRepository<Pauta, Long> {
-}
+    @Query("select p as pauta, s as sessao from Pauta p left join Sessao s on s.pauta = p "
+            + "order by p.createdAt desc, p.id desc")
+    List<PautaSessao> listarPrimeiraPagina(Pageable pagina);
 
+    @Query("select p as pauta, s as sessao from Pauta p left join Sessao s on s.pauta = p "
+            + "where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id) "
+            + "order by p.createdAt desc, p.id desc")
+    List<PautaSessao> listarApos(@Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pagina);
+}
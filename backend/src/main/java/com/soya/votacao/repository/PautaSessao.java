@@ -0,0 +1,10 @@
+package com.soya.votacao.repository;
+
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Sessao;
+
+public interface PautaSessao {
+    Pauta getPauta();
+
+    Sessao getSessao();
+}
@@ -0,0 +1,33 @@
+package com.soya.votacao.repository;
+
+import com.soya.votacao.model.PautaTallyCell;
+import com.soya.votacao.model.PautaTallyCellId;
+import com.soya.votacao.model.VotoValor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PautaTallyCellRepository extends JpaRepository<PautaTallyCell, PautaTallyCellId> {
+    @Modifying
+    @Query("update PautaTallyCell c set c.total = c.total + :quantidade "
+            + "where c.id.pautaId = :pautaId and c.id.valor = :valor and c.id.celula = :celula")
+    int incrementar(
+            @Param("pautaId") Long pautaId,
+            @Param("valor") VotoValor valor,
+            @Param("celula") int celula,
+            @Param("quantidade") long quantidade
+    );
+
+    long countByIdPautaId(Long pautaId);
+
+    @Query("select coalesce(sum(case when c.id.valor = com.soya.votacao.model.VotoValor.SIM then c.total else 0 end), 0) as sim, "
+            + "coalesce(sum(case when c.id.valor = com.soya.votacao.model.VotoValor.NAO then c.total else 0 end), 0) as nao, "
+            + "coalesce(sum(c.total), 0) as total "
+            + "from PautaTallyCell c where c.id.pautaId = :pautaId")
+    VotoApuracao somarPorPauta(@Param("pautaId") Long pautaId);
+
+    @Modifying
+    @Query("delete from PautaTallyCell c where c.id.pautaId = :pautaId")
+    void deleteByPautaId(@Param("pautaId") Long pautaId);
+}
@@ -0,0 +1,7 @@
+package com.soya.votacao.repository;
+
+import com.soya.votacao.model.ResultadoFinal;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ResultadoFinalRepository extends JpaRepository<ResultadoFinal, Long> {
+}
@@ -1,12 +1,27 @@
 package com.soya.votacao.repository;
 
 import com.soya.votacao.model.Sessao;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SessaoRepository extends JpaRepository<Sessao, Long> {
     Optional<Sessao> findByPautaId(Long pautaId);
 
+    List<Sessao> findByFechaEmAfter(Instant instante);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Sessao s where s.pauta.id = :pautaId")
+    Optional<Sessao> bloquearPorPauta(@Param("pautaId") Long pautaId);
+
+    @Query("select s from Sessao s where not exists (select r from ResultadoFinal r where r.pautaId = s.pauta.id)")
+    List<Sessao> findSemResultadoFinal();
+
     void deleteByPautaId(Long pautaId);
 }
 
@@ -0,0 +1,9 @@
+package com.soya.votacao.repository;
+
+public interface VotoApuracao {
+    long getSim();
+
+    long getNao();
+
+    long getTotal();
+}
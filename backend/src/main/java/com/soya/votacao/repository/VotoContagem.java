@@ -0,0 +1,11 @@
+package com.soya.votacao.repository;
+
+import com.soya.votacao.model.VotoValor;
+
+public interface VotoContagem {
+    Long getPautaId();
+
+    VotoValor getValor();
+
+    long getTotal();
+}
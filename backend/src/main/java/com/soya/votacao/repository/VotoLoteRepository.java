@@ -0,0 +1,13 @@
+package com.soya.votacao.repository;
+
+import com.soya.votacao.model.Voto;
+import java.util.List;
+
+public interface VotoLoteRepository {
+    /**
+     * Inserts new votes in JDBC batches of {@code hibernate.jdbc.batch_size}, flushing and
+     * detaching each batch so the persistence context does not grow with the list. Joins the
+     * caller's transaction; constraint violations surface here rather than at commit.
+     */
+    List<Voto> salvarEmLote(List<Voto> votos);
+}
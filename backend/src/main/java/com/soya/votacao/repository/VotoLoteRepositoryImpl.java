@@ -0,0 +1,31 @@
+package com.soya.votacao.repository;
+
+import com.soya.votacao.model.Voto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+class VotoLoteRepositoryImpl implements VotoLoteRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int batchSize;
+
+    VotoLoteRepositoryImpl(@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    @Transactional
+    public List<Voto> salvarEmLote(List<Voto> votos) {
+        for (int inicio = 0; inicio < votos.size(); inicio += batchSize) {
+            List<Voto> lote = votos.subList(inicio, Math.min(inicio + batchSize, votos.size()));
+            lote.forEach(entityManager::persist);
+            entityManager.flush();
+            lote.forEach(entityManager::detach);
+        }
+        return votos;
+    }
+}
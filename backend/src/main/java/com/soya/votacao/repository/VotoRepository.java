@@ -2,18 +2,55 @@ package com.soya.votacao.repository;
 
 import com.soya.votacao.model.Voto;
 import com.soya.votacao.model.VotoValor;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface VotoRepository extends JpaRepository<Voto, Long> {
+public interface VotoRepository extends JpaRepository<Voto, Long>, VotoLoteRepository {
     Optional<Voto> findByPautaIdAndAssociadoId(Long pautaId, String associadoId);
 
+    boolean existsByPautaIdAndAssociadoNum(Long pautaId, Long associadoNum);
+
+    /**
+     * Ids of every vote of the pauta; numeric keys come back as their 11-digit text.
+     */
+    @Query("select coalesce(v.associadoId, pad(cast(v.associadoNum as String) with 11 leading '0')) "
+            + "from Voto v where v.pauta.id = :pautaId")
+    List<String> findAssociadoIdsByPautaId(@Param("pautaId") Long pautaId);
+
+    @Query("select v.associadoId from Voto v where v.pauta.id = :pautaId and v.associadoId in :associadoIds")
+    List<String> findAssociadoIdsByPautaIdAndAssociadoIdIn(
+            @Param("pautaId") Long pautaId,
+            @Param("associadoIds") Collection<String> associadoIds
+    );
+
+    @Query("select v.associadoNum from Voto v where v.pauta.id = :pautaId and v.associadoNum in :associadoNums")
+    List<Long> findAssociadoNumsByPautaIdAndAssociadoNumIn(
+            @Param("pautaId") Long pautaId,
+            @Param("associadoNums") Collection<Long> associadoNums
+    );
+
     long countByPautaIdAndValor(Long pautaId, VotoValor valor);
 
-    @Query("select count(v.id) from Voto v where v.pauta.id = :pautaId")
-    long countByPautaId(@Param("pautaId") Long pautaId);
+    @Query("select coalesce(sum(case when v.valor = com.soya.votacao.model.VotoValor.SIM then 1 else 0 end), 0) as sim, "
+            + "coalesce(sum(case when v.valor = com.soya.votacao.model.VotoValor.NAO then 1 else 0 end), 0) as nao, "
+            + "count(v) as total "
+            + "from Voto v where v.pauta.id = :pautaId")
+    VotoApuracao apurarPorPauta(@Param("pautaId") Long pautaId);
+
+    @Query("select coalesce(sum(case when v.valor = com.soya.votacao.model.VotoValor.SIM then 1 else 0 end), 0) as sim, "
+            + "coalesce(sum(case when v.valor = com.soya.votacao.model.VotoValor.NAO then 1 else 0 end), 0) as nao, "
+            + "count(v) as total "
+            + "from Voto v where v.pauta.id = :pautaId and v.createdAt < :fechaEm")
+    VotoApuracao apurarPorPautaAte(@Param("pautaId") Long pautaId, @Param("fechaEm") Instant fechaEm);
+
+    @Query("select v.pauta.id as pautaId, v.valor as valor, count(v.id) as total "
+            + "from Voto v group by v.pauta.id, v.valor")
+    List<VotoContagem> contarAgrupadoPorPautaEValor();
 
     void deleteByPautaId(Long pautaId);
 }
@@ -0,0 +1,133 @@
+package com.soya.votacao.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soya.votacao.config.AdmissaoProperties;
+import com.soya.votacao.exception.ServiceUnavailableException;
+import com.soya.votacao.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Admission control of vote submissions, checked before any database or CPF client work:
+ * <ul>
+ *   <li>a per-associado token bucket rejects clients retrying too fast with 429;</li>
+ *   <li>a global token bucket caps the accepted rate, rejecting with 503;</li>
+ *   <li>an AIMD concurrency limit rejects with 503 when that many votes are already running.
+ *   The limit grows by one per limit's worth of fast completions while at least half of it is
+ *   in use, and shrinks by {@code fator-reducao} when a vote takes longer than
+ *   {@code latencia-alvo} or fails with 503.</li>
+ * </ul>
+ * Rejections carry {@code Retry-After}. The limits are per instance.
+ */
+@Service
+public class AdmissaoVotoService {
+    private final AdmissaoProperties properties;
+    private final TaxaLimitador global;
+    private final Cache<String, TaxaLimitador> porAssociado;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final long latenciaAlvoNanos;
+    /** The limit as {@link Double#doubleToRawLongBits} bits, updated with compare-and-set. */
+    private final AtomicLong limite;
+    private final Counter limiteCounter;
+    private final Counter globalCounter;
+    private final Counter associadoCounter;
+
+    public AdmissaoVotoService(AdmissaoProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.global = new TaxaLimitador(properties.getGlobalPorSegundo(), properties.getGlobalRajada(), System.nanoTime());
+        // An idle bucket is full again after rajada / por-segundo, so dropping it then loses nothing.
+        this.porAssociado = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos((long) (properties.getAssociadoRajada() * 1e9
+                        / properties.getAssociadoPorSegundo())))
+                .maximumSize(properties.getMaximoAssociados())
+                .build();
+        this.latenciaAlvoNanos = properties.getLatenciaAlvo().toNanos();
+        this.limite = new AtomicLong(Double.doubleToRawLongBits(properties.getLimiteInicial()));
+        this.limiteCounter = rejeitado(meterRegistry, "limite");
+        this.globalCounter = rejeitado(meterRegistry, "global");
+        this.associadoCounter = rejeitado(meterRegistry, "associado");
+        Gauge.builder("votacao.admissao.limite", this, AdmissaoVotoService::getLimite)
+                .description("Limite atual de votos em andamento")
+                .register(meterRegistry);
+        Gauge.builder("votacao.admissao.em_andamento", emAndamento, AtomicInteger::get)
+                .description("Votos admitidos em andamento")
+                .register(meterRegistry);
+    }
+
+    public int getLimite() {
+        return (int) limiteAtual();
+    }
+
+    /**
+     * Runs {@code acao} when the vote is admitted and feeds its latency back into the limit.
+     */
+    public <T> T executar(String associadoId, Supplier<T> acao) {
+        if (!properties.isEnabled()) {
+            return acao.get();
+        }
+        long inicio = System.nanoTime();
+        TaxaLimitador balde = porAssociado.get(associadoId, chave -> new TaxaLimitador(
+                properties.getAssociadoPorSegundo(), properties.getAssociadoRajada(), inicio));
+        long espera = balde.adquirir(inicio);
+        if (espera > 0) {
+            associadoCounter.increment();
+            throw new TooManyRequestsException("Muitos votos do associado, tente novamente mais tarde", Duration.ofNanos(espera));
+        }
+        espera = global.adquirir(inicio);
+        if (espera > 0) {
+            globalCounter.increment();
+            throw new ServiceUnavailableException("Sistema sobrecarregado, tente novamente", Duration.ofNanos(espera));
+        }
+        if (emAndamento.incrementAndGet() > getLimite()) {
+            emAndamento.decrementAndGet();
+            limiteCounter.increment();
+            throw new ServiceUnavailableException("Sistema sobrecarregado, tente novamente", properties.getRetryAfter());
+        }
+        boolean sobrecarga = false;
+        try {
+            return acao.get();
+        } catch (ServiceUnavailableException ex) {
+            sobrecarga = true;
+            throw ex;
+        } finally {
+            int andamento = emAndamento.getAndDecrement();
+            ajustar(andamento, sobrecarga || System.nanoTime() - inicio > latenciaAlvoNanos);
+        }
+    }
+
+    private void ajustar(int andamento, boolean lento) {
+        while (true) {
+            long bits = limite.get();
+            double atual = Double.longBitsToDouble(bits);
+            double novo;
+            if (lento) {
+                novo = Math.max(properties.getLimiteMinimo(), atual * properties.getFatorReducao());
+            } else if (andamento * 2 >= atual) {
+                novo = Math.min(properties.getLimiteMaximo(), atual + 1.0 / atual);
+            } else {
+                return;
+            }
+            if (novo == atual || limite.compareAndSet(bits, Double.doubleToRawLongBits(novo))) {
+                return;
+            }
+        }
+    }
+
+    private double limiteAtual() {
+        return Double.longBitsToDouble(limite.get());
+    }
+
+    private static Counter rejeitado(MeterRegistry meterRegistry, String motivo) {
+        return Counter.builder("votacao.admissao.rejeitado")
+                .description("Votos descartados pelo controle de admissao")
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+}
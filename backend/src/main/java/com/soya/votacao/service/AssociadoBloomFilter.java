@@ -0,0 +1,74 @@
+package com.soya.votacao.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter of associado ids. {@link #mightContain} never returns false for an id
+ * that was added; it may return true for ids that were not, with the configured probability.
+ */
+final class AssociadoBloomFilter {
+    private final AtomicLongArray bits;
+    private final long tamanhoBits;
+    private final int hashes;
+
+    AssociadoBloomFilter(int expectedInsertions, double falsoPositivo) {
+        int n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsoPositivo) / (Math.log(2) * Math.log(2)));
+        int palavras = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new AtomicLongArray(palavras);
+        this.tamanhoBits = palavras * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) tamanhoBits / n * Math.log(2)));
+    }
+
+    void put(String associadoId) {
+        long h1 = hash(associadoId);
+        long h2 = Long.rotateLeft(h1 * 0x9E3779B97F4A7C15L, 31) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, tamanhoBits);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            if ((bits.get(palavra) & mascara) == 0) {
+                bits.getAndAccumulate(palavra, mascara, (atual, m) -> atual | m);
+            }
+        }
+    }
+
+    boolean mightContain(String associadoId) {
+        long h1 = hash(associadoId);
+        long h2 = Long.rotateLeft(h1 * 0x9E3779B97F4A7C15L, 31) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, tamanhoBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bytes() {
+        return bits.length() * 8L;
+    }
+
+    /**
+     * Estimated false-positive probability given the fraction of bits currently set.
+     */
+    double falsoPositivoEstimado() {
+        long setados = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            setados += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) setados / tamanhoBits, hashes);
+    }
+
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
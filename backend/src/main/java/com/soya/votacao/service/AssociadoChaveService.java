@@ -0,0 +1,127 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.model.AssociadoChave;
+import com.soya.votacao.repository.VotoRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Storage of the associado id of votes. With {@code votacao.associado.chave-compacta} on, ids
+ * made of 11 digits are stored as {@link AssociadoChave} numbers in {@code votos.associado_num}
+ * and looked up through {@code uk_votos_pauta_associado_num}; any other id stays in
+ * {@code associado_id}. Switching the mode moves existing votes to the matching column on
+ * startup, in batches of {@code lote-migracao} rows. The mode the stored votes are in is kept in
+ * {@code associado_chave_modo}, so the batches only run when the mode changes, and
+ * {@code associado_id} is only made nullable while it is still not null.
+ * <p>
+ * Only {@code votos} is compacted. {@code uk_votos_pauta_associado} and {@code idx_votos_associado}
+ * stay, because ids that are not 11 digits and switching back to text keys still rely on them.
+ * {@code associados_pauta_status} keeps the text id on purpose: the id is part of its primary
+ * key, which cannot be split into two nullable columns the way {@code votos} is, so compact keys
+ * there would need a second table and a second lookup per vote and per batch chunk. The rows are
+ * a per-pauta cache of CPF lookups, written once per associado and pauta and never scanned by id.
+ */
+@Service
+public class AssociadoChaveService {
+    private static final Logger log = LoggerFactory.getLogger(AssociadoChaveService.class);
+    static final String COMPACTAR_SQL = "update votos set associado_num = cast(associado_id as bigint), "
+            + "associado_id = null where associado_num is null and regexp_like(associado_id, '^[0-9]{11}$') "
+            + "fetch first ? rows only";
+    static final String EXPANDIR_SQL = "update votos set associado_id = lpad(cast(associado_num as varchar), 11, '0'), "
+            + "associado_num = null where associado_num is not null fetch first ? rows only";
+    static final String MODO_SQL = "create table if not exists associado_chave_modo "
+            + "(id int primary key, compacta boolean not null)";
+
+    private final VotoRepository votoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean compacta;
+    private final int loteMigracao;
+
+    public AssociadoChaveService(
+            VotoRepository votoRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${votacao.associado.chave-compacta:false}") boolean compacta,
+            @Value("${votacao.associado.lote-migracao:10000}") int loteMigracao
+    ) {
+        this.votoRepository = votoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.compacta = compacta;
+        this.loteMigracao = loteMigracao;
+    }
+
+    public boolean isCompacta() {
+        return compacta;
+    }
+
+    @PostConstruct
+    public void migrar() {
+        if (compacta && associadoIdObrigatorio()) {
+            jdbcTemplate.execute("alter table votos alter column associado_id set null");
+        }
+        jdbcTemplate.execute(MODO_SQL);
+        List<Boolean> modo = jdbcTemplate.queryForList("select compacta from associado_chave_modo where id = 1", Boolean.class);
+        if (!modo.isEmpty() && modo.get(0) == compacta) {
+            return;
+        }
+        String sql = compacta ? COMPACTAR_SQL : EXPANDIR_SQL;
+        long movidos = 0;
+        int atualizados;
+        do {
+            atualizados = jdbcTemplate.update(sql, loteMigracao);
+            movidos += atualizados;
+        } while (atualizados > 0);
+        jdbcTemplate.update("merge into associado_chave_modo (id, compacta) key (id) values (1, ?)", compacta);
+        if (movidos > 0) {
+            log.info("Moved {} votes to {} associado keys", movidos, compacta ? "numeric" : "text");
+        }
+    }
+
+    private boolean associadoIdObrigatorio() {
+        return "NO".equals(jdbcTemplate.queryForObject("select is_nullable from information_schema.columns "
+                + "where table_name = 'VOTOS' and column_name = 'ASSOCIADO_ID'", String.class));
+    }
+
+    /**
+     * Whether the associado already has a vote stored for the pauta.
+     */
+    public boolean jaVotou(Long pautaId, String associadoId) {
+        Long chave = compacta ? AssociadoChave.codificar(associadoId) : null;
+        return chave != null
+                ? votoRepository.existsByPautaIdAndAssociadoNum(pautaId, chave)
+                : votoRepository.findByPautaIdAndAssociadoId(pautaId, associadoId).isPresent();
+    }
+
+    /**
+     * The ids among {@code associadoIds} that already have a vote stored for the pauta.
+     */
+    public Set<String> jaVotaram(Long pautaId, Collection<String> associadoIds) {
+        List<String> textos = new ArrayList<>();
+        List<Long> chaves = new ArrayList<>();
+        for (String associadoId : associadoIds) {
+            Long chave = compacta ? AssociadoChave.codificar(associadoId) : null;
+            if (chave != null) {
+                chaves.add(chave);
+            } else {
+                textos.add(associadoId);
+            }
+        }
+        Set<String> votaram = new HashSet<>();
+        if (!textos.isEmpty()) {
+            votaram.addAll(votoRepository.findAssociadoIdsByPautaIdAndAssociadoIdIn(pautaId, textos));
+        }
+        if (!chaves.isEmpty()) {
+            votoRepository.findAssociadoNumsByPautaIdAndAssociadoNumIn(pautaId, chaves)
+                    .forEach(chave -> votaram.add(AssociadoChave.decodificar(chave)));
+        }
+        return votaram;
+    }
+}
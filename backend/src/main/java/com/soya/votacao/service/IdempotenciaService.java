@@ -0,0 +1,142 @@
+package com.soya.votacao.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.soya.votacao.exception.BadRequestException;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.exception.NotFoundException;
+import com.soya.votacao.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+/**
+ * Outcomes of vote submissions by {@code Idempotency-Key}, so a client retry gets the original
+ * response back instead of running the vote again. Entries expire {@code ttl} after the first
+ * request and at most {@code maximum-size} are kept (W-TinyLFU eviction).
+ *
+ * <p>Successful responses and business rejections (400, 404, 409) are kept; failures a retry
+ * may fix, such as 503 or the 409 of a vote still being processed, are dropped so the retry runs
+ * again. A retry arriving while the first request is still running waits for its outcome, which
+ * is always set, even when the first request fails with an {@link Error}. Reusing a key with a different vote is
+ * rejected. Keys are scoped by pauta and held only by this instance.
+ */
+@Service
+public class IdempotenciaService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPETIDA_HEADER = "Idempotent-Replayed";
+    static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final boolean enabled;
+    private final Cache<Chave, Entrada> entradas;
+    private final Counter novaCounter;
+    private final Counter repetidaCounter;
+    private final Counter divergenteCounter;
+
+    public IdempotenciaService(
+            @Value("${votacao.idempotencia.enabled:true}") boolean enabled,
+            @Value("${votacao.idempotencia.ttl:24h}") Duration ttl,
+            @Value("${votacao.idempotencia.maximum-size:100000}") long maximumSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.entradas = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+        this.novaCounter = contador(meterRegistry, "nova");
+        this.repetidaCounter = contador(meterRegistry, "repetida");
+        this.divergenteCounter = contador(meterRegistry, "divergente");
+        Gauge.builder("votacao.idempotencia.chaves", entradas, Cache::estimatedSize)
+                .description("Chaves de idempotencia guardadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code acao} once per key and pauta; later calls with the same key get its response
+     * (with {@value #REPETIDA_HEADER}) or its rejection. Without a key the action just runs.
+     *
+     * @param impressao what identifies the request body, compared on every reuse of the key
+     */
+    public <T> ResponseEntity<T> executar(Long pautaId, String chave, String impressao, Supplier<ResponseEntity<T>> acao) {
+        if (!enabled || chave == null) {
+            return acao.get();
+        }
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new BadRequestException("Idempotency-Key inválida");
+        }
+        Entrada nova = new Entrada(impressao, new CompletableFuture<>());
+        Chave id = new Chave(pautaId, chave);
+        Entrada existente = entradas.asMap().putIfAbsent(id, nova);
+        if (existente != null) {
+            return repetir(existente, impressao);
+        }
+        novaCounter.increment();
+        try {
+            ResponseEntity<T> resposta = acao.get();
+            nova.resultado.complete(resposta);
+            return resposta;
+        } catch (ConflictException ex) {
+            if (ex.isTransitorio()) {
+                entradas.asMap().remove(id, nova);
+            }
+            nova.resultado.completeExceptionally(ex);
+            throw ex;
+        } catch (BadRequestException | NotFoundException ex) {
+            nova.resultado.completeExceptionally(ex);
+            throw ex;
+        } catch (RuntimeException ex) {
+            entradas.asMap().remove(id, nova);
+            nova.resultado.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            if (!nova.resultado.isDone()) {
+                entradas.asMap().remove(id, nova);
+                nova.resultado.completeExceptionally(
+                        new ServiceUnavailableException("Não foi possível registrar o voto, tente novamente"));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> repetir(Entrada entrada, String impressao) {
+        if (!entrada.impressao.equals(impressao)) {
+            divergenteCounter.increment();
+            throw new BadRequestException("Idempotency-Key já usada com outro voto");
+        }
+        repetidaCounter.increment();
+        ResponseEntity<?> original;
+        try {
+            original = entrada.resultado.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw ex;
+        }
+        return (ResponseEntity<T>) ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPETIDA_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("votacao.idempotencia.requisicoes")
+                .description("Votos com Idempotency-Key por resultado")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private record Chave(Long pautaId, String chave) {
+    }
+
+    private record Entrada(String impressao, CompletableFuture<ResponseEntity<?>> resultado) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.exception.BadRequestException;
+import com.soya.votacao.model.Pauta;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in the pauta listing: the (createdAt, id) of the last pauta returned.
+ */
+final class PautaCursor {
+    private static final char SEPARADOR = '_';
+
+    private final Instant createdAt;
+    private final Long id;
+
+    private PautaCursor(Instant createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    static PautaCursor de(Pauta pauta) {
+        return new PautaCursor(pauta.getCreatedAt(), pauta.getId());
+    }
+
+    static PautaCursor decodificar(String valor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(valor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf(SEPARADOR);
+            return new PautaCursor(
+                    Instant.parse(texto.substring(0, separador)),
+                    Long.valueOf(texto.substring(separador + 1)));
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("Cursor inválido");
+        }
+    }
+
+    String codificar() {
+        String texto = createdAt.toString() + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    Long getId() {
+        return id;
+    }
+}
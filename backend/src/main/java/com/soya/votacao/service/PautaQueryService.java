@@ -1,12 +1,15 @@
 package com.soya.votacao.service;
 
+import com.soya.votacao.dto.PautaPagina;
 import com.soya.votacao.dto.PautaResponse;
 import com.soya.votacao.dto.SessaoResponse;
+import com.soya.votacao.exception.BadRequestException;
 import com.soya.votacao.model.Pauta;
 import com.soya.votacao.model.Sessao;
+import com.soya.votacao.repository.PautaSessao;
 import com.soya.votacao.repository.SessaoRepository;
 import java.util.List;
-import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -14,17 +17,40 @@ public class PautaQueryService {
     private final PautaService pautaService;
     private final SessaoRepository sessaoRepository;
     private final SessaoService sessaoService;
+    private final int limitePadrao;
+    private final int limiteMaximo;
 
-    public PautaQueryService(PautaService pautaService, SessaoRepository sessaoRepository, SessaoService sessaoService) {
+    public PautaQueryService(
+            PautaService pautaService,
+            SessaoRepository sessaoRepository,
+            SessaoService sessaoService,
+            @Value("${votacao.paginacao.limite-padrao:50}") int limitePadrao,
+            @Value("${votacao.paginacao.limite-maximo:200}") int limiteMaximo
+    ) {
         this.pautaService = pautaService;
         this.sessaoRepository = sessaoRepository;
         this.sessaoService = sessaoService;
+        this.limitePadrao = limitePadrao;
+        this.limiteMaximo = limiteMaximo;
     }
 
-    public List<PautaResponse> listar() {
-        return pautaService.listar().stream()
-                .map(this::toResponse)
+    /**
+     * Lists one page of pautas after {@code cursor}; the page size is capped at
+     * {@code votacao.paginacao.limite-maximo} and the next cursor is null on the last page.
+     */
+    public PautaPagina listar(String cursor, Integer limite) {
+        int tamanho = tamanhoPagina(limite);
+        PautaCursor apos = cursor == null || cursor.isBlank() ? null : PautaCursor.decodificar(cursor);
+        List<PautaSessao> linhas = apos == null
+                ? pautaService.listar(null, null, tamanho + 1)
+                : pautaService.listar(apos.getCreatedAt(), apos.getId(), tamanho + 1);
+        boolean temMais = linhas.size() > tamanho;
+        List<PautaSessao> pagina = temMais ? linhas.subList(0, tamanho) : linhas;
+        List<PautaResponse> itens = pagina.stream()
+                .map(linha -> toResponse(linha.getPauta(), linha.getSessao()))
                 .toList();
+        String proximoCursor = temMais ? PautaCursor.de(pagina.get(tamanho - 1).getPauta()).codificar() : null;
+        return new PautaPagina(itens, proximoCursor);
     }
 
     public PautaResponse buscar(Long id) {
@@ -33,10 +59,13 @@ public class PautaQueryService {
     }
 
     public PautaResponse toResponse(Pauta pauta) {
-        Optional<Sessao> sessao = sessaoRepository.findByPautaId(pauta.getId());
-        SessaoResponse sessaoResponse = sessao
-                .map(item -> new SessaoResponse(item.getAbertaEm(), item.getFechaEm(), sessaoService.sessaoAberta(item)))
-                .orElse(null);
+        return toResponse(pauta, sessaoRepository.findByPautaId(pauta.getId()).orElse(null));
+    }
+
+    private PautaResponse toResponse(Pauta pauta, Sessao sessao) {
+        SessaoResponse sessaoResponse = sessao == null
+                ? null
+                : new SessaoResponse(sessao.getAbertaEm(), sessao.getFechaEm(), sessaoService.sessaoAberta(sessao));
         return new PautaResponse(
                 pauta.getId(),
                 pauta.getTitulo(),
@@ -45,5 +74,14 @@ public class PautaQueryService {
                 sessaoResponse
         );
     }
-}
 
+    private int tamanhoPagina(Integer limite) {
+        if (limite == null) {
+            return limitePadrao;
+        }
+        if (limite < 1) {
+            throw new BadRequestException("Limite deve ser maior que zero");
+        }
+        return Math.min(limite, limiteMaximo);
+    }
+}
@@ -4,12 +4,16 @@ import com.soya.votacao.dto.CreatePautaRequest;
 import com.soya.votacao.exception.NotFoundException;
 import com.soya.votacao.model.Pauta;
 import com.soya.votacao.repository.PautaRepository;
+import com.soya.votacao.repository.PautaSessao;
 import com.soya.votacao.repository.SessaoRepository;
 import com.soya.votacao.repository.VotoRepository;
 import io.micrometer.observation.annotation.Observed;
+import java.time.Instant;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,11 +24,33 @@ public class PautaService {
     private final PautaRepository pautaRepository;
     private final SessaoRepository sessaoRepository;
     private final VotoRepository votoRepository;
+    private final VotoTallyRegistry votoTallyRegistry;
+    private final PautaTallyService pautaTallyService;
+    private final VotoDuplicadoFiltro votoDuplicadoFiltro;
+    private final SessaoAbertaRegistry sessaoAbertaRegistry;
+    private final ResultadoFinalService resultadoFinalService;
+    private final VersaoRegistry versaoRegistry;
 
-    public PautaService(PautaRepository pautaRepository, SessaoRepository sessaoRepository, VotoRepository votoRepository) {
+    public PautaService(
+            PautaRepository pautaRepository,
+            SessaoRepository sessaoRepository,
+            VotoRepository votoRepository,
+            VotoTallyRegistry votoTallyRegistry,
+            PautaTallyService pautaTallyService,
+            VotoDuplicadoFiltro votoDuplicadoFiltro,
+            SessaoAbertaRegistry sessaoAbertaRegistry,
+            ResultadoFinalService resultadoFinalService,
+            VersaoRegistry versaoRegistry
+    ) {
         this.pautaRepository = pautaRepository;
         this.sessaoRepository = sessaoRepository;
         this.votoRepository = votoRepository;
+        this.votoTallyRegistry = votoTallyRegistry;
+        this.pautaTallyService = pautaTallyService;
+        this.votoDuplicadoFiltro = votoDuplicadoFiltro;
+        this.sessaoAbertaRegistry = sessaoAbertaRegistry;
+        this.resultadoFinalService = resultadoFinalService;
+        this.versaoRegistry = versaoRegistry;
     }
 
     @Observed(name = "votacao.pauta.criar")
@@ -33,13 +59,24 @@ public class PautaService {
         pauta.setTitulo(request.getTitulo());
         pauta.setDescricao(request.getDescricao());
         Pauta saved = pautaRepository.save(pauta);
+        versaoRegistry.alterarPauta(saved.getId());
         log.info("Created pauta {}", saved.getId());
         return saved;
     }
 
+    /**
+     * One keyset page of pautas with their sessions, newest first: ordered by (createdAt, id) descending.
+     *
+     * @param aposCreatedAt createdAt of the last pauta already returned, or null for the first page
+     * @param aposId id of the last pauta already returned, or null for the first page
+     */
     @Observed(name = "votacao.pauta.listar")
-    public List<Pauta> listar() {
-        return pautaRepository.findAll();
+    public List<PautaSessao> listar(Instant aposCreatedAt, Long aposId, int limite) {
+        Pageable pagina = PageRequest.of(0, limite);
+        if (aposId == null) {
+            return pautaRepository.listarPrimeiraPagina(pagina);
+        }
+        return pautaRepository.listarApos(aposCreatedAt, aposId, pagina);
     }
 
     @Observed(name = "votacao.pauta.buscar")
@@ -53,8 +90,14 @@ public class PautaService {
     public void remover(Long id) {
         Pauta pauta = buscarPorId(id);
         votoRepository.deleteByPautaId(pauta.getId());
+        pautaTallyService.remover(pauta.getId());
         sessaoRepository.deleteByPautaId(pauta.getId());
         pautaRepository.delete(pauta);
+        votoTallyRegistry.remover(pauta.getId());
+        votoDuplicadoFiltro.remover(pauta.getId());
+        sessaoAbertaRegistry.remover(pauta.getId());
+        resultadoFinalService.remover(pauta.getId());
+        versaoRegistry.alterarPauta(pauta.getId());
         log.info("Deleted pauta {}", pauta.getId());
     }
 }
@@ -0,0 +1,188 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.model.PautaTallyCell;
+import com.soya.votacao.model.PautaTallyCellId;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.PautaTallyCellRepository;
+import com.soya.votacao.repository.VotoApuracao;
+import com.soya.votacao.repository.VotoRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Persistent running tally of each pauta, split in {@code celulas} counter rows per vote value
+ * ({@code pauta_tally_cell}). A vote increments one random cell in the transaction that saves
+ * it, so the tally stays exact across instances sharing the database while concurrent votes
+ * rarely wait on the same row lock, and the resultado sums the cells instead of counting votes.
+ * Off by default: a single instance reads the in-memory {@link VotoTallyRegistry} without touching
+ * the database. Deployments with several instances turn the cells on, paying one extra row update
+ * per vote and a sum over the pauta's cells per resultado; the in-memory tally is then switched
+ * off, since it cannot see the votes of other instances.
+ * <p>
+ * The cells of a pauta are created before its first vote (or resultado) on each instance, in
+ * their own transaction, seeded with the votes already saved. Instances racing to create them
+ * hit the primary key or time out on its lock and use the winner's cells; a vote that still finds
+ * them missing creates them itself.
+ */
+@Service
+public class PautaTallyService {
+    private static final Logger log = LoggerFactory.getLogger(PautaTallyService.class);
+    private static final String INSERT_SQL =
+            "insert into pauta_tally_cell (pauta_id, valor, celula, total) values (?, ?, ?, ?)";
+    private static final int TENTATIVAS_INCREMENTO = 3;
+
+    private final PautaTallyCellRepository pautaTallyCellRepository;
+    private final VotoRepository votoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate novaTransacao;
+    private final boolean enabled;
+    private final int celulas;
+    private final Set<Long> preparadas = ConcurrentHashMap.newKeySet();
+
+    public PautaTallyService(
+            PautaTallyCellRepository pautaTallyCellRepository,
+            VotoRepository votoRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${votacao.tally.celulas.enabled:false}") boolean enabled,
+            @Value("${votacao.tally.celulas.quantidade:16}") int celulas
+    ) {
+        this.pautaTallyCellRepository = pautaTallyCellRepository;
+        this.votoRepository = votoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.celulas = celulas;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs {@code gravacao}, which saves {@code valores} votes of the pauta, and adds them to the
+     * cells in the same transaction, joining the caller's when there is one. Call
+     * {@link #preparar} before the caller's transaction starts.
+     */
+    public <T> T gravar(Long pautaId, Collection<VotoValor> valores, Supplier<T> gravacao) {
+        return transactionTemplate.execute(tx -> {
+            T resultado = gravacao.get();
+            incrementar(pautaId, valores);
+            return resultado;
+        });
+    }
+
+    /**
+     * Adds saved votes to the cells of the pauta; must run in the transaction that saves them,
+     * after {@link #preparar}. Cells that are missing anyway (another instance was still creating
+     * them, or they were deleted) are created in a transaction of their own, seeded with the
+     * committed votes, before the increment is retried.
+     */
+    public void incrementar(Long pautaId, Collection<VotoValor> valores) {
+        if (!enabled) {
+            return;
+        }
+        long sim = valores.stream().filter(valor -> valor == VotoValor.SIM).count();
+        incrementar(pautaId, VotoValor.SIM, sim);
+        incrementar(pautaId, VotoValor.NAO, valores.size() - sim);
+    }
+
+    private void incrementar(Long pautaId, VotoValor valor, long quantidade) {
+        if (quantidade == 0) {
+            return;
+        }
+        int celula = ThreadLocalRandom.current().nextInt(celulas);
+        for (int tentativa = 1; pautaTallyCellRepository.incrementar(pautaId, valor, celula, quantidade) == 0; tentativa++) {
+            preparadas.remove(pautaId);
+            if (tentativa == TENTATIVAS_INCREMENTO) {
+                throw new CannotAcquireLockException("Células de apuração da pauta " + pautaId + " ainda em criação");
+            }
+            log.warn("Tally cells of pauta {} missing on increment, creating them", pautaId);
+            preparar(pautaId);
+        }
+    }
+
+    /**
+     * Makes sure the pauta has its cells. They are committed in a transaction of their own, so
+     * a primary key clash or lock timeout against another instance creating them never reaches a
+     * vote transaction; the cells are then re-read, and the pauta is only marked as prepared once
+     * the other instance's cells are visible.
+     */
+    public void preparar(Long pautaId) {
+        if (!enabled || preparadas.contains(pautaId)) {
+            return;
+        }
+        try {
+            novaTransacao.executeWithoutResult(tx -> criarCelulas(pautaId));
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException ex) {
+            if (pautaTallyCellRepository.countByIdPautaId(pautaId) < 2L * celulas) {
+                log.debug("Tally cells of pauta {} still being created by another instance", pautaId);
+                return;
+            }
+            log.debug("Tally cells of pauta {} created concurrently", pautaId);
+        }
+        preparadas.add(pautaId);
+    }
+
+    private void criarCelulas(Long pautaId) {
+        List<PautaTallyCellId> ids = new ArrayList<>(2 * celulas);
+        for (VotoValor valor : VotoValor.values()) {
+            for (int celula = 0; celula < celulas; celula++) {
+                ids.add(new PautaTallyCellId(pautaId, valor, celula));
+            }
+        }
+        Set<PautaTallyCellId> existentes = pautaTallyCellRepository.findAllById(ids).stream()
+                .map(PautaTallyCell::getId)
+                .collect(Collectors.toSet());
+        boolean semCelulas = existentes.isEmpty();
+        List<Object[]> novas = new ArrayList<>();
+        for (PautaTallyCellId id : ids) {
+            if (!existentes.contains(id)) {
+                long total = semCelulas && id.getCelula() == 0
+                        ? votoRepository.countByPautaIdAndValor(pautaId, id.getValor())
+                        : 0;
+                novas.add(new Object[] {pautaId, id.getValor().name(), id.getCelula(), total});
+            }
+        }
+        if (!novas.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, novas);
+            log.info("Created {} tally cells for pauta {}", novas.size(), pautaId);
+        }
+    }
+
+    /**
+     * Current tally of the pauta: the sum of its cells.
+     */
+    public VotoApuracao somar(Long pautaId) {
+        preparar(pautaId);
+        return pautaTallyCellRepository.somarPorPauta(pautaId);
+    }
+
+    /**
+     * Deletes the cells of a pauta; must run in the transaction that deletes its votes.
+     */
+    public void remover(Long pautaId) {
+        pautaTallyCellRepository.deleteByPautaId(pautaId);
+        preparadas.remove(pautaId);
+    }
+}
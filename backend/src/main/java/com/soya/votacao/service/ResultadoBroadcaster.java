@@ -0,0 +1,281 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.config.ResultadoStreamProperties;
+import com.soya.votacao.dto.ResultadoResponse;
+import com.soya.votacao.exception.ServiceUnavailableException;
+import com.soya.votacao.model.Sessao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes resultado changes to Server-Sent Events subscribers. Every pauta with subscribers has one
+ * channel; a single ticker reads its result at most once per {@code intervalo} and fans changes out
+ * to all subscribers. Once the closed session has its final result a last {@code encerrado} event
+ * carrying it is sent and the streams complete.
+ * <p>
+ * Sends run on a small fixed pool and each subscriber holds at most one pending snapshot, which is
+ * replaced by newer ones while a send is in progress, so a slow client costs one queued value and
+ * never blocks the ticker. A send still running after {@code prazoEnvio} (checked by the ticker)
+ * completes that subscriber's emitter with an error, which closes the connection and frees the
+ * sender thread, so a few stuck clients cannot stall every other subscriber.
+ */
+@Service
+public class ResultadoBroadcaster {
+    private static final Logger log = LoggerFactory.getLogger(ResultadoBroadcaster.class);
+    static final String EVENTO_RESULTADO = "resultado";
+    static final String EVENTO_ENCERRADO = "encerrado";
+
+    private final VotoService votoService;
+    private final SessaoService sessaoService;
+    private final ResultadoFinalService resultadoFinalService;
+    private final ResultadoStreamProperties properties;
+    private final Map<Long, Canal> canais = new ConcurrentHashMap<>();
+    private final Set<Assinante> enviando = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger assinantes = new AtomicInteger();
+    private final Counter descartadoCounter;
+    private final Counter expiradoCounter;
+    private ScheduledExecutorService ticker;
+    private ExecutorService envio;
+
+    public ResultadoBroadcaster(
+            VotoService votoService,
+            SessaoService sessaoService,
+            ResultadoFinalService resultadoFinalService,
+            ResultadoStreamProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.votoService = votoService;
+        this.sessaoService = sessaoService;
+        this.resultadoFinalService = resultadoFinalService;
+        this.properties = properties;
+        this.descartadoCounter = Counter.builder("votacao.resultado.stream.descartado")
+                .description("Atualizacoes substituidas antes do envio a um assinante lento")
+                .register(meterRegistry);
+        this.expiradoCounter = Counter.builder("votacao.resultado.stream.expirado")
+                .description("Assinantes desconectados por envio acima do prazo")
+                .register(meterRegistry);
+        Gauge.builder("votacao.resultado.stream.assinantes", assinantes, AtomicInteger::get)
+                .description("Assinantes conectados ao stream de resultado")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resultado-stream-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger sequencia = new AtomicInteger();
+        envio = Executors.newFixedThreadPool(properties.getThreadsEnvio(), runnable -> {
+            Thread thread = new Thread(runnable, "resultado-stream-envio-" + sequencia.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalo = properties.getIntervalo().toNanos();
+        ticker.scheduleAtFixedRate(this::publicar, intervalo, intervalo, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        envio.shutdownNow();
+        canais.values().forEach(canal -> canal.assinantes.forEach(assinante -> assinante.emitter.complete()));
+        canais.clear();
+    }
+
+    public SseEmitter assinar(Long pautaId) {
+        Sessao sessao = sessaoService.buscarPorPauta(pautaId);
+        SseEmitter emitter = novoEmitter(properties.getTimeout().toMillis());
+        Assinante assinante = new Assinante(emitter);
+        Canal canal = canais.compute(pautaId, (id, atual) -> {
+            Canal destino = atual != null ? atual : new Canal(id, sessao);
+            if (destino.assinantes.size() >= properties.getMaxAssinantes()) {
+                throw new ServiceUnavailableException("Limite de assinantes do resultado atingido");
+            }
+            assinante.canal = destino;
+            destino.assinantes.add(assinante);
+            return destino;
+        });
+        assinantes.incrementAndGet();
+        emitter.onCompletion(() -> sair(canal, assinante));
+        emitter.onTimeout(() -> sair(canal, assinante));
+        emitter.onError(erro -> sair(canal, assinante));
+        ResultadoResponse atual = canal.ultimo.get();
+        enfileirar(assinante, new Evento(canal.proximoId(), EVENTO_RESULTADO,
+                atual != null ? atual : votoService.resultado(pautaId, sessao), false));
+        return emitter;
+    }
+
+    SseEmitter novoEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    /**
+     * One ticker pass: drops subscribers whose send is past the deadline, then sends each channel's
+     * result if it changed since the last pass, and the final event for sessions that closed.
+     */
+    void publicar() {
+        expirarEnviosLentos();
+        for (Canal canal : canais.values()) {
+            try {
+                publicar(canal);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to publish resultado for pauta {}: {}", canal.pautaId, ex.getMessage());
+            }
+        }
+    }
+
+    private void expirarEnviosLentos() {
+        long agora = System.nanoTime();
+        long prazo = properties.getPrazoEnvio().toNanos();
+        for (Assinante assinante : enviando) {
+            long desde = assinante.envioDesde;
+            if (desde == 0 || agora - desde <= prazo || !enviando.remove(assinante)) {
+                continue;
+            }
+            expiradoCounter.increment();
+            log.debug("Resultado stream send for pauta {} exceeded {}, closing it",
+                    assinante.canal.pautaId, properties.getPrazoEnvio());
+            sair(assinante.canal, assinante);
+            assinante.emitter.completeWithError(new IOException("Prazo de envio do resultado esgotado"));
+        }
+    }
+
+    private void publicar(Canal canal) {
+        boolean finalizada = !sessaoService.sessaoAberta(canal.sessao)
+                && resultadoFinalService.buscar(canal.pautaId).isPresent();
+        ResultadoResponse resultado = votoService.resultado(canal.pautaId, canal.sessao);
+        ResultadoResponse anterior = canal.ultimo.getAndSet(resultado);
+        if (finalizada) {
+            canais.remove(canal.pautaId, canal);
+            Evento evento = new Evento(canal.proximoId(), EVENTO_ENCERRADO, resultado, true);
+            canal.assinantes.forEach(assinante -> enfileirar(assinante, evento));
+            return;
+        }
+        if (anterior != null && mesmoResultado(anterior, resultado)) {
+            return;
+        }
+        Evento evento = new Evento(canal.proximoId(), EVENTO_RESULTADO, resultado, false);
+        canal.assinantes.forEach(assinante -> enfileirar(assinante, evento));
+    }
+
+    int assinantes(Long pautaId) {
+        Canal canal = canais.get(pautaId);
+        return canal == null ? 0 : canal.assinantes.size();
+    }
+
+    private void enfileirar(Assinante assinante, Evento evento) {
+        if (assinante.pendente.getAndSet(evento) != null) {
+            descartadoCounter.increment();
+        }
+        if (assinante.enviando.compareAndSet(false, true)) {
+            envio.execute(() -> drenar(assinante));
+        }
+    }
+
+    private void drenar(Assinante assinante) {
+        while (true) {
+            Evento evento = assinante.pendente.getAndSet(null);
+            if (evento == null) {
+                assinante.enviando.set(false);
+                if (assinante.pendente.get() == null || !assinante.enviando.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            assinante.envioDesde = System.nanoTime();
+            enviando.add(assinante);
+            try {
+                assinante.emitter.send(SseEmitter.event()
+                        .id(Long.toString(evento.id))
+                        .name(evento.nome)
+                        .data(evento.resultado));
+                if (evento.ultimo) {
+                    assinante.emitter.complete();
+                }
+            } catch (IOException | IllegalStateException ex) {
+                assinante.emitter.completeWithError(ex);
+                assinante.pendente.set(null);
+            } finally {
+                enviando.remove(assinante);
+                assinante.envioDesde = 0;
+            }
+        }
+    }
+
+    private void sair(Canal canal, Assinante assinante) {
+        if (canal.assinantes.remove(assinante)) {
+            assinantes.decrementAndGet();
+        }
+        canais.computeIfPresent(canal.pautaId, (id, atual) -> atual == canal && atual.assinantes.isEmpty() ? null : atual);
+    }
+
+    private static boolean mesmoResultado(ResultadoResponse a, ResultadoResponse b) {
+        return a.getVotosSim() == b.getVotosSim()
+                && a.getVotosNao() == b.getVotosNao()
+                && a.getStatus().equals(b.getStatus());
+    }
+
+    private static final class Canal {
+        private final Long pautaId;
+        private final Sessao sessao;
+        private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+        private final AtomicReference<ResultadoResponse> ultimo = new AtomicReference<>();
+        private final AtomicLong sequencia = new AtomicLong();
+
+        private Canal(Long pautaId, Sessao sessao) {
+            this.pautaId = pautaId;
+            this.sessao = sessao;
+        }
+
+        private long proximoId() {
+            return sequencia.incrementAndGet();
+        }
+    }
+
+    private static final class Assinante {
+        private final SseEmitter emitter;
+        private final AtomicReference<Evento> pendente = new AtomicReference<>();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private volatile Canal canal;
+        private volatile long envioDesde;
+
+        private Assinante(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private static final class Evento {
+        private final long id;
+        private final String nome;
+        private final ResultadoResponse resultado;
+        private final boolean ultimo;
+
+        private Evento(long id, String nome, ResultadoResponse resultado, boolean ultimo) {
+            this.id = id;
+            this.nome = nome;
+            this.resultado = resultado;
+            this.ultimo = ultimo;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.dto.ResultadoResponse;
+import com.soya.votacao.exception.BadRequestException;
+import com.soya.votacao.model.ResultadoFinal;
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.repository.ResultadoFinalRepository;
+import com.soya.votacao.repository.SessaoRepository;
+import com.soya.votacao.repository.VotoApuracao;
+import com.soya.votacao.repository.VotoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes the immutable {@link ResultadoFinal} of each session {@code carencia} after it closes
+ * and serves it from memory afterwards.
+ *
+ * <p>A vote counts when it was admitted before {@code fechaEm} (its {@code createdAt} is the
+ * admission instant) and committed before the snapshot. Finalization and every vote write that
+ * starts within {@code carencia} of the close lock the session row, so a write either commits
+ * before the snapshot is counted or sees the snapshot and is rejected with "Sessão encerrada".
+ * Writes that start earlier skip the lock and must commit within {@code carencia}.
+ */
+@Service
+public class ResultadoFinalService {
+    private static final Logger log = LoggerFactory.getLogger(ResultadoFinalService.class);
+
+    private final SessaoRepository sessaoRepository;
+    private final VotoRepository votoRepository;
+    private final ResultadoFinalRepository resultadoFinalRepository;
+    private final SessaoAbertaRegistry sessaoAbertaRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration carencia;
+    private final Duration maxAge;
+    private final Map<Long, ResultadoFinal> finais = new ConcurrentHashMap<>();
+    private final Counter finalizadaCounter;
+    private final Counter rejeitadoCounter;
+    private ScheduledExecutorService scheduler;
+
+    public ResultadoFinalService(
+            SessaoRepository sessaoRepository,
+            VotoRepository votoRepository,
+            ResultadoFinalRepository resultadoFinalRepository,
+            SessaoAbertaRegistry sessaoAbertaRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${votacao.finalizacao.carencia:2s}") Duration carencia,
+            @Value("${votacao.finalizacao.max-age:1d}") Duration maxAge,
+            MeterRegistry meterRegistry
+    ) {
+        this.sessaoRepository = sessaoRepository;
+        this.votoRepository = votoRepository;
+        this.resultadoFinalRepository = resultadoFinalRepository;
+        this.sessaoAbertaRegistry = sessaoAbertaRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.carencia = carencia;
+        this.maxAge = maxAge;
+        this.finalizadaCounter = Counter.builder("votacao.sessao.finalizada")
+                .description("Sessoes com resultado final gravado")
+                .register(meterRegistry);
+        this.rejeitadoCounter = Counter.builder("votacao.voto.rejeitado.fechamento")
+                .description("Votos rejeitados por chegarem depois do resultado final")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resultado-final");
+            thread.setDaemon(true);
+            return thread;
+        });
+        resultadoFinalRepository.findAll().forEach(resultado -> finais.put(resultado.getPautaId(), resultado));
+        int pendentes = 0;
+        for (Sessao sessao : sessaoRepository.findSemResultadoFinal()) {
+            agendar(sessao.getPauta().getId(), sessao.getFechaEm());
+            pendentes++;
+        }
+        log.info("Loaded {} final results, {} sessions pending finalization", finais.size(), pendentes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Schedules the finalization of the session of {@code pautaId} for {@code fechaEm + carencia}.
+     */
+    public void agendar(Long pautaId, Instant fechaEm) {
+        long atraso = fechaEm.plus(carencia).toEpochMilli() - System.currentTimeMillis();
+        scheduler.schedule(() -> finalizarAgendado(pautaId), Math.max(atraso, 0), TimeUnit.MILLISECONDS);
+    }
+
+    public Optional<ResultadoFinal> buscar(Long pautaId) {
+        return Optional.ofNullable(finais.get(pautaId));
+    }
+
+    public ResultadoResponse toResponse(ResultadoFinal resultado) {
+        return new ResultadoResponse(resultado.getPautaId(), resultado.getTotalVotos(),
+                resultado.getVotosSim(), resultado.getVotosNao(), "ENCERRADA");
+    }
+
+    /**
+     * Strong validator of a final result: it is derived only from its (immutable) content.
+     */
+    public String etag(ResultadoFinal resultado) {
+        return "\"final-" + resultado.getPautaId() + "-" + resultado.getVotosSim() + "-" + resultado.getVotosNao() + "\"";
+    }
+
+    /**
+     * Runs a vote write so that it cannot interleave with the finalization of the pauta: within
+     * {@code carencia} of the close it runs in a transaction holding the session row lock and is
+     * rejected when the final result already exists.
+     */
+    public <T> T gravar(Long pautaId, Supplier<T> gravacao) {
+        if (!emFechamento(pautaId)) {
+            return gravacao.get();
+        }
+        return transactionTemplate.execute(tx -> {
+            bloquear(pautaId);
+            return gravacao.get();
+        });
+    }
+
+    /**
+     * Same guard as {@link #gravar} for a write already running in a transaction, such as a
+     * batch with votes of several pautas.
+     */
+    public void bloquearSeEmFechamento(Long pautaId) {
+        if (emFechamento(pautaId)) {
+            bloquear(pautaId);
+        }
+    }
+
+    public void remover(Long pautaId) {
+        finais.remove(pautaId);
+        resultadoFinalRepository.deleteById(pautaId);
+    }
+
+    /**
+     * Counts the votes of a session and stores its final result; a second call returns the
+     * stored result. Empty when the session no longer exists.
+     */
+    Optional<ResultadoFinal> finalizar(Long pautaId) {
+        ResultadoFinal resultado = transactionTemplate.execute(tx -> {
+            Optional<Sessao> sessao = sessaoRepository.bloquearPorPauta(pautaId);
+            if (sessao.isEmpty()) {
+                return null;
+            }
+            Optional<ResultadoFinal> existente = resultadoFinalRepository.findById(pautaId);
+            if (existente.isPresent()) {
+                return existente.get();
+            }
+            Instant fechaEm = sessao.get().getFechaEm();
+            VotoApuracao apuracao = votoRepository.apurarPorPautaAte(pautaId, fechaEm);
+            finalizadaCounter.increment();
+            return resultadoFinalRepository.save(
+                    new ResultadoFinal(pautaId, apuracao.getSim(), apuracao.getNao(), fechaEm,
+                            Instant.now().truncatedTo(ChronoUnit.MILLIS)));
+        });
+        if (resultado == null) {
+            return Optional.empty();
+        }
+        finais.put(pautaId, resultado);
+        return Optional.of(resultado);
+    }
+
+    private void finalizarAgendado(Long pautaId) {
+        try {
+            finalizar(pautaId).ifPresent(resultado -> log.info("Finalized pauta {} with {} votes",
+                    pautaId, resultado.getTotalVotos()));
+        } catch (RuntimeException ex) {
+            log.warn("Finalization of pauta {} failed, retrying in {}: {}", pautaId, carencia, ex.getMessage());
+            scheduler.schedule(() -> finalizarAgendado(pautaId), carencia.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean emFechamento(Long pautaId) {
+        long fechamento = sessaoAbertaRegistry.fechamento(pautaId);
+        return fechamento == 0 || System.currentTimeMillis() >= fechamento - carencia.toMillis();
+    }
+
+    private void bloquear(Long pautaId) {
+        sessaoRepository.bloquearPorPauta(pautaId);
+        if (finais.containsKey(pautaId) || resultadoFinalRepository.existsById(pautaId)) {
+            rejeitadoCounter.increment();
+            throw new BadRequestException("Sessão encerrada");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.repository.SessaoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Closing time of every session this instance knows to be open, so the vote path can check
+ * "open" with one map lookup and a clock read. Entries are dropped at {@code fechaEm} by a
+ * {@link TimerWheel}; since the wheel fires up to one tick late, {@link #estaAberta} also compares
+ * the clock. A pauta missing from the registry is not necessarily closed (for example, a session
+ * opened by another instance), so callers fall back to the database. Dropping an entry changes
+ * the pauta version in {@link VersaoRegistry}, since reads show whether the session is open.
+ */
+@Component
+public class SessaoAbertaRegistry {
+    private static final Logger log = LoggerFactory.getLogger(SessaoAbertaRegistry.class);
+    private static final int WHEEL_SIZE = 512;
+
+    private final SessaoRepository sessaoRepository;
+    private final VersaoRegistry versaoRegistry;
+    private final Map<Long, Long> fechamentos = new ConcurrentHashMap<>();
+    private final TimerWheel timerWheel;
+
+    public SessaoAbertaRegistry(
+            SessaoRepository sessaoRepository,
+            VersaoRegistry versaoRegistry,
+            @Value("${votacao.sessao.registro.tick:100ms}") Duration tick,
+            MeterRegistry meterRegistry
+    ) {
+        this.sessaoRepository = sessaoRepository;
+        this.versaoRegistry = versaoRegistry;
+        this.timerWheel = new TimerWheel("sessao-timer-wheel", tick, WHEEL_SIZE);
+        Gauge.builder("votacao.sessao.abertas", fechamentos, Map::size)
+                .description("Sessoes abertas no registro em memoria")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void carregar() {
+        timerWheel.start();
+        for (Sessao sessao : sessaoRepository.findByFechaEmAfter(Instant.now())) {
+            registrar(sessao.getPauta().getId(), sessao.getFechaEm());
+        }
+        log.info("Loaded {} open sessions into the registry", fechamentos.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        timerWheel.stop();
+    }
+
+    public void registrar(Long pautaId, Instant fechaEm) {
+        long fechamento = fechaEm.toEpochMilli();
+        if (fechamento <= System.currentTimeMillis()) {
+            return;
+        }
+        Long valor = fechamento;
+        fechamentos.put(pautaId, valor);
+        timerWheel.agendar(fechamento, () -> {
+            if (fechamentos.remove(pautaId, valor)) {
+                versaoRegistry.alterarPauta(pautaId);
+            }
+        });
+    }
+
+    public boolean estaAberta(Long pautaId) {
+        Long fechamento = fechamentos.get(pautaId);
+        return fechamento != null && System.currentTimeMillis() < fechamento;
+    }
+
+    /**
+     * Closing time in epoch millis of a session known to be open, or 0 when it is not in the registry.
+     */
+    public long fechamento(Long pautaId) {
+        Long fechamento = fechamentos.get(pautaId);
+        return fechamento == null ? 0 : fechamento;
+    }
+
+    public void remover(Long pautaId) {
+        fechamentos.remove(pautaId);
+    }
+
+    int tamanho() {
+        return fechamentos.size();
+    }
+}
@@ -21,10 +21,25 @@ public class SessaoService {
 
     private final SessaoRepository sessaoRepository;
     private final PautaService pautaService;
+    private final VotoDuplicadoFiltro votoDuplicadoFiltro;
+    private final SessaoAbertaRegistry sessaoAbertaRegistry;
+    private final ResultadoFinalService resultadoFinalService;
+    private final VersaoRegistry versaoRegistry;
 
-    public SessaoService(SessaoRepository sessaoRepository, PautaService pautaService) {
+    public SessaoService(
+            SessaoRepository sessaoRepository,
+            PautaService pautaService,
+            VotoDuplicadoFiltro votoDuplicadoFiltro,
+            SessaoAbertaRegistry sessaoAbertaRegistry,
+            ResultadoFinalService resultadoFinalService,
+            VersaoRegistry versaoRegistry
+    ) {
         this.sessaoRepository = sessaoRepository;
         this.pautaService = pautaService;
+        this.votoDuplicadoFiltro = votoDuplicadoFiltro;
+        this.sessaoAbertaRegistry = sessaoAbertaRegistry;
+        this.resultadoFinalService = resultadoFinalService;
+        this.versaoRegistry = versaoRegistry;
     }
 
     @Observed(name = "votacao.sessao.abrir")
@@ -38,7 +53,7 @@ public class SessaoService {
         int minutos = request != null && request.getDuracaoMinutos() != null
                 ? request.getDuracaoMinutos()
                 : DEFAULT_MINUTES;
-        Instant now = Instant.now();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
         Sessao sessao = new Sessao();
         sessao.setPauta(pauta);
@@ -46,6 +61,10 @@ public class SessaoService {
         sessao.setFechaEm(now.plus(minutos, ChronoUnit.MINUTES));
 
         Sessao saved = sessaoRepository.save(sessao);
+        votoDuplicadoFiltro.iniciar(pautaId, saved.getFechaEm());
+        sessaoAbertaRegistry.registrar(pautaId, saved.getFechaEm());
+        resultadoFinalService.agendar(pautaId, saved.getFechaEm());
+        versaoRegistry.alterarPauta(pautaId);
         log.info("Opened session {} for pauta {}", saved.getId(), pautaId);
         return saved;
     }
@@ -0,0 +1,39 @@
+package com.soya.votacao.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of {@code porSegundo} tokens and capacity {@code rajada}, kept as a single
+ * "theoretical arrival time" (GCRA) so a request is one lock-free compare-and-set.
+ */
+final class TaxaLimitador {
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final AtomicLong chegadaTeorica;
+
+    TaxaLimitador(double porSegundo, int rajada, long agoraNanos) {
+        this.intervaloNanos = Math.max(1, (long) (1_000_000_000L / porSegundo));
+        this.toleranciaNanos = intervaloNanos * Math.max(1, rajada);
+        this.chegadaTeorica = new AtomicLong(agoraNanos);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 when a token was taken, otherwise how many nanoseconds until the next one
+     */
+    long adquirir(long agoraNanos) {
+        while (true) {
+            long atual = chegadaTeorica.get();
+            long base = atual - agoraNanos < 0 ? agoraNanos : atual;
+            long proxima = base + intervaloNanos;
+            long espera = proxima - toleranciaNanos - agoraNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (chegadaTeorica.compareAndSet(atual, proxima)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.soya.votacao.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel: a ring of buckets advanced by one worker thread every tick. A task lands in
+ * the bucket of its deadline tick and carries how many full turns of the ring remain, so
+ * scheduling is O(1) and each tick only visits one bucket. Tasks run on the worker thread up to
+ * one tick after their deadline and must be short.
+ */
+final class TimerWheel {
+    private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final long tickMillis;
+    private final int mask;
+    private final ArrayDeque<Entrada>[] buckets;
+    private final Queue<Entrada> novas = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private volatile boolean running;
+    private long inicio;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(String nome, Duration tick, int tamanho) {
+        if (Integer.bitCount(tamanho) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.mask = tamanho - 1;
+        this.buckets = new ArrayDeque[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.worker = new Thread(this::run, nome);
+        this.worker.setDaemon(true);
+    }
+
+    void start() {
+        inicio = System.currentTimeMillis();
+        running = true;
+        worker.start();
+    }
+
+    void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * @param deadlineMillis wall-clock time in epoch millis
+     */
+    void agendar(long deadlineMillis, Runnable tarefa) {
+        novas.add(new Entrada(deadlineMillis, tarefa));
+    }
+
+    private void run() {
+        while (running) {
+            long espera = inicio + (tick + 1) * tickMillis - System.currentTimeMillis();
+            if (espera > 0) {
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            distribuir();
+            expirar(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void distribuir() {
+        Entrada entrada;
+        while ((entrada = novas.poll()) != null) {
+            long alvo = Math.max((entrada.deadline - inicio) / tickMillis, tick);
+            entrada.rodadas = (alvo - tick) / buckets.length;
+            buckets[(int) (alvo & mask)].add(entrada);
+        }
+    }
+
+    private void expirar(ArrayDeque<Entrada> bucket) {
+        Iterator<Entrada> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Entrada entrada = iterator.next();
+            if (entrada.rodadas > 0) {
+                entrada.rodadas--;
+                continue;
+            }
+            iterator.remove();
+            try {
+                entrada.tarefa.run();
+            } catch (RuntimeException ex) {
+                log.warn("Timer wheel task failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private static final class Entrada {
+        private final long deadline;
+        private final Runnable tarefa;
+        private long rodadas;
+
+        private Entrada(long deadline, Runnable tarefa) {
+            this.deadline = deadline;
+            this.tarefa = tarefa;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.soya.votacao.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Version counters behind the ETags of pauta and resultado reads: one per pauta, changed by
+ * votes, session open/close and removal, and one for the listing, changed by everything except
+ * votes. Versions are bumped after commit and read before the response is built, so a tag can
+ * be older than its body but never newer.
+ * <p>
+ * Counters live in memory; every tag carries the instance start time so tags from a previous
+ * run or another instance never match. Changes made through another instance are not seen, so
+ * {@code votacao.etag.enabled} should be off when several instances serve the same database.
+ */
+@Component
+public class VersaoRegistry {
+    private final boolean enabled;
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequencia = new AtomicLong();
+    private final AtomicLong listagem = new AtomicLong();
+    private final Map<Long, Long> versoes = new ConcurrentHashMap<>();
+
+    public VersaoRegistry(@Value("${votacao.etag.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * A pauta was created or removed, or its session opened or closed.
+     */
+    public void alterarPauta(Long pautaId) {
+        aposCommit(() -> {
+            long versao = sequencia.incrementAndGet();
+            versoes.merge(pautaId, versao, Math::max);
+            listagem.accumulateAndGet(versao, Math::max);
+        });
+    }
+
+    /**
+     * A vote was committed for the pauta; the listing does not show votes.
+     */
+    public void alterarVotos(Long pautaId) {
+        aposCommit(() -> versoes.merge(pautaId, sequencia.incrementAndGet(), Math::max));
+    }
+
+    /**
+     * Tag of the current listing, or null when ETags are disabled.
+     */
+    public String etagListagem() {
+        return enabled ? etag("l", listagem.get()) : null;
+    }
+
+    /**
+     * Tag of the current state of the pauta, or null when ETags are disabled.
+     */
+    public String etagPauta(Long pautaId) {
+        return enabled ? etag("p", versoes.getOrDefault(pautaId, 0L)) : null;
+    }
+
+    /**
+     * Tag of the current resultado of the pauta, or null when ETags are disabled.
+     */
+    public String etagResultado(Long pautaId) {
+        return enabled ? etag("r", versoes.getOrDefault(pautaId, 0L)) : null;
+    }
+
+    private String etag(String tipo, long versao) {
+        return "\"" + tipo + epoca + "-" + versao + "\"";
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.config.FiltroDuplicadoProperties;
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.repository.SessaoRepository;
+import com.soya.votacao.repository.VotoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-session Bloom filter of associados that already voted. When the filter says an associado
+ * has definitely not voted the duplicate lookup is skipped and {@code uk_votos_pauta_associado}
+ * stays as the final guard; otherwise the database is queried as before.
+ */
+@Component
+public class VotoDuplicadoFiltro {
+    private static final Logger log = LoggerFactory.getLogger(VotoDuplicadoFiltro.class);
+
+    private final VotoRepository votoRepository;
+    private final SessaoRepository sessaoRepository;
+    private final FiltroDuplicadoProperties properties;
+    private final Map<Long, FiltroSessao> filtros = new ConcurrentHashMap<>();
+    private final Counter consultaIgnorada;
+    private final Counter consultaConfirmada;
+    private final Counter falsoPositivo;
+
+    public VotoDuplicadoFiltro(
+            VotoRepository votoRepository,
+            SessaoRepository sessaoRepository,
+            FiltroDuplicadoProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.votoRepository = votoRepository;
+        this.sessaoRepository = sessaoRepository;
+        this.properties = properties;
+        this.consultaIgnorada = consulta(meterRegistry, "ignorada");
+        this.consultaConfirmada = consulta(meterRegistry, "duplicado");
+        this.falsoPositivo = consulta(meterRegistry, "falso_positivo");
+        Gauge.builder("votacao.voto.filtro.memoria", this, VotoDuplicadoFiltro::memoriaBytes)
+                .description("Memoria ocupada pelos filtros de voto duplicado")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("votacao.voto.filtro.falso_positivo.estimado", this, VotoDuplicadoFiltro::falsoPositivoEstimado)
+                .description("Maior taxa estimada de falso positivo entre os filtros abertos")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void carregar() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (Sessao sessao : sessaoRepository.findByFechaEmAfter(Instant.now())) {
+            Long pautaId = sessao.getPauta().getId();
+            List<String> associados = votoRepository.findAssociadoIdsByPautaId(pautaId);
+            FiltroSessao filtro = novoFiltro(sessao.getFechaEm(), associados.size() * 2);
+            associados.forEach(filtro.bloom::put);
+            filtros.put(pautaId, filtro);
+        }
+        log.info("Loaded duplicate-vote filters for {} open sessions", filtros.size());
+    }
+
+    public void iniciar(Long pautaId, Instant fechaEm) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        descartarEncerrados();
+        filtros.putIfAbsent(pautaId, novoFiltro(fechaEm, 0));
+    }
+
+    /**
+     * Answers whether the associado already voted, calling {@code consultaBanco} only when the
+     * filter cannot rule it out.
+     */
+    public boolean jaVotou(Long pautaId, String associadoId, BooleanSupplier consultaBanco) {
+        FiltroSessao filtro = filtros.get(pautaId);
+        if (filtro == null) {
+            return consultaBanco.getAsBoolean();
+        }
+        if (!filtro.bloom.mightContain(associadoId)) {
+            consultaIgnorada.increment();
+            return false;
+        }
+        boolean votou = consultaBanco.getAsBoolean();
+        (votou ? consultaConfirmada : falsoPositivo).increment();
+        return votou;
+    }
+
+    public void registrar(Long pautaId, String associadoId) {
+        FiltroSessao filtro = filtros.get(pautaId);
+        if (filtro != null) {
+            filtro.bloom.put(associadoId);
+        }
+    }
+
+    public void remover(Long pautaId) {
+        filtros.remove(pautaId);
+    }
+
+    private void descartarEncerrados() {
+        Instant now = Instant.now();
+        filtros.values().removeIf(filtro -> !now.isBefore(filtro.fechaEm));
+    }
+
+    private FiltroSessao novoFiltro(Instant fechaEm, int minimo) {
+        int esperados = Math.max(properties.getExpectedVotos(), minimo);
+        return new FiltroSessao(fechaEm, new AssociadoBloomFilter(esperados, properties.getFalsoPositivo()));
+    }
+
+    private double memoriaBytes() {
+        return filtros.values().stream().mapToLong(filtro -> filtro.bloom.bytes()).sum();
+    }
+
+    private double falsoPositivoEstimado() {
+        return filtros.values().stream().mapToDouble(filtro -> filtro.bloom.falsoPositivoEstimado()).max().orElse(0);
+    }
+
+    private static Counter consulta(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("votacao.voto.filtro.consulta")
+                .description("Checagens de voto duplicado pelo filtro da sessao")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private static final class FiltroSessao {
+        private final Instant fechaEm;
+        private final AssociadoBloomFilter bloom;
+
+        private FiltroSessao(Instant fechaEm, AssociadoBloomFilter bloom) {
+            this.fechaEm = fechaEm;
+            this.bloom = bloom;
+        }
+    }
+}
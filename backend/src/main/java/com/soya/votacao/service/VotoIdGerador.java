@@ -0,0 +1,39 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.model.Voto;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ids for votes inserted through plain JDBC, drawn from the generator of the {@link Voto} entity.
+ * It is the same pooled optimizer JPA inserts use, so a batch costs one {@code votos_seq} call per
+ * {@code votacao.id.allocation-size} ids and never overlaps the ids handed out to entities.
+ */
+@Component
+public class VotoIdGerador {
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator gerador;
+
+    public VotoIdGerador(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.gerador = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Voto.class)
+                .getGenerator();
+    }
+
+    public List<Long> gerar(int quantidade) {
+        List<Long> ids = new ArrayList<>(quantidade);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < quantidade; i++) {
+                ids.add((Long) gerador.generate((SharedSessionContractImplementor) session, null));
+            }
+        }
+        return ids;
+    }
+}
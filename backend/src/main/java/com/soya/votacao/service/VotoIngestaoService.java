@@ -0,0 +1,463 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.config.IngestaoProperties;
+import com.soya.votacao.dto.VotoReciboResponse;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.BadRequestException;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.exception.NotFoundException;
+import com.soya.votacao.exception.ServiceUnavailableException;
+import com.soya.votacao.model.AssociadoChave;
+import com.soya.votacao.model.Voto;
+import com.soya.votacao.model.VotoReciboStatus;
+import com.soya.votacao.model.VotoValor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind ingestion of votes: admitted votes are queued in memory and a single writer
+ * thread persists them as batched inserts, every {@code batch-size} votes or {@code flush-interval}.
+ * Each queued vote gets a receipt whose status can be queried until it is evicted.
+ * <p>
+ * With {@code journal.enabled} a vote is first made durable in the {@link VotoJournal} and only
+ * then queued and acknowledged, and the journaled votes not yet applied when the application
+ * stopped are written on startup, before the writer thread starts.
+ */
+@Service
+public class VotoIngestaoService {
+    private static final Logger log = LoggerFactory.getLogger(VotoIngestaoService.class);
+    static final String INSERT_SQL =
+            "insert into votos (id, pauta_id, associado_id, associado_num, valor, created_at) "
+                    + "values (?, ?, ?, ?, ?, ?)";
+
+    private final VotoService votoService;
+    private final VotoTallyRegistry votoTallyRegistry;
+    private final PautaTallyService pautaTallyService;
+    private final VotoDuplicadoFiltro votoDuplicadoFiltro;
+    private final ResultadoFinalService resultadoFinalService;
+    private final VersaoRegistry versaoRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final VotoIdGerador votoIdGerador;
+    private final TransactionTemplate transactionTemplate;
+    private final IngestaoProperties properties;
+    private final BlockingQueue<VotoPendente> fila;
+    private final Semaphore vagas;
+    private final Set<String> pendentes = ConcurrentHashMap.newKeySet();
+    private final Map<String, Recibo> recibos = new ConcurrentHashMap<>();
+    private final Queue<String> ordemRecibos = new ConcurrentLinkedQueue<>();
+    private final Counter votoSalvoCounter;
+    private final VotoMetricas metricas;
+    private final Counter constraintFallbackCounter;
+    private final DistributionSummary loteSummary;
+    private final MeterRegistry meterRegistry;
+    private VotoJournal journal;
+    private volatile boolean running;
+    private Thread writer;
+
+    public VotoIngestaoService(
+            VotoService votoService,
+            VotoTallyRegistry votoTallyRegistry,
+            PautaTallyService pautaTallyService,
+            VotoDuplicadoFiltro votoDuplicadoFiltro,
+            ResultadoFinalService resultadoFinalService,
+            VersaoRegistry versaoRegistry,
+            JdbcTemplate jdbcTemplate,
+            VotoIdGerador votoIdGerador,
+            PlatformTransactionManager transactionManager,
+            IngestaoProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.votoService = votoService;
+        this.votoTallyRegistry = votoTallyRegistry;
+        this.pautaTallyService = pautaTallyService;
+        this.votoDuplicadoFiltro = votoDuplicadoFiltro;
+        this.resultadoFinalService = resultadoFinalService;
+        this.versaoRegistry = versaoRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.votoIdGerador = votoIdGerador;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.fila = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.vagas = new Semaphore(properties.getQueueCapacity());
+        this.meterRegistry = meterRegistry;
+        this.votoSalvoCounter = Counter.builder("votacao.voto.salvo")
+                .description("Quantidade de votos persistidos")
+                .register(meterRegistry);
+        this.metricas = new VotoMetricas(meterRegistry);
+        this.constraintFallbackCounter = Counter.builder("votacao.voto.constraint.fallback")
+                .description("Votos duplicados barrados somente pela constraint do banco")
+                .register(meterRegistry);
+        this.loteSummary = DistributionSummary.builder("votacao.ingestao.lote")
+                .description("Quantidade de votos gravados por lote")
+                .register(meterRegistry);
+        Gauge.builder("votacao.ingestao.fila", fila, BlockingQueue::size)
+                .description("Votos aguardando gravacao")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        if (properties.getJournal().isEnabled()) {
+            abrirJournal();
+        }
+        running = true;
+        writer = new Thread(this::run, "voto-ingestao-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Write-behind vote ingestion started (batch {}, interval {})",
+                properties.getBatchSize(), properties.getFlushInterval());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(properties.getFlushInterval().toMillis() + 30_000);
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Observed(name = "votacao.voto.enfileirar")
+    public VotoReciboResponse enfileirar(Long pautaId, VotoRequest request) {
+        String chave = pautaId + ":" + request.getAssociadoId();
+        if (!pendentes.add(chave)) {
+            metricas.rejeitar(VotoMetricas.Motivo.DUPLICADO);
+            throw new ConflictException("Associado já votou nesta pauta");
+        }
+        try {
+            Voto voto = votoService.admitir(pautaId, request);
+            if (!vagas.tryAcquire()) {
+                throw new ServiceUnavailableException("Fila de votos cheia, tente novamente");
+            }
+            long sequencia;
+            try {
+                sequencia = registrarNoJournal(pautaId, voto);
+            } catch (RuntimeException ex) {
+                vagas.release();
+                throw ex;
+            }
+            String reciboId = UUID.randomUUID().toString();
+            registrarRecibo(reciboId, pautaId);
+            fila.add(new VotoPendente(reciboId, chave, sequencia, pautaId, voto.getAssociadoId(),
+                    voto.getAssociadoNum(), voto.getValor(), voto.getCreatedAt()));
+            return new VotoReciboResponse(reciboId, pautaId, VotoReciboStatus.PENDENTE.name());
+        } catch (RuntimeException ex) {
+            pendentes.remove(chave);
+            throw ex;
+        }
+    }
+
+    public VotoReciboResponse buscarRecibo(Long pautaId, String reciboId) {
+        Recibo recibo = recibos.get(reciboId);
+        if (recibo == null || !recibo.pautaId.equals(pautaId)) {
+            throw new NotFoundException("Recibo não encontrado");
+        }
+        return new VotoReciboResponse(reciboId, pautaId, recibo.status.name());
+    }
+
+    /**
+     * Collects one batch (waiting at most one flush interval) and writes it.
+     *
+     * @return how many votes were taken from the queue
+     */
+    int processarFila() throws InterruptedException {
+        List<VotoPendente> lote = new ArrayList<>(properties.getBatchSize());
+        coletarLote(lote);
+        if (!lote.isEmpty()) {
+            vagas.release(lote.size());
+            gravar(lote);
+        }
+        return lote.size();
+    }
+
+    private void run() {
+        while (running || !fila.isEmpty()) {
+            try {
+                processarFila();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                log.warn("Write-behind writer interrupted with {} votes queued", fila.size());
+                return;
+            }
+        }
+    }
+
+    private void coletarLote(List<VotoPendente> lote) throws InterruptedException {
+        long intervalo = properties.getFlushInterval().toNanos();
+        int tamanho = properties.getBatchSize();
+        VotoPendente primeiro = fila.poll(intervalo, TimeUnit.NANOSECONDS);
+        if (primeiro == null) {
+            return;
+        }
+        lote.add(primeiro);
+        long prazo = System.nanoTime() + intervalo;
+        while (lote.size() < tamanho) {
+            fila.drainTo(lote, tamanho - lote.size());
+            long restante = prazo - System.nanoTime();
+            if (lote.size() >= tamanho || restante <= 0) {
+                return;
+            }
+            VotoPendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+            if (proximo == null) {
+                return;
+            }
+            lote.add(proximo);
+        }
+    }
+
+    private void gravar(List<VotoPendente> lote) {
+        loteSummary.record(lote.size());
+        try {
+            Map<Long, List<VotoValor>> porPauta = lote.stream().collect(Collectors.groupingBy(
+                    pendente -> pendente.pautaId, TreeMap::new,
+                    Collectors.mapping(pendente -> pendente.valor, Collectors.toList())));
+            porPauta.keySet().forEach(pautaTallyService::preparar);
+            atribuirIds(lote);
+            transactionTemplate.executeWithoutResult(tx -> {
+                porPauta.keySet().forEach(resultadoFinalService::bloquearSeEmFechamento);
+                jdbcTemplate.batchUpdate(INSERT_SQL, lote, lote.size(), VotoIngestaoService::bind);
+                porPauta.forEach(pautaTallyService::incrementar);
+            });
+            lote.forEach(pendente -> concluir(pendente, VotoReciboStatus.PERSISTIDO));
+        } catch (RuntimeException ex) {
+            log.warn("Batch of {} votes failed, retrying one by one: {}", lote.size(), ex.getMessage());
+            lote.forEach(this::gravarIndividual);
+        }
+        if (journal != null) {
+            journal.checkpoint();
+        }
+    }
+
+    /**
+     * Gives each vote without one an id from the entity's pooled generator; a vote keeps its id
+     * across the batch and its retries one by one.
+     */
+    private void atribuirIds(List<VotoPendente> lote) {
+        List<VotoPendente> semId = lote.stream().filter(pendente -> pendente.id == null).toList();
+        if (semId.isEmpty()) {
+            return;
+        }
+        List<Long> ids = votoIdGerador.gerar(semId.size());
+        for (int i = 0; i < semId.size(); i++) {
+            semId.get(i).id = ids.get(i);
+        }
+    }
+
+    /**
+     * Writes one vote. Only a constraint violation (already voted) or a closed session rejects it;
+     * other failures are retried with exponential backoff. A journaled vote that still fails is
+     * left unconcluded, so it stays pending and is replayed on the next startup.
+     */
+    private void gravarIndividual(VotoPendente pendente) {
+        RuntimeException falha = null;
+        for (int tentativa = 1; tentativa <= properties.getTentativas(); tentativa++) {
+            if (tentativa > 1 && !esperar(tentativa)) {
+                break;
+            }
+            try {
+                pautaTallyService.preparar(pendente.pautaId);
+                atribuirIds(List.of(pendente));
+                transactionTemplate.executeWithoutResult(tx -> {
+                    resultadoFinalService.bloquearSeEmFechamento(pendente.pautaId);
+                    jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, pendente));
+                    pautaTallyService.incrementar(pendente.pautaId, List.of(pendente.valor));
+                });
+                concluir(pendente, VotoReciboStatus.PERSISTIDO);
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                constraintFallbackCounter.increment();
+                rejeitar(pendente, VotoMetricas.Motivo.CONSTRAINT, ex);
+                return;
+            } catch (BadRequestException ex) {
+                rejeitar(pendente, VotoMetricas.Motivo.SESSAO_ENCERRADA, ex);
+                return;
+            } catch (RuntimeException ex) {
+                log.debug("Attempt {} to write vote receipt {} failed: {}", tentativa, pendente.reciboId, ex.getMessage());
+                falha = ex;
+            }
+        }
+        String motivo = falha == null ? "interrupted" : falha.getMessage();
+        if (journal != null) {
+            log.error("Vote of sequence {} for pauta {} not written ({}), kept in the journal for replay",
+                    pendente.sequencia, pendente.pautaId, motivo);
+            return;
+        }
+        metricas.rejeitar(VotoMetricas.Motivo.ERRO);
+        log.warn("Vote receipt {} rejected for pauta {}: {}", pendente.reciboId, pendente.pautaId, motivo);
+        concluir(pendente, VotoReciboStatus.REJEITADO);
+    }
+
+    private void rejeitar(VotoPendente pendente, VotoMetricas.Motivo motivo, RuntimeException ex) {
+        metricas.rejeitar(motivo);
+        log.warn("Vote receipt {} rejected for pauta {}: {}", pendente.reciboId, pendente.pautaId, ex.getMessage());
+        concluir(pendente, VotoReciboStatus.REJEITADO);
+    }
+
+    private boolean esperar(int tentativa) {
+        try {
+            Thread.sleep(properties.getEsperaTentativa().toMillis() << (tentativa - 2));
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void concluir(VotoPendente pendente, VotoReciboStatus status) {
+        Recibo recibo = pendente.reciboId == null ? null : recibos.get(pendente.reciboId);
+        if (recibo != null) {
+            recibo.status = status;
+        }
+        pendentes.remove(pendente.chave);
+        if (journal != null) {
+            journal.concluir(pendente.sequencia);
+        }
+        if (status == VotoReciboStatus.PERSISTIDO) {
+            votoTallyRegistry.registrar(pendente.pautaId, pendente.valor);
+            votoDuplicadoFiltro.registrar(pendente.pautaId, pendente.associadoId);
+            versaoRegistry.alterarVotos(pendente.pautaId);
+            votoSalvoCounter.increment();
+        }
+    }
+
+    private void abrirJournal() throws IOException {
+        IngestaoProperties.Journal config = properties.getJournal();
+        journal = new VotoJournal(Path.of(config.getDiretorio()), config.getSegmento().toBytes(),
+                config.getFsyncIntervalo(), meterRegistry);
+        List<VotoJournal.Registro> registros = journal.abrir();
+        for (int inicio = 0; inicio < registros.size(); inicio += properties.getBatchSize()) {
+            gravar(registros.subList(inicio, Math.min(inicio + properties.getBatchSize(), registros.size())).stream()
+                    .map(registro -> new VotoPendente(null, registro.pautaId() + ":" + associadoId(registro),
+                            registro.sequencia(), registro.pautaId(), associadoId(registro), registro.associadoNum(),
+                            registro.valor(), registro.createdAt()))
+                    .toList());
+        }
+        if (!registros.isEmpty()) {
+            log.info("Replayed {} journaled votes", registros.size());
+        }
+    }
+
+    /**
+     * Makes the vote durable in the journal, when there is one.
+     *
+     * @return the journal sequence, or 0 without journal
+     */
+    private long registrarNoJournal(Long pautaId, Voto voto) {
+        if (journal == null) {
+            return 0;
+        }
+        try {
+            return journal.registrar(pautaId, voto.getAssociadoNum() == null ? voto.getAssociadoId() : null,
+                    voto.getAssociadoNum(), voto.getValor(), voto.getCreatedAt());
+        } catch (IOException ex) {
+            log.error("Could not journal vote for pauta {}: {}", pautaId, ex.getMessage());
+            throw new ServiceUnavailableException("Não foi possível registrar o voto, tente novamente");
+        }
+    }
+
+    private static String associadoId(VotoJournal.Registro registro) {
+        return registro.associadoNum() == null ? registro.associadoId() : AssociadoChave.decodificar(registro.associadoNum());
+    }
+
+    private void registrarRecibo(String reciboId, Long pautaId) {
+        recibos.put(reciboId, new Recibo(pautaId));
+        ordemRecibos.add(reciboId);
+        while (recibos.size() > properties.getMaxRecibos()) {
+            String antigo = ordemRecibos.poll();
+            if (antigo == null) {
+                break;
+            }
+            recibos.remove(antigo);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, VotoPendente pendente) throws SQLException {
+        ps.setLong(1, pendente.id);
+        ps.setLong(2, pendente.pautaId);
+        if (pendente.associadoNum == null) {
+            ps.setString(3, pendente.associadoId);
+            ps.setNull(4, Types.BIGINT);
+        } else {
+            ps.setNull(3, Types.VARCHAR);
+            ps.setLong(4, pendente.associadoNum);
+        }
+        ps.setString(5, pendente.valor.name());
+        ps.setObject(6, OffsetDateTime.ofInstant(pendente.createdAt, ZoneOffset.UTC));
+    }
+
+    private static final class Recibo {
+        private final Long pautaId;
+        private volatile VotoReciboStatus status = VotoReciboStatus.PENDENTE;
+
+        private Recibo(Long pautaId) {
+            this.pautaId = pautaId;
+        }
+    }
+
+    private static final class VotoPendente {
+        private final String reciboId;
+        private final String chave;
+        private final long sequencia;
+        private final Long pautaId;
+        private final String associadoId;
+        private final Long associadoNum;
+        private final VotoValor valor;
+        private final Instant createdAt;
+        private Long id;
+
+        private VotoPendente(String reciboId, String chave, long sequencia, Long pautaId, String associadoId,
+                Long associadoNum, VotoValor valor, Instant createdAt) {
+            this.reciboId = reciboId;
+            this.chave = chave;
+            this.sequencia = sequencia;
+            this.pautaId = pautaId;
+            this.associadoId = associadoId;
+            this.associadoNum = associadoNum;
+            this.valor = valor;
+            this.createdAt = createdAt;
+        }
+    }
+}
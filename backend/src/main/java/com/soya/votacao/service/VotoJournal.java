@@ -0,0 +1,375 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.model.VotoValor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of admitted votes in memory-mapped segment files of fixed-width records.
+ * {@link #registrar} returns once the record is on disk; one flusher thread forces the mapped
+ * segment for every record written since the previous force, so concurrent votes share one
+ * msync. Records are applied to {@code votos} elsewhere and reported back with {@link #concluir};
+ * {@link #checkpoint} stores the highest sequence below which everything was applied and deletes
+ * segments that are entirely below it. {@link #abrir} returns the records above the stored
+ * checkpoint, which may include records applied just before a crash: applying them again is
+ * stopped by the vote unique constraints.
+ *
+ * <p>Record layout (big-endian, {@value #TAMANHO_REGISTRO} bytes): sequence, pauta id, admission
+ * instant in epoch microseconds, valor ordinal, associado id length in chars or -1 for a numeric
+ * key, 20 chars of id (or the numeric key), CRC32 of the preceding bytes.
+ */
+final class VotoJournal implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(VotoJournal.class);
+    static final int TAMANHO_REGISTRO = 72;
+    private static final int TAMANHO_ID = 20;
+    private static final int POSICAO_CRC = 66;
+    private static final String PREFIXO = "votos-";
+    private static final String SUFIXO = ".journal";
+    private static final String CHECKPOINT = "aplicado";
+
+    private final Path diretorio;
+    private final int registrosPorSegmento;
+    private final long intervaloFsyncNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition haPendente = lock.newCondition();
+    private final Condition sincronizado = lock.newCondition();
+    private final NavigableSet<Long> emAplicacao = new ConcurrentSkipListSet<>();
+    private final TreeMap<Long, Path> segmentosFechados = new TreeMap<>();
+    private final Timer fsyncTimer;
+    private final DistributionSummary grupoSummary;
+    private MappedByteBuffer segmento;
+    private long primeiroDoSegmento;
+    private long escrito;
+    private long duravel;
+    private long aplicado;
+    private volatile boolean running;
+    private Thread flusher;
+
+    VotoJournal(Path diretorio, long tamanhoSegmento, Duration intervaloFsync, MeterRegistry meterRegistry) {
+        this.diretorio = diretorio;
+        this.registrosPorSegmento = (int) Math.max(1, Math.min(tamanhoSegmento / TAMANHO_REGISTRO,
+                Integer.MAX_VALUE / TAMANHO_REGISTRO));
+        this.intervaloFsyncNanos = intervaloFsync.toNanos();
+        this.fsyncTimer = Timer.builder("votacao.ingestao.journal.fsync")
+                .description("Tempo de cada sincronizacao do journal com o disco")
+                .register(meterRegistry);
+        this.grupoSummary = DistributionSummary.builder("votacao.ingestao.journal.grupo")
+                .description("Registros tornados duraveis por sincronizacao")
+                .register(meterRegistry);
+        Gauge.builder("votacao.ingestao.journal.pendentes", emAplicacao, NavigableSet::size)
+                .description("Registros do journal ainda nao aplicados no banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the existing segments, starts a new one and the flusher, and returns the records
+     * after the stored checkpoint, in sequence order. Reading a segment stops at the first
+     * record that is incomplete or fails its CRC, which is where a crash cut the write.
+     */
+    List<Registro> abrir() throws IOException {
+        Files.createDirectories(diretorio);
+        aplicado = lerCheckpoint();
+        List<Registro> pendentes = new ArrayList<>();
+        long ultimo = aplicado;
+        for (Map.Entry<Long, Path> entrada : listarSegmentos().entrySet()) {
+            long sequencia = entrada.getKey();
+            try (FileChannel channel = FileChannel.open(entrada.getValue(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.remaining() >= TAMANHO_REGISTRO) {
+                    Registro registro = ler(buffer, sequencia);
+                    if (registro == null) {
+                        break;
+                    }
+                    if (sequencia > aplicado) {
+                        pendentes.add(registro);
+                        emAplicacao.add(sequencia);
+                    }
+                    ultimo = Math.max(ultimo, sequencia);
+                    sequencia++;
+                }
+            }
+            if (sequencia == entrada.getKey()) {
+                // Opened but never written, like the last segment of a clean shutdown.
+                Files.delete(entrada.getValue());
+            } else {
+                segmentosFechados.put(entrada.getKey(), entrada.getValue());
+            }
+        }
+        escrito = ultimo;
+        duravel = ultimo;
+        novoSegmento(ultimo + 1);
+        running = true;
+        flusher = new Thread(this::sincronizar, "voto-journal-fsync");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Vote journal opened at {} with {} records to replay", diretorio, pendentes.size());
+        return pendentes;
+    }
+
+    /**
+     * Appends one vote and waits until it is durable.
+     *
+     * @return the sequence of the record, to be passed to {@link #concluir} once applied
+     */
+    long registrar(Long pautaId, String associadoId, Long associadoNum, VotoValor valor, Instant createdAt)
+            throws IOException {
+        long sequencia;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IOException("Vote journal is closed");
+            }
+            if (escrito + 1 - primeiroDoSegmento >= registrosPorSegmento) {
+                segmento.force();
+                segmentosFechados.put(primeiroDoSegmento, arquivo(primeiroDoSegmento));
+                duravel = escrito;
+                novoSegmento(escrito + 1);
+            }
+            sequencia = escrito + 1;
+            int posicao = (int) (sequencia - primeiroDoSegmento) * TAMANHO_REGISTRO;
+            escrever(segmento.slice(posicao, TAMANHO_REGISTRO),
+                    new Registro(sequencia, pautaId, associadoId, associadoNum, valor, createdAt));
+            escrito = sequencia;
+            emAplicacao.add(sequencia);
+            haPendente.signal();
+            while (duravel < sequencia && running) {
+                sincronizado.awaitUninterruptibly();
+            }
+            if (duravel < sequencia) {
+                throw new IOException("Vote journal closed before the record was synced");
+            }
+        } finally {
+            lock.unlock();
+        }
+        return sequencia;
+    }
+
+    /**
+     * The record was applied, or rejected for good, and must not be replayed.
+     */
+    void concluir(long sequencia) {
+        emAplicacao.remove(sequencia);
+    }
+
+    /**
+     * Stores the applied prefix of the journal and deletes the segments it fully covers.
+     */
+    void checkpoint() {
+        long novo;
+        List<Path> apagar = new ArrayList<>();
+        lock.lock();
+        try {
+            Long primeiroPendente = emAplicacao.isEmpty() ? null : emAplicacao.first();
+            novo = primeiroPendente == null ? duravel : Math.min(duravel, primeiroPendente - 1);
+            if (novo <= aplicado) {
+                return;
+            }
+            aplicado = novo;
+            while (!segmentosFechados.isEmpty()) {
+                Long proximo = segmentosFechados.higherKey(segmentosFechados.firstKey());
+                long ultimoDoSegmento = (proximo != null ? proximo : primeiroDoSegmento) - 1;
+                if (ultimoDoSegmento > aplicado) {
+                    break;
+                }
+                apagar.add(segmentosFechados.pollFirstEntry().getValue());
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            Path temporario = diretorio.resolve(CHECKPOINT + ".tmp");
+            Files.write(temporario, ByteBuffer.allocate(Long.BYTES).putLong(novo).array());
+            Files.move(temporario, diretorio.resolve(CHECKPOINT),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (Path arquivo : apagar) {
+                Files.deleteIfExists(arquivo);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not store vote journal checkpoint {}: {}", novo, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            haPendente.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            segmento.force();
+            duravel = escrito;
+            sincronizado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        checkpoint();
+    }
+
+    private void sincronizar() {
+        while (true) {
+            lock.lock();
+            try {
+                while (running && escrito == duravel) {
+                    haPendente.awaitUninterruptibly();
+                }
+                if (!running) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (intervaloFsyncNanos > 0) {
+                // Lets more votes join this sync.
+                LockSupport.parkNanos(intervaloFsyncNanos);
+            }
+            long alvo;
+            MappedByteBuffer atual;
+            lock.lock();
+            try {
+                alvo = escrito;
+                atual = segmento;
+            } finally {
+                lock.unlock();
+            }
+            long inicio = System.nanoTime();
+            atual.force();
+            fsyncTimer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            lock.lock();
+            try {
+                if (alvo > duravel) {
+                    grupoSummary.record(alvo - duravel);
+                    duravel = alvo;
+                }
+                sincronizado.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void novoSegmento(long primeiro) throws IOException {
+        try (FileChannel channel = FileChannel.open(arquivo(primeiro), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segmento = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) registrosPorSegmento * TAMANHO_REGISTRO);
+        }
+        primeiroDoSegmento = primeiro;
+    }
+
+    private Path arquivo(long primeiro) {
+        return diretorio.resolve(String.format("%s%020d%s", PREFIXO, primeiro, SUFIXO));
+    }
+
+    private TreeMap<Long, Path> listarSegmentos() throws IOException {
+        TreeMap<Long, Path> segmentos = new TreeMap<>();
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.forEach(arquivo -> {
+                String nome = arquivo.getFileName().toString();
+                if (nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO)) {
+                    segmentos.put(Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())), arquivo);
+                }
+            });
+        }
+        return segmentos;
+    }
+
+    private long lerCheckpoint() throws IOException {
+        Path arquivo = diretorio.resolve(CHECKPOINT);
+        if (!Files.exists(arquivo)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(arquivo)).getLong();
+    }
+
+    static void escrever(ByteBuffer buffer, Registro registro) {
+        buffer.putLong(registro.sequencia());
+        buffer.putLong(registro.pautaId());
+        buffer.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, registro.createdAt()));
+        buffer.put((byte) registro.valor().ordinal());
+        if (registro.associadoNum() != null) {
+            buffer.put((byte) -1);
+            buffer.putLong(registro.associadoNum());
+        } else {
+            String id = registro.associadoId();
+            if (id.length() > TAMANHO_ID) {
+                throw new UncheckedIOException(new IOException("Associado id longer than " + TAMANHO_ID + " chars"));
+            }
+            buffer.put((byte) id.length());
+            for (int i = 0; i < id.length(); i++) {
+                buffer.putChar(id.charAt(i));
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(POSICAO_CRC));
+        buffer.putInt(POSICAO_CRC, (int) crc.getValue());
+    }
+
+    /**
+     * The record at the buffer position when it is complete and has the expected sequence,
+     * advancing the buffer past it; otherwise null.
+     */
+    static Registro ler(ByteBuffer buffer, long esperada) {
+        ByteBuffer registro = buffer.slice(buffer.position(), TAMANHO_REGISTRO);
+        CRC32 crc = new CRC32();
+        crc.update(registro.duplicate().limit(POSICAO_CRC));
+        if (registro.getLong(0) != esperada || registro.getInt(POSICAO_CRC) != (int) crc.getValue()) {
+            return null;
+        }
+        buffer.position(buffer.position() + TAMANHO_REGISTRO);
+        long pautaId = registro.getLong(8);
+        Instant createdAt = Instant.EPOCH.plus(registro.getLong(16), ChronoUnit.MICROS);
+        VotoValor valor = VotoValor.values()[registro.get(24)];
+        int tamanho = registro.get(25);
+        if (tamanho < 0) {
+            return new Registro(esperada, pautaId, null, registro.getLong(26), valor, createdAt);
+        }
+        char[] id = new char[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            id[i] = registro.getChar(26 + i * Character.BYTES);
+        }
+        return new Registro(esperada, pautaId, new String(id), null, valor, createdAt);
+    }
+
+    record Registro(long sequencia, Long pautaId, String associadoId, Long associadoNum, VotoValor valor,
+                    Instant createdAt) {
+    }
+}
@@ -0,0 +1,313 @@
+package com.soya.votacao.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soya.votacao.dto.VotoLoteResultado;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.BadRequestException;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.model.AssociadoPautaId;
+import com.soya.votacao.model.AssociadoPautaStatus;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.model.Voto;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.AssociadoPautaStatusRepository;
+import com.soya.votacao.repository.VotoRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Processes newline-delimited votes in chunks: duplicates, already registered votes and known
+ * CPF statuses are resolved with one query each per chunk, accepted votes are saved in one
+ * transaction and one result line is written back per input line. Candidates hold the
+ * {@link VotoService} admission reservation until their chunk is persisted. An unavailable CPF
+ * lookup or a failed write rejects the affected lines instead of ending the stream.
+ */
+@Service
+public class VotoLoteService {
+    private static final Logger log = LoggerFactory.getLogger(VotoLoteService.class);
+    static final String ACEITO = "ACEITO";
+    static final String REJEITADO = "REJEITADO";
+    static final String ERRO_GRAVACAO = "Não foi possível registrar o voto, tente novamente";
+
+    private final VotoService votoService;
+    private final SessaoService sessaoService;
+    private final ResultadoFinalService resultadoFinalService;
+    private final AssociadoChaveService associadoChaveService;
+    private final VotoRepository votoRepository;
+    private final PautaTallyService pautaTallyService;
+    private final AssociadoPautaStatusRepository associadoPautaStatusRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public VotoLoteService(
+            VotoService votoService,
+            SessaoService sessaoService,
+            ResultadoFinalService resultadoFinalService,
+            AssociadoChaveService associadoChaveService,
+            VotoRepository votoRepository,
+            PautaTallyService pautaTallyService,
+            AssociadoPautaStatusRepository associadoPautaStatusRepository,
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Value("${votacao.lote.chunk-size:500}") int chunkSize
+    ) {
+        this.votoService = votoService;
+        this.sessaoService = sessaoService;
+        this.resultadoFinalService = resultadoFinalService;
+        this.associadoChaveService = associadoChaveService;
+        this.votoRepository = votoRepository;
+        this.pautaTallyService = pautaTallyService;
+        this.associadoPautaStatusRepository = associadoPautaStatusRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Observed(name = "votacao.voto.lote")
+    public void processar(Pauta pauta, Sessao sessao, InputStream entrada, OutputStream saida) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        List<Linha> chunk = new ArrayList<>(chunkSize);
+        int numero = 0;
+        int total = 0;
+        String texto;
+        while ((texto = reader.readLine()) != null) {
+            numero++;
+            if (texto.isBlank()) {
+                continue;
+            }
+            chunk.add(ler(numero, texto));
+            if (chunk.size() == chunkSize) {
+                total += processarChunk(pauta, sessao, chunk, writer);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            total += processarChunk(pauta, sessao, chunk, writer);
+        }
+        writer.flush();
+        log.info("Bulk upload for pauta {} accepted {} votes", pauta.getId(), total);
+    }
+
+    private Linha ler(int numero, String texto) {
+        VotoRequest request;
+        try {
+            request = objectMapper.readValue(texto, VotoRequest.class);
+        } catch (JsonProcessingException ex) {
+            return Linha.rejeitada(numero, null, "Corpo da requisição inválido");
+        }
+        if (request == null) {
+            return Linha.rejeitada(numero, null, "Corpo da requisição inválido");
+        }
+        Set<ConstraintViolation<VotoRequest>> violacoes = validator.validate(request);
+        if (!violacoes.isEmpty()) {
+            String motivo = violacoes.stream()
+                    .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return Linha.rejeitada(numero, request.getAssociadoId(), motivo);
+        }
+        return new Linha(numero, request);
+    }
+
+    private int processarChunk(Pauta pauta, Sessao sessao, List<Linha> chunk, Writer writer) throws IOException {
+        Instant admitidoEm = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<AssociadoPautaId> reservados = new ArrayList<>();
+        List<Linha> aceitos;
+        try {
+            aceitos = admitir(pauta.getId(), sessao, chunk, reservados);
+            persistir(pauta, aceitos, admitidoEm);
+        } finally {
+            reservados.forEach(votoService::liberar);
+        }
+        for (Linha linha : chunk) {
+            writer.write(objectMapper.writeValueAsString(linha.resultado));
+            writer.write('\n');
+        }
+        writer.flush();
+        return aceitos.size();
+    }
+
+    private List<Linha> admitir(Long pautaId, Sessao sessao, List<Linha> chunk, List<AssociadoPautaId> reservados) {
+        boolean aberta = sessaoService.sessaoAberta(sessao);
+        Map<String, Linha> candidatos = new LinkedHashMap<>();
+        for (Linha linha : chunk) {
+            if (linha.resultado != null) {
+                continue;
+            }
+            if (!aberta) {
+                linha.rejeitar("Sessão encerrada");
+                votoService.registrarRejeitado(VotoMetricas.Motivo.SESSAO_ENCERRADA);
+            } else if (candidatos.containsKey(linha.associadoId())) {
+                linha.rejeitar("Associado repetido no lote");
+                votoService.registrarRejeitado(VotoMetricas.Motivo.DUPLICADO);
+            } else {
+                reservar(pautaId, linha, candidatos, reservados);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> jaVotaram = associadoChaveService.jaVotaram(pautaId, candidatos.keySet());
+        Map<String, AssociadoPautaStatus> statusConhecidos = statusConhecidos(pautaId, candidatos.keySet(), jaVotaram);
+
+        List<Linha> elegiveis = new ArrayList<>(candidatos.size());
+        for (Linha linha : candidatos.values()) {
+            if (jaVotaram.contains(linha.associadoId())) {
+                linha.rejeitar("Associado já votou nesta pauta");
+                votoService.registrarRejeitado(VotoMetricas.Motivo.DUPLICADO);
+            } else {
+                elegiveis.add(linha);
+            }
+        }
+        Map<String, RuntimeException> inelegiveis = votoService.verificarElegibilidade(pautaId,
+                elegiveis.stream().map(Linha::associadoId).toList(), statusConhecidos);
+        List<Linha> aceitos = new ArrayList<>(elegiveis.size());
+        for (Linha linha : elegiveis) {
+            RuntimeException rejeicao = inelegiveis.get(linha.associadoId());
+            if (rejeicao == null) {
+                aceitos.add(linha);
+            } else {
+                linha.rejeitar(rejeicao.getMessage());
+            }
+        }
+        return aceitos;
+    }
+
+    private void reservar(Long pautaId, Linha linha, Map<String, Linha> candidatos, List<AssociadoPautaId> reservados) {
+        AssociadoPautaId chave = new AssociadoPautaId(pautaId, linha.associadoId());
+        try {
+            votoService.reservar(chave);
+        } catch (ConflictException ex) {
+            linha.rejeitar(ex.getMessage());
+            return;
+        }
+        reservados.add(chave);
+        candidatos.put(linha.associadoId(), linha);
+    }
+
+    private Map<String, AssociadoPautaStatus> statusConhecidos(Long pautaId, Set<String> associados, Set<String> jaVotaram) {
+        if (!votoService.isStatusPorPauta()) {
+            return Map.of();
+        }
+        List<AssociadoPautaId> statusIds = associados.stream()
+                .filter(associadoId -> !jaVotaram.contains(associadoId))
+                .map(associadoId -> new AssociadoPautaId(pautaId, associadoId))
+                .toList();
+        return associadoPautaStatusRepository.findAllById(statusIds).stream()
+                .collect(Collectors.toMap(status -> status.getId().getAssociadoId(), Function.identity()));
+    }
+
+    private void persistir(Pauta pauta, List<Linha> aceitos, Instant admitidoEm) {
+        if (aceitos.isEmpty()) {
+            return;
+        }
+        List<Voto> votos = aceitos.stream()
+                .map(linha -> votoService.novoVoto(pauta, linha.request, admitidoEm))
+                .toList();
+        List<VotoValor> valores = votos.stream().map(Voto::getValor).toList();
+        try {
+            pautaTallyService.preparar(pauta.getId());
+            resultadoFinalService.gravar(pauta.getId(),
+                    () -> pautaTallyService.gravar(pauta.getId(), valores, () -> votoRepository.salvarEmLote(votos)));
+            for (int i = 0; i < aceitos.size(); i++) {
+                votoService.registrarPersistido(pauta.getId(), votos.get(i));
+                aceitos.get(i).aceitar();
+            }
+        } catch (BadRequestException ex) {
+            aceitos.forEach(linha -> {
+                linha.rejeitar(ex.getMessage());
+                votoService.registrarRejeitado(VotoMetricas.Motivo.SESSAO_ENCERRADA);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Bulk chunk for pauta {} hit a constraint, saving one by one", pauta.getId());
+            aceitos.forEach(linha -> persistirIndividual(pauta, linha, admitidoEm));
+        } catch (RuntimeException ex) {
+            log.warn("Bulk chunk for pauta {} could not be saved", pauta.getId(), ex);
+            aceitos.forEach(this::rejeitarPorErro);
+        }
+    }
+
+    private void persistirIndividual(Pauta pauta, Linha linha, Instant admitidoEm) {
+        try {
+            Voto voto = votoService.novoVoto(pauta, linha.request, admitidoEm);
+            pautaTallyService.preparar(pauta.getId());
+            Voto saved = resultadoFinalService.gravar(pauta.getId(),
+                    () -> pautaTallyService.gravar(pauta.getId(), List.of(voto.getValor()), () -> votoRepository.save(voto)));
+            votoService.registrarPersistido(pauta.getId(), saved);
+            linha.aceitar();
+        } catch (BadRequestException ex) {
+            linha.rejeitar(ex.getMessage());
+            votoService.registrarRejeitado(VotoMetricas.Motivo.SESSAO_ENCERRADA);
+        } catch (DataIntegrityViolationException ex) {
+            linha.rejeitar("Associado já votou nesta pauta");
+            votoService.registrarRejeitado(VotoMetricas.Motivo.CONSTRAINT);
+            votoService.registrarFallbackConstraint();
+        } catch (RuntimeException ex) {
+            log.warn("Bulk vote of line {} for pauta {} could not be saved", linha.numero, pauta.getId(), ex);
+            rejeitarPorErro(linha);
+        }
+    }
+
+    private void rejeitarPorErro(Linha linha) {
+        linha.rejeitar(ERRO_GRAVACAO);
+        votoService.registrarRejeitado(VotoMetricas.Motivo.ERRO);
+    }
+
+    private static final class Linha {
+        private final int numero;
+        private final VotoRequest request;
+        private VotoLoteResultado resultado;
+
+        private Linha(int numero, VotoRequest request) {
+            this.numero = numero;
+            this.request = request;
+        }
+
+        private static Linha rejeitada(int numero, String associadoId, String motivo) {
+            Linha linha = new Linha(numero, null);
+            linha.resultado = new VotoLoteResultado(numero, associadoId, REJEITADO, motivo);
+            return linha;
+        }
+
+        private String associadoId() {
+            return request.getAssociadoId();
+        }
+
+        private void aceitar() {
+            resultado = new VotoLoteResultado(numero, associadoId(), ACEITO, null);
+        }
+
+        private void rejeitar(String motivo) {
+            resultado = new VotoLoteResultado(numero, associadoId(), REJEITADO, motivo);
+        }
+    }
+}
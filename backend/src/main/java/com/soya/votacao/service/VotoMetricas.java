@@ -0,0 +1,60 @@
+package com.soya.votacao.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the vote path: {@code votacao.voto.etapa{etapa}}, a timer with a percentile
+ * histogram per {@link Etapa}, and {@code votacao.voto.rejeitado{motivo}} per {@link Motivo}.
+ * Meters are registered once and looked up by enum; callers take {@code System.nanoTime()}
+ * before the step and pass it to {@link #registrar}, so a measurement costs two {@code nanoTime}
+ * calls and a bucket increment, with no lambda or sample allocated per vote.
+ */
+final class VotoMetricas {
+    enum Etapa {
+        PAUTA, SESSAO, DUPLICADO, STATUS, CPF, STATUS_GRAVACAO, GRAVACAO
+    }
+
+    enum Motivo {
+        SESSAO_ENCERRADA, DUPLICADO, EM_PROCESSAMENTO, INELEGIVEL, CPF_INDISPONIVEL, CONSTRAINT, ERRO
+    }
+
+    private final Map<Etapa, Timer> etapas = new EnumMap<>(Etapa.class);
+    private final Map<Motivo, Counter> rejeitados = new EnumMap<>(Motivo.class);
+
+    VotoMetricas(MeterRegistry meterRegistry) {
+        for (Etapa etapa : Etapa.values()) {
+            etapas.put(etapa, Timer.builder("votacao.voto.etapa")
+                    .description("Tempo de cada etapa do registro de voto")
+                    .tag("etapa", tag(etapa))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (Motivo motivo : Motivo.values()) {
+            rejeitados.put(motivo, Counter.builder("votacao.voto.rejeitado")
+                    .description("Quantidade de votos rejeitados por motivo")
+                    .tag("motivo", tag(motivo))
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Records the time since {@code inicio}, a {@code System.nanoTime()} read when the step began.
+     */
+    void registrar(Etapa etapa, long inicio) {
+        etapas.get(etapa).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    void rejeitar(Motivo motivo) {
+        rejeitados.get(motivo).increment();
+    }
+
+    private static String tag(Enum<?> valor) {
+        return valor.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,5 +1,6 @@
 package com.soya.votacao.service;
 
+import com.soya.votacao.client.AsyncCpfClient;
 import com.soya.votacao.client.CpfClient;
 import com.soya.votacao.client.CpfClientResult;
 import com.soya.votacao.client.CpfStatus;
@@ -8,19 +9,36 @@ import com.soya.votacao.dto.VotoRequest;
 import com.soya.votacao.exception.BadRequestException;
 import com.soya.votacao.exception.ConflictException;
 import com.soya.votacao.exception.NotFoundException;
+import com.soya.votacao.exception.ServiceUnavailableException;
 import com.soya.votacao.model.AssociadoPautaId;
 import com.soya.votacao.model.AssociadoPautaStatus;
 import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.ResultadoFinal;
 import com.soya.votacao.model.Sessao;
 import com.soya.votacao.model.Voto;
-import com.soya.votacao.model.VotoValor;
 import com.soya.votacao.repository.AssociadoPautaStatusRepository;
+import com.soya.votacao.repository.VotoApuracao;
 import com.soya.votacao.repository.VotoRepository;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.annotation.Observed;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
@@ -33,8 +51,20 @@ public class VotoService {
     private final SessaoService sessaoService;
     private final CpfClient cpfClient;
     private final AssociadoPautaStatusRepository associadoPautaStatusRepository;
+    private final VotoTallyRegistry votoTallyRegistry;
+    private final PautaTallyService pautaTallyService;
+    private final VotoDuplicadoFiltro votoDuplicadoFiltro;
+    private final SessaoAbertaRegistry sessaoAbertaRegistry;
+    private final ResultadoFinalService resultadoFinalService;
+    private final VersaoRegistry versaoRegistry;
+    private final AssociadoChaveService associadoChaveService;
+    private final boolean statusPorPauta;
+    private final int consultasSimultaneas;
     private final Counter votoSalvoCounter;
-    private final Counter votoRejeitadoCounter;
+    private final VotoMetricas metricas;
+    private final Counter admissaoConcorrenteCounter;
+    private final Counter constraintFallbackCounter;
+    private final Set<AssociadoPautaId> emAdmissao = ConcurrentHashMap.newKeySet();
 
     public VotoService(
             VotoRepository votoRepository,
@@ -42,6 +72,15 @@ public class VotoService {
             SessaoService sessaoService,
             CpfClient cpfClient,
             AssociadoPautaStatusRepository associadoPautaStatusRepository,
+            VotoTallyRegistry votoTallyRegistry,
+            PautaTallyService pautaTallyService,
+            VotoDuplicadoFiltro votoDuplicadoFiltro,
+            SessaoAbertaRegistry sessaoAbertaRegistry,
+            ResultadoFinalService resultadoFinalService,
+            VersaoRegistry versaoRegistry,
+            AssociadoChaveService associadoChaveService,
+            @Value("${votacao.elegibilidade.status-por-pauta:true}") boolean statusPorPauta,
+            @Value("${votacao.cpf.max-concurrent:64}") int consultasSimultaneas,
             MeterRegistry meterRegistry
     ) {
         this.votoRepository = votoRepository;
@@ -49,68 +88,345 @@ public class VotoService {
         this.sessaoService = sessaoService;
         this.cpfClient = cpfClient;
         this.associadoPautaStatusRepository = associadoPautaStatusRepository;
+        this.votoTallyRegistry = votoTallyRegistry;
+        this.pautaTallyService = pautaTallyService;
+        this.votoDuplicadoFiltro = votoDuplicadoFiltro;
+        this.sessaoAbertaRegistry = sessaoAbertaRegistry;
+        this.resultadoFinalService = resultadoFinalService;
+        this.versaoRegistry = versaoRegistry;
+        this.associadoChaveService = associadoChaveService;
+        this.statusPorPauta = statusPorPauta;
+        this.consultasSimultaneas = consultasSimultaneas;
         this.votoSalvoCounter = Counter.builder("votacao.voto.salvo")
                 .description("Quantidade de votos persistidos")
                 .register(meterRegistry);
-        this.votoRejeitadoCounter = Counter.builder("votacao.voto.rejeitado")
-                .description("Quantidade de votos rejeitados por regra de negocio")
+        this.metricas = new VotoMetricas(meterRegistry);
+        this.admissaoConcorrenteCounter = Counter.builder("votacao.voto.admissao.concorrente")
+                .description("Votos rejeitados por outro voto do mesmo associado em andamento")
+                .register(meterRegistry);
+        this.constraintFallbackCounter = Counter.builder("votacao.voto.constraint.fallback")
+                .description("Votos duplicados barrados somente pela constraint do banco")
+                .register(meterRegistry);
+        Gauge.builder("votacao.voto.admissao.em_andamento", emAdmissao, Set::size)
+                .description("Votos em admissao neste momento")
                 .register(meterRegistry);
     }
 
     @Observed(name = "votacao.voto.registrar")
     public Voto votar(Long pautaId, VotoRequest request) {
+        AssociadoPautaId chave = new AssociadoPautaId(pautaId, request.getAssociadoId());
+        reservar(chave);
+        try {
+            Voto voto = admitir(pautaId, request);
+            return gravar(pautaId, voto);
+        } finally {
+            liberar(chave);
+        }
+    }
+
+    private Voto gravar(Long pautaId, Voto voto) {
+        try {
+            pautaTallyService.preparar(pautaId);
+            long inicio = System.nanoTime();
+            Voto saved;
+            try {
+                saved = resultadoFinalService.gravar(pautaId, () -> pautaTallyService.gravar(pautaId,
+                        List.of(voto.getValor()), () -> votoRepository.save(voto)));
+            } finally {
+                metricas.registrar(VotoMetricas.Etapa.GRAVACAO, inicio);
+            }
+            registrarPersistido(pautaId, saved);
+            log.info("Vote {} saved for pauta {}", saved.getId(), pautaId);
+            return saved;
+        } catch (DataIntegrityViolationException ex) {
+            metricas.rejeitar(VotoMetricas.Motivo.CONSTRAINT);
+            constraintFallbackCounter.increment();
+            throw new ConflictException("Associado já votou nesta pauta");
+        } catch (BadRequestException ex) {
+            metricas.rejeitar(VotoMetricas.Motivo.SESSAO_ENCERRADA);
+            throw ex;
+        }
+    }
+
+    /**
+     * Marks the vote of the associado on the pauta as in progress until {@link #liberar}; a
+     * concurrent vote with the same key is rejected here, before any query or CPF call.
+     */
+    void reservar(AssociadoPautaId chave) {
+        if (!emAdmissao.add(chave)) {
+            admissaoConcorrenteCounter.increment();
+            metricas.rejeitar(VotoMetricas.Motivo.EM_PROCESSAMENTO);
+            throw new ConflictException("Voto do associado já está em processamento", true);
+        }
+    }
+
+    void liberar(AssociadoPautaId chave) {
+        emAdmissao.remove(chave);
+    }
+
+    /**
+     * Applies every business rule of a vote (open session, duplicate and CPF eligibility)
+     * and returns the vote ready to be persisted, without saving it. The vote is stamped with
+     * the instant read before the open-session check (at the column precision), so an admitted
+     * vote is always created before {@code fechaEm}. Each step that completes is timed as a
+     * {@link VotoMetricas.Etapa}; failed lookups show up as rejections instead.
+     */
+    public Voto admitir(Long pautaId, VotoRequest request) {
+        Instant agora = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        long inicio = System.nanoTime();
         Pauta pauta = pautaService.buscarPorId(pautaId);
-        Sessao sessao = sessaoService.buscarPorPauta(pautaId);
-        if (!sessaoService.sessaoAberta(sessao)) {
-            votoRejeitadoCounter.increment();
+        metricas.registrar(VotoMetricas.Etapa.PAUTA, inicio);
+        inicio = System.nanoTime();
+        boolean aberta = sessaoAbertaRegistry.estaAberta(pautaId)
+                || sessaoService.sessaoAberta(sessaoService.buscarPorPauta(pautaId));
+        metricas.registrar(VotoMetricas.Etapa.SESSAO, inicio);
+        if (!aberta) {
+            metricas.rejeitar(VotoMetricas.Motivo.SESSAO_ENCERRADA);
             throw new BadRequestException("Sessão encerrada");
         }
 
-        votoRepository.findByPautaIdAndAssociadoId(pautaId, request.getAssociadoId())
-                .ifPresent(voto -> {
-                    votoRejeitadoCounter.increment();
-                    throw new ConflictException("Associado já votou nesta pauta");
-                });
+        inicio = System.nanoTime();
+        boolean jaVotou = votoDuplicadoFiltro.jaVotou(pautaId, request.getAssociadoId(),
+                () -> associadoChaveService.jaVotou(pautaId, request.getAssociadoId()));
+        metricas.registrar(VotoMetricas.Etapa.DUPLICADO, inicio);
+        if (jaVotou) {
+            metricas.rejeitar(VotoMetricas.Motivo.DUPLICADO);
+            throw new ConflictException("Associado já votou nesta pauta");
+        }
 
         AssociadoPautaId statusId = new AssociadoPautaId(pautaId, request.getAssociadoId());
-        AssociadoPautaStatus status = associadoPautaStatusRepository.findById(statusId).orElse(null);
+        AssociadoPautaStatus status = null;
+        if (statusPorPauta) {
+            inicio = System.nanoTime();
+            status = associadoPautaStatusRepository.findById(statusId).orElse(null);
+            metricas.registrar(VotoMetricas.Etapa.STATUS, inicio);
+        }
+        verificarElegibilidade(statusId, status);
+        return novoVoto(pauta, request, agora);
+    }
+
+    public boolean isStatusPorPauta() {
+        return statusPorPauta;
+    }
+
+    /**
+     * Rejects the associado when the known status (or, when there is none, the CPF client)
+     * says it cannot vote. When {@code votacao.elegibilidade.status-por-pauta} is on, a status
+     * obtained from the CPF client is recorded for the pauta.
+     */
+    void verificarElegibilidade(AssociadoPautaId statusId, AssociadoPautaStatus status) {
         if (status != null) {
             if (status.getStatus() == CpfStatus.UNABLE_TO_VOTE) {
-                votoRejeitadoCounter.increment();
+                metricas.rejeitar(VotoMetricas.Motivo.INELEGIVEL);
                 throw new NotFoundException("Associado não pode votar");
             }
-        } else {
-            CpfClientResult cpfResult = cpfClient.consultar(request.getAssociadoId());
-            if (!cpfResult.isValid() || cpfResult.getStatus() == CpfStatus.UNABLE_TO_VOTE) {
-                associadoPautaStatusRepository.save(new AssociadoPautaStatus(statusId, CpfStatus.UNABLE_TO_VOTE));
-                votoRejeitadoCounter.increment();
-                throw new NotFoundException("Associado não pode votar");
+            return;
+        }
+        long inicio = System.nanoTime();
+        CpfClientResult cpfResult;
+        try {
+            cpfResult = cpfClient.consultar(statusId.getAssociadoId());
+        } finally {
+            metricas.registrar(VotoMetricas.Etapa.CPF, inicio);
+        }
+        boolean podeVotar = cpfResult.isValid() && cpfResult.getStatus() != CpfStatus.UNABLE_TO_VOTE;
+        if (statusPorPauta) {
+            CpfStatus cpfStatus = podeVotar ? CpfStatus.ABLE_TO_VOTE : CpfStatus.UNABLE_TO_VOTE;
+            inicio = System.nanoTime();
+            associadoPautaStatusRepository.save(new AssociadoPautaStatus(statusId, cpfStatus));
+            metricas.registrar(VotoMetricas.Etapa.STATUS_GRAVACAO, inicio);
+        }
+        if (!podeVotar) {
+            metricas.rejeitar(VotoMetricas.Motivo.INELEGIVEL);
+            throw new NotFoundException("Associado não pode votar");
+        }
+    }
+
+    /**
+     * Bulk form of {@link #verificarElegibilidade(AssociadoPautaId, AssociadoPautaStatus)} for
+     * associados of one pauta: those without a known status are looked up concurrently through
+     * the async CPF client, at most {@code votacao.cpf.max-concurrent} at a time so a large chunk
+     * never overflows the client's bulkhead, and the statuses obtained are saved in one batch. Returns, for each
+     * associado that cannot vote or whose CPF could not be checked, the exception the single
+     * vote would have thrown, so one unavailable lookup rejects only its own line.
+     */
+    Map<String, RuntimeException> verificarElegibilidade(Long pautaId, Collection<String> associados,
+            Map<String, AssociadoPautaStatus> conhecidos) {
+        Map<String, RuntimeException> rejeitados = new HashMap<>();
+        Map<String, CompletableFuture<CpfClientResult>> consultas = new LinkedHashMap<>();
+        List<CompletableFuture<CpfClientResult>> emAndamento = new ArrayList<>();
+        for (String associadoId : associados) {
+            AssociadoPautaStatus status = conhecidos.get(associadoId);
+            if (status == null) {
+                aguardarVaga(emAndamento);
+                CompletableFuture<CpfClientResult> consulta = consultarCpf(associadoId);
+                consultas.put(associadoId, consulta);
+                emAndamento.add(consulta);
+            } else if (status.getStatus() == CpfStatus.UNABLE_TO_VOTE) {
+                metricas.rejeitar(VotoMetricas.Motivo.INELEGIVEL);
+                rejeitados.put(associadoId, new NotFoundException("Associado não pode votar"));
+            }
+        }
+        List<AssociadoPautaStatus> novos = new ArrayList<>(consultas.size());
+        for (Map.Entry<String, CompletableFuture<CpfClientResult>> consulta : consultas.entrySet()) {
+            CpfClientResult cpfResult;
+            try {
+                cpfResult = aguardar(consulta.getValue());
+            } catch (ServiceUnavailableException ex) {
+                metricas.rejeitar(VotoMetricas.Motivo.CPF_INDISPONIVEL);
+                rejeitados.put(consulta.getKey(), ex);
+                continue;
+            }
+            boolean podeVotar = cpfResult.isValid() && cpfResult.getStatus() != CpfStatus.UNABLE_TO_VOTE;
+            if (statusPorPauta) {
+                novos.add(new AssociadoPautaStatus(new AssociadoPautaId(pautaId, consulta.getKey()),
+                        podeVotar ? CpfStatus.ABLE_TO_VOTE : CpfStatus.UNABLE_TO_VOTE));
+            }
+            if (!podeVotar) {
+                metricas.rejeitar(VotoMetricas.Motivo.INELEGIVEL);
+                rejeitados.put(consulta.getKey(), new NotFoundException("Associado não pode votar"));
+            }
+        }
+        gravarStatus(novos);
+        return rejeitados;
+    }
+
+    /**
+     * Waits until fewer than {@code consultasSimultaneas} of the lookups started are still running.
+     */
+    private void aguardarVaga(List<CompletableFuture<CpfClientResult>> emAndamento) {
+        emAndamento.removeIf(CompletableFuture::isDone);
+        if (emAndamento.size() < consultasSimultaneas) {
+            return;
+        }
+        try {
+            CompletableFuture.anyOf(emAndamento.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException ex) {
+            // the failure is reported with the associado's line
+        }
+        emAndamento.removeIf(CompletableFuture::isDone);
+    }
+
+    private CompletableFuture<CpfClientResult> consultarCpf(String cpf) {
+        if (cpfClient instanceof AsyncCpfClient async) {
+            return async.consultarAsync(cpf);
+        }
+        try {
+            return CompletableFuture.completedFuture(cpfClient.consultar(cpf));
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private static CpfClientResult aguardar(CompletableFuture<CpfClientResult> consulta) {
+        try {
+            return consulta.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
             }
-            associadoPautaStatusRepository.save(new AssociadoPautaStatus(statusId, CpfStatus.ABLE_TO_VOTE));
+            throw ex;
         }
+    }
 
+    private void gravarStatus(List<AssociadoPautaStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        try {
+            associadoPautaStatusRepository.saveAll(statuses);
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Some statuses were recorded concurrently, saving one by one");
+            for (AssociadoPautaStatus status : statuses) {
+                try {
+                    associadoPautaStatusRepository.save(status);
+                } catch (DataIntegrityViolationException duplicado) {
+                    log.debug("Status of {} already recorded", status.getId().getAssociadoId());
+                }
+            }
+        }
+    }
+
+    Voto novoVoto(Pauta pauta, VotoRequest request, Instant admitidoEm) {
         Voto voto = new Voto();
+        voto.setCreatedAt(admitidoEm);
         voto.setPauta(pauta);
         voto.setAssociadoId(request.getAssociadoId());
         voto.setValor(request.getVoto());
-
-        try {
-            Voto saved = votoRepository.save(voto);
-            votoSalvoCounter.increment();
-            log.info("Vote {} saved for pauta {}", saved.getId(), pautaId);
-            return saved;
-        } catch (DataIntegrityViolationException ex) {
-            votoRejeitadoCounter.increment();
-            throw new ConflictException("Associado já votou nesta pauta");
+        if (associadoChaveService.isCompacta()) {
+            voto.compactarAssociado();
         }
+        return voto;
+    }
+
+    /**
+     * Publishes a committed vote to the in-memory tally, duplicate filter and pauta version.
+     */
+    void registrarPersistido(Long pautaId, Voto voto) {
+        votoTallyRegistry.registrar(pautaId, voto.getValor());
+        votoDuplicadoFiltro.registrar(pautaId, voto.getAssociadoId());
+        versaoRegistry.alterarVotos(pautaId);
+        votoSalvoCounter.increment();
+    }
+
+    void registrarRejeitado(VotoMetricas.Motivo motivo) {
+        metricas.rejeitar(motivo);
+    }
+
+    /**
+     * Records a duplicate that got past admission and was stopped by {@code uk_votos_pauta_associado}.
+     */
+    void registrarFallbackConstraint() {
+        constraintFallbackCounter.increment();
     }
 
     @Observed(name = "votacao.voto.resultado")
     public ResultadoResponse resultado(Long pautaId) {
-        Sessao sessao = sessaoService.buscarPorPauta(pautaId);
+        Optional<ResultadoFinal> resultadoFinal = resultadoFinalService.buscar(pautaId);
+        if (resultadoFinal.isPresent()) {
+            return resultadoFinalService.toResponse(resultadoFinal.get());
+        }
+        return apurar(pautaId, sessaoService.buscarPorPauta(pautaId));
+    }
+
+    /**
+     * Running count of the pauta, for callers that already looked up the final result and found
+     * none, so the lookup is not repeated.
+     */
+    @Observed(name = "votacao.voto.resultado")
+    public ResultadoResponse resultadoEmAndamento(Long pautaId) {
+        return apurar(pautaId, sessaoService.buscarPorPauta(pautaId));
+    }
+
+    /**
+     * Same as {@link #resultado(Long)} for a session already loaded by the caller. Once the
+     * session is finalized the stored final result is returned.
+     */
+    public ResultadoResponse resultado(Long pautaId, Sessao sessao) {
+        Optional<ResultadoFinal> resultadoFinal = resultadoFinalService.buscar(pautaId);
+        if (resultadoFinal.isPresent()) {
+            return resultadoFinalService.toResponse(resultadoFinal.get());
+        }
+        return apurar(pautaId, sessao);
+    }
+
+    private ResultadoResponse apurar(Long pautaId, Sessao sessao) {
         boolean aberta = sessaoService.sessaoAberta(sessao);
-        long sim = votoRepository.countByPautaIdAndValor(pautaId, VotoValor.SIM);
-        long nao = votoRepository.countByPautaIdAndValor(pautaId, VotoValor.NAO);
+        long sim;
+        long nao;
+        if (pautaTallyService.isEnabled()) {
+            VotoApuracao apuracao = pautaTallyService.somar(pautaId);
+            sim = apuracao.getSim();
+            nao = apuracao.getNao();
+        } else if (votoTallyRegistry.isEnabled()) {
+            VotoTallyRegistry.Tally tally = votoTallyRegistry.buscar(pautaId);
+            sim = tally.getSim();
+            nao = tally.getNao();
+        } else {
+            VotoApuracao apuracao = votoRepository.apurarPorPauta(pautaId);
+            sim = apuracao.getSim();
+            nao = apuracao.getNao();
+        }
         long total = sim + nao;
         String status = aberta ? "ABERTA" : "ENCERRADA";
         return new ResultadoResponse(pautaId, total, sim, nao, status);
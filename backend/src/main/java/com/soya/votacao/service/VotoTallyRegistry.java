@@ -0,0 +1,104 @@
+package com.soya.votacao.service;
+
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.VotoContagem;
+import com.soya.votacao.repository.VotoRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory vote counters per pauta, backed by {@link LongAdder} so concurrent votes on the
+ * same pauta do not contend on a single cell. Rebuilt from the database on startup and
+ * updated only after the vote transaction commits.
+ * <p>
+ * Only used when the persistent tally cells ({@code votacao.tally.celulas.enabled}) are off: the
+ * counters here never see votes committed by other instances, so with the cells on they are
+ * neither rebuilt nor maintained and {@link PautaTallyService} is the single source of the tally.
+ */
+@Component
+public class VotoTallyRegistry {
+    private static final Logger log = LoggerFactory.getLogger(VotoTallyRegistry.class);
+    private static final Tally VAZIO = new Tally();
+
+    private final VotoRepository votoRepository;
+    private final boolean enabled;
+    private final Map<Long, Tally> tallies = new ConcurrentHashMap<>();
+
+    public VotoTallyRegistry(
+            VotoRepository votoRepository,
+            @Value("#{${votacao.tally.enabled:true} and !${votacao.tally.celulas.enabled:false}}") boolean enabled
+    ) {
+        this.votoRepository = votoRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void reconstruir() {
+        if (!enabled) {
+            return;
+        }
+        tallies.clear();
+        for (VotoContagem contagem : votoRepository.contarAgrupadoPorPautaEValor()) {
+            tallies.computeIfAbsent(contagem.getPautaId(), id -> new Tally())
+                    .adicionar(contagem.getValor(), contagem.getTotal());
+        }
+        log.info("Rebuilt vote tallies for {} pautas", tallies.size());
+    }
+
+    public void registrar(Long pautaId, VotoValor valor) {
+        if (!enabled) {
+            return;
+        }
+        aposCommit(() -> tallies.computeIfAbsent(pautaId, id -> new Tally()).adicionar(valor, 1));
+    }
+
+    public void remover(Long pautaId) {
+        aposCommit(() -> tallies.remove(pautaId));
+    }
+
+    public Tally buscar(Long pautaId) {
+        return tallies.getOrDefault(pautaId, VAZIO);
+    }
+
+    private void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    public static final class Tally {
+        private final LongAdder sim = new LongAdder();
+        private final LongAdder nao = new LongAdder();
+
+        private void adicionar(VotoValor valor, long quantidade) {
+            (valor == VotoValor.SIM ? sim : nao).add(quantidade);
+        }
+
+        public long getSim() {
+            return sim.sum();
+        }
+
+        public long getNao() {
+            return nao.sum();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.soya.votacao.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CachingCpfClientTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger consultas = new AtomicInteger();
+    private final CpfClient delegate = cpf -> {
+        consultas.incrementAndGet();
+        return new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+    };
+
+    @Test
+    void reaproveitaResultadoEntrePautas() {
+        CachingCpfClient client = new CachingCpfClient(delegate, Duration.ofMinutes(1), 10, meterRegistry);
+
+        CpfClientResult primeiro = client.consultar("12345678901");
+        CpfClientResult segundo = client.consultar("12345678901");
+
+        assertThat(segundo).isSameAs(primeiro);
+        assertThat(consultas).hasValue(1);
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "cpf").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "cpf").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void expiraAposTtl() throws InterruptedException {
+        CachingCpfClient client = new CachingCpfClient(delegate, Duration.ofMillis(1), 10, meterRegistry);
+
+        client.consultar("12345678901");
+        Thread.sleep(5);
+        client.consultar("12345678901");
+
+        assertThat(consultas).hasValue(2);
+    }
+
+    @Test
+    void naoGuardaConsultaComFalha() {
+        AtomicInteger tentativas = new AtomicInteger();
+        CachingCpfClient client = new CachingCpfClient(
+                cpf -> {
+                    if (tentativas.incrementAndGet() == 1) {
+                        throw new CpfClientUnavailableException("Tempo de consulta de CPF esgotado");
+                    }
+                    return new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+                },
+                Duration.ofMinutes(1), 10, meterRegistry);
+
+        assertThatThrownBy(() -> client.consultar("12345678901"))
+                .isInstanceOf(CpfClientUnavailableException.class);
+        assertThat(client.consultar("12345678901").isValid()).isTrue();
+        assertThat(tentativas).hasValue(2);
+    }
+
+    @Test
+    void delegaAssincronoSemBloquearNoCache() {
+        AsyncDelegate assincrono = new AsyncDelegate();
+        CachingCpfClient client = new CachingCpfClient(assincrono, Duration.ofMinutes(1), 10, meterRegistry);
+
+        CompletableFuture<CpfClientResult> pendente = client.consultarAsync("12345678901");
+        CompletableFuture<CpfClientResult> repetida = client.consultarAsync("12345678901");
+        assertThat(pendente).isNotDone();
+
+        assincrono.resposta.complete(new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE));
+        assertThat(repetida.join().isValid()).isTrue();
+        assertThat(client.consultar("12345678901").isValid()).isTrue();
+        assertThat(assincrono.assincronas).hasValue(1);
+        assertThat(assincrono.sincronas).hasValue(0);
+    }
+
+    private static final class AsyncDelegate implements CpfClient, AsyncCpfClient {
+        private final CompletableFuture<CpfClientResult> resposta = new CompletableFuture<>();
+        private final AtomicInteger sincronas = new AtomicInteger();
+        private final AtomicInteger assincronas = new AtomicInteger();
+
+        @Override
+        public CpfClientResult consultar(String cpf) {
+            sincronas.incrementAndGet();
+            return resposta.join();
+        }
+
+        @Override
+        public CompletableFuture<CpfClientResult> consultarAsync(String cpf) {
+            assincronas.incrementAndGet();
+            return resposta;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.soya.votacao.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ResilientCpfClientTest {
+    private static final CpfClientResult APTO = new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private final Map<String, CompletableFuture<CpfClientResult>> pendentes = new ConcurrentHashMap<>();
+    private final AsyncCpfClient delegate = cpf -> {
+        chamadas.incrementAndGet();
+        return pendentes.computeIfAbsent(cpf, chave -> new CompletableFuture<>());
+    };
+
+    @Test
+    void unificaConsultasSimultaneasDoMesmoCpf() {
+        ResilientCpfClient client = new ResilientCpfClient(delegate, Duration.ofSeconds(5), 4, meterRegistry);
+
+        CompletableFuture<CpfClientResult> primeira = client.consultarAsync("123");
+        CompletableFuture<CpfClientResult> segunda = client.consultarAsync("123");
+        pendentes.get("123").complete(APTO);
+
+        assertThat(primeira.join()).isSameAs(APTO);
+        assertThat(segunda.join()).isSameAs(APTO);
+        assertThat(chamadas).hasValue(1);
+        assertThat(meterRegistry.counter("votacao.cpf.coalescido").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("votacao.cpf.em_andamento").gauge().value()).isZero();
+    }
+
+    @Test
+    void novaConsultaAposConclusaoChamaDelegateNovamente() {
+        ResilientCpfClient client = new ResilientCpfClient(
+                cpf -> {
+                    chamadas.incrementAndGet();
+                    return CompletableFuture.completedFuture(APTO);
+                },
+                Duration.ofSeconds(5), 4, meterRegistry);
+
+        assertThat(client.consultar("123")).isSameAs(APTO);
+        assertThat(client.consultar("123")).isSameAs(APTO);
+
+        assertThat(chamadas).hasValue(2);
+    }
+
+    @Test
+    void rejeitaQuandoBulkheadEstaCheio() {
+        ResilientCpfClient client = new ResilientCpfClient(delegate, Duration.ofSeconds(5), 1, meterRegistry);
+
+        CompletableFuture<CpfClientResult> primeira = client.consultarAsync("111");
+
+        assertThatThrownBy(() -> client.consultar("222"))
+                .isInstanceOf(CpfClientUnavailableException.class)
+                .hasMessage("Limite de consultas de CPF atingido, tente novamente");
+        assertThat(meterRegistry.counter("votacao.cpf.bulkhead.rejeitado").count()).isEqualTo(1.0);
+
+        pendentes.get("111").complete(APTO);
+        assertThat(primeira.join()).isSameAs(APTO);
+        assertThat(meterRegistry.get("votacao.cpf.bulkhead.disponivel").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void encerraConsultaPorTimeoutMantendoPermissaoAteDelegateTerminar() {
+        ResilientCpfClient client = new ResilientCpfClient(delegate, Duration.ofMillis(20), 1, meterRegistry);
+
+        assertThatThrownBy(() -> client.consultar("123"))
+                .isInstanceOf(CpfClientUnavailableException.class)
+                .hasMessage("Tempo de consulta de CPF esgotado");
+        assertThat(meterRegistry.counter("votacao.cpf.timeout").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("votacao.cpf.bulkhead.disponivel").gauge().value()).isZero();
+
+        pendentes.get("123").complete(APTO);
+        assertThat(meterRegistry.get("votacao.cpf.bulkhead.disponivel").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void propagaErroDoDelegate() {
+        ResilientCpfClient client = new ResilientCpfClient(
+                cpf -> CompletableFuture.failedFuture(new IllegalStateException("falha")),
+                Duration.ofSeconds(5), 4, meterRegistry);
+
+        assertThatThrownBy(() -> client.consultar("123"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("falha");
+        assertThat(meterRegistry.get("votacao.cpf.bulkhead.disponivel").gauge().value()).isEqualTo(4.0);
+    }
+
+    @Test
+    void fakeClientRespondeDeFormaAssincrona() {
+        FakeCpfClient fake = new FakeCpfClient(Duration.ofMillis(5));
+
+        CpfClientResult resultado = fake.consultarAsync("12345678901").join();
+
+        assertThat(resultado).isNotNull();
+        if (resultado.isValid()) {
+            assertThat(resultado.getStatus()).isNotNull();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.soya.votacao.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AcessoLogFilterTest {
+    private final Logger logger = (Logger) LoggerFactory.getLogger("votacao.acesso");
+    private final ListAppender<ILoggingEvent> eventos = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        eventos.start();
+        logger.addAppender(eventos);
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(eventos);
+        logger.setLevel(null);
+    }
+
+    @Test
+    void sucessoForaDaAmostraNaoEhRegistrado() throws Exception {
+        executar(new AcessoLogFilter(0.0, 500), 201);
+
+        assertThat(eventos.list).isEmpty();
+    }
+
+    @Test
+    void erroSempreEhRegistrado() throws Exception {
+        executar(new AcessoLogFilter(0.0, 500), 500);
+
+        assertThat(eventos.list).singleElement().satisfies(evento -> {
+            assertThat(evento.getLevel()).isEqualTo(Level.WARN);
+            assertThat(evento.getFormattedMessage()).startsWith("POST /api/v1/pautas/1/votos 500 ");
+        });
+    }
+
+    @Test
+    void amostragemCompletaRegistraSucesso() throws Exception {
+        executar(new AcessoLogFilter(1.0, 500), 409);
+
+        assertThat(eventos.list).singleElement()
+                .extracting(ILoggingEvent::getLevel).isEqualTo(Level.INFO);
+    }
+
+    private static void executar(AcessoLogFilter filter, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/pautas/1/votos");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(status);
+        filter.doFilter(request, response, new MockFilterChain());
+    }
+}
@@ -0,0 +1,145 @@
+package com.soya.votacao.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AmostragemSamplerTest {
+    private final List<SpanData> exportados = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SdkTracerProvider provider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        AmostragemProperties.Endpoint votos = new AmostragemProperties.Endpoint();
+        votos.setMetodo("POST");
+        votos.setCaminho("/api/v1/pautas/*/votos");
+        votos.setProbabilidade(1.0);
+        AmostragemProperties.Endpoint lento = new AmostragemProperties.Endpoint();
+        lento.setCaminho("/api/v1/pautas/*/resultado");
+        lento.setLento(Duration.ZERO);
+        AmostragemProperties properties = new AmostragemProperties();
+        properties.setEndpoints(List.of(votos, lento));
+
+        AmostragemSampler sampler = new AmostragemSampler(0.0, properties, meterRegistry);
+        SpanExporter exportador = new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                exportados.addAll(spans);
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+        };
+        provider = SdkTracerProvider.builder()
+                .setSampler(sampler)
+                .addSpanProcessor(new AmostragemCaudaSpanProcessor(sampler, exportador, meterRegistry))
+                .build();
+        tracer = provider.get("teste");
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void raizNaoAmostradaSoGravaEDescartaFilhos() {
+        Span raiz = tracer.spanBuilder("http get").startSpan();
+        Span filho = tracer.spanBuilder("filho").setParent(Context.current().with(raiz)).startSpan();
+
+        assertThat(raiz.isRecording()).isTrue();
+        assertThat(raiz.getSpanContext().isSampled()).isFalse();
+        assertThat(filho.isRecording()).isFalse();
+        filho.end();
+        raiz.setAttribute("status", "200");
+        raiz.end();
+
+        assertThat(exportados).isEmpty();
+    }
+
+    @Test
+    void endpointComProbabilidadePropriaAmostraTraceInteiro() {
+        Span raiz;
+        try (AmostragemSampler.Escopo escopo = AmostragemSampler.requisicao("POST", "/api/v1/pautas/7/votos")) {
+            raiz = tracer.spanBuilder("http post").startSpan();
+        }
+        Span filho = tracer.spanBuilder("filho").setParent(Context.current().with(raiz)).startSpan();
+
+        assertThat(raiz.getSpanContext().isSampled()).isTrue();
+        assertThat(filho.getSpanContext().isSampled()).isTrue();
+        assertThat(meterRegistry.find("votacao.tracing.amostrado").tag("motivo", "cabeca").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void caudaMantemErroMasNaoRejeicaoPorSobrecarga() {
+        Span erro = tracer.spanBuilder("http post").startSpan();
+        erro.setAttribute("status", "500");
+        erro.end();
+        Span sobrecarga = tracer.spanBuilder("http post").startSpan();
+        sobrecarga.setAttribute("status", "503");
+        sobrecarga.end();
+
+        assertThat(exportados).hasSize(1);
+        assertThat(exportados.get(0).getSpanId()).isEqualTo(erro.getSpanContext().getSpanId());
+        assertThat(meterRegistry.find("votacao.tracing.amostrado").tag("motivo", "erro").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void caudaMantemRequisicaoLentaPeloLimiteDoEndpoint() {
+        Span lenta = tracer.spanBuilder("http get").startSpan();
+        lenta.setAttribute("method", "GET");
+        lenta.setAttribute("uri", "/api/v1/pautas/{id}/resultado");
+        lenta.setAttribute("status", "200");
+        lenta.end();
+        Span rapida = tracer.spanBuilder("http get").startSpan();
+        rapida.setAttribute("method", "GET");
+        rapida.setAttribute("uri", "/api/v1/pautas");
+        rapida.setAttribute("status", "200");
+        rapida.end();
+
+        assertThat(exportados).extracting(SpanData::getSpanId).containsExactly(lenta.getSpanContext().getSpanId());
+        assertThat(meterRegistry.find("votacao.tracing.amostrado").tag("motivo", "lento").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void somenteObservacoesDaListaCriamSpan() {
+        SpanSeletivoObservationHandler handler = new SpanSeletivoObservationHandler(
+                io.micrometer.tracing.Tracer.NOOP, Set.of("votacao.voto.registrar"));
+
+        assertThat(handler.criaSpan(contexto("votacao.voto.registrar"))).isTrue();
+        assertThat(handler.criaSpan(contexto("votacao.sessao.aberta"))).isFalse();
+        assertThat(handler.criaSpan(contexto("http.server.requests"))).isTrue();
+    }
+
+    private static Observation.Context contexto(String nome) {
+        Observation.Context context = new Observation.Context();
+        context.setName(nome);
+        return context;
+    }
+}
@@ -0,0 +1,32 @@
+package com.soya.votacao.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.mock.env.MockEnvironment;
+
+class CpfClientConfigTest {
+
+    @Test
+    void semThreadsVirtuaisUsaOPoolComum() {
+        Executor executor = CpfClientConfig.cpfExecutor(new MockEnvironment());
+
+        assertThat(executor).isSameAs(ForkJoinPool.commonPool());
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void comThreadsVirtuaisConsultaEmThreadVirtual() {
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        Executor executor = CpfClientConfig.cpfExecutor(environment);
+
+        String thread = CompletableFuture.supplyAsync(() -> Thread.currentThread().toString(), executor).join();
+
+        assertThat(thread).startsWith("VirtualThread").contains("cpf-");
+    }
+}
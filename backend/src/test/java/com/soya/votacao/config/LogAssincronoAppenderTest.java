@@ -0,0 +1,110 @@
+package com.soya.votacao.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LogAssincronoAppenderTest {
+    private final LoggerContext context = new LoggerContext();
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final List<String> escritos = new CopyOnWriteArrayList<>();
+    private LogAssincronoAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        context.stop();
+    }
+
+    @Test
+    void descartarInfoMantemErrosAteEncher() {
+        Logger logger = logger("descartar-info");
+
+        for (int i = 0; i < 40; i++) {
+            logger.info("info {}", i);
+        }
+        logger.error("erro");
+
+        assertThat(appender.getDescartados()).isGreaterThan(0);
+        liberar.countDown();
+        appender.stop();
+        assertThat(escritos).contains("erro");
+    }
+
+    @Test
+    void descartarSoDescartaComBufferCheio() {
+        Logger logger = logger("descartar");
+
+        for (int i = 0; i < 40; i++) {
+            logger.info("info {}", i);
+        }
+
+        // The blocked writer holds at most one drained buffer, so at least 20 are dropped.
+        assertThat(appender.getDescartados()).isGreaterThanOrEqualTo(20);
+        liberar.countDown();
+        appender.stop();
+        assertThat(escritos).hasSize(40 - (int) appender.getDescartados());
+    }
+
+    @Test
+    void bloquearNaoDescartaNada() throws Exception {
+        Logger logger = logger("bloquear");
+        Thread produtor = new Thread(() -> {
+            for (int i = 0; i < 40; i++) {
+                logger.info("info {}", i);
+            }
+        });
+        produtor.start();
+
+        produtor.join(200);
+        assertThat(produtor.isAlive()).isTrue();
+        liberar.countDown();
+        produtor.join();
+        appender.stop();
+        assertThat(appender.getDescartados()).isZero();
+        assertThat(escritos).hasSize(40);
+    }
+
+    private Logger logger(String descarte) {
+        AppenderBase<ILoggingEvent> lento = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                escritos.add(event.getFormattedMessage());
+            }
+        };
+        lento.setContext(context);
+        lento.start();
+        appender = new LogAssincronoAppender();
+        appender.setContext(context);
+        appender.setQueueSize(10);
+        appender.setDescarte(descarte);
+        appender.addAppender(lento);
+        appender.start();
+        Logger logger = context.getLogger("teste");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+}
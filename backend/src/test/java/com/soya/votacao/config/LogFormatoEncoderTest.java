@@ -0,0 +1,61 @@
+package com.soya.votacao.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LogFormatoEncoderTest {
+    private final LoggerContext context = new LoggerContext();
+
+    @BeforeEach
+    void setUp() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.stop();
+    }
+
+    @Test
+    void formatoPadraoEscreveJson() {
+        LogFormatoEncoder encoder = encoder(null);
+
+        String linha = new String(encoder.encode(evento()), StandardCharsets.UTF_8);
+
+        assertThat(encoder.getFormato()).isEqualTo(LogFormatoEncoder.Formato.JSON);
+        assertThat(linha).startsWith("{").contains("\"formattedMessage\":\"voto 42\"");
+    }
+
+    @Test
+    void formatoTextoUsaOPadrao() {
+        LogFormatoEncoder encoder = encoder("texto");
+
+        String linha = new String(encoder.encode(evento()), StandardCharsets.UTF_8);
+
+        assertThat(linha).isEqualTo("INFO - voto 42\n");
+    }
+
+    private LogFormatoEncoder encoder(String formato) {
+        LogFormatoEncoder encoder = new LogFormatoEncoder();
+        encoder.setContext(context);
+        if (formato != null) {
+            encoder.setFormato(formato);
+        }
+        encoder.setPattern("%level - %msg%n");
+        encoder.setCharset(StandardCharsets.UTF_8);
+        encoder.start();
+        return encoder;
+    }
+
+    private LoggingEvent evento() {
+        return new LoggingEvent("teste", context.getLogger("teste"), Level.INFO, "voto {}", null, new Object[] {42});
+    }
+}
@@ -0,0 +1,61 @@
+package com.soya.votacao.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class SequenciaIdConfigTest {
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:sequencia-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        for (String tabela : SequenciaIdConfig.SEQUENCIAS.keySet()) {
+            jdbcTemplate.execute("create table " + tabela + " (id bigint generated by default as identity primary key)");
+            jdbcTemplate.execute("create sequence " + SequenciaIdConfig.SEQUENCIAS.get(tabela) + " start with 1 increment by 50");
+        }
+    }
+
+    @Test
+    void avancaSequenciaAlemDosIdsDaEpocaIdentity() {
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.update("insert into votos default values");
+        }
+
+        SequenciaIdConfig.sincronizar(jdbcTemplate, 50);
+
+        Long proximo = jdbcTemplate.queryForObject("select next value for votos_seq", Long.class);
+        assertThat(proximo - 50 + 1).isGreaterThan(120);
+        assertThat(jdbcTemplate.queryForObject("select next value for pautas_seq", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void ajustaIncrementoQuandoAllocationSizeMuda() {
+        jdbcTemplate.queryForObject("select next value for votos_seq", Long.class);
+        jdbcTemplate.queryForObject("select next value for votos_seq", Long.class);
+        jdbcTemplate.update("insert into votos (id) values (51)");
+
+        SequenciaIdConfig.sincronizar(jdbcTemplate, 200);
+
+        Long primeiro = jdbcTemplate.queryForObject("select next value for votos_seq", Long.class);
+        Long segundo = jdbcTemplate.queryForObject("select next value for votos_seq", Long.class);
+        assertThat(primeiro - 200 + 1).isGreaterThan(51);
+        assertThat(segundo - primeiro).isEqualTo(200);
+    }
+
+    @Test
+    void naoMexeEmSequenciaJaAdiante() {
+        SequenciaIdConfig.sincronizar(jdbcTemplate, 50);
+        Long antes = jdbcTemplate.queryForObject("select base_value from information_schema.sequences "
+                + "where sequence_name = 'SESSOES_SEQ'", Long.class);
+
+        SequenciaIdConfig.sincronizar(jdbcTemplate, 50);
+
+        assertThat(jdbcTemplate.queryForObject("select base_value from information_schema.sequences "
+                + "where sequence_name = 'SESSOES_SEQ'", Long.class)).isEqualTo(antes);
+    }
+}
@@ -2,32 +2,63 @@ package com.soya.votacao.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.soya.votacao.config.AdmissaoProperties;
+import com.soya.votacao.dto.PautaPagina;
 import com.soya.votacao.dto.PautaResponse;
 import com.soya.votacao.dto.ResultadoResponse;
 import com.soya.votacao.dto.SessaoResponse;
+import com.soya.votacao.dto.VotoReciboResponse;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.exception.ServiceUnavailableException;
 import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.ResultadoFinal;
 import com.soya.votacao.model.Sessao;
+import com.soya.votacao.service.AdmissaoVotoService;
+import com.soya.votacao.service.IdempotenciaService;
 import com.soya.votacao.service.PautaQueryService;
 import com.soya.votacao.service.PautaService;
+import com.soya.votacao.service.ResultadoBroadcaster;
+import com.soya.votacao.service.ResultadoFinalService;
 import com.soya.votacao.service.SessaoQueryService;
 import com.soya.votacao.service.SessaoService;
+import com.soya.votacao.service.VersaoRegistry;
+import com.soya.votacao.service.VotoIngestaoService;
+import com.soya.votacao.service.VotoLoteService;
 import com.soya.votacao.service.VotoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @WebMvcTest(PautaController.class)
 class PautaControllerTest {
@@ -49,16 +80,86 @@ class PautaControllerTest {
     @MockBean
     private SessaoQueryService sessaoQueryService;
 
+    @MockBean
+    private VotoIngestaoService votoIngestaoService;
+
+    @MockBean
+    private VotoLoteService votoLoteService;
+
+    @MockBean
+    private ResultadoBroadcaster resultadoBroadcaster;
+
+    @MockBean
+    private ResultadoFinalService resultadoFinalService;
+
+    @MockBean
+    private VersaoRegistry versaoRegistry;
+
     @Test
     void listarRetornaPautas() throws Exception {
         PautaResponse response = new PautaResponse(1L, "Pauta", "Descricao", Instant.now(), null);
-        when(pautaQueryService.listar()).thenReturn(List.of(response));
+        when(pautaQueryService.listar(null, null)).thenReturn(new PautaPagina(List.of(response), null));
 
         mockMvc.perform(get("/api/v1/pautas"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PautaController.PROXIMO_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].id").value(1L));
     }
 
+    @Test
+    void listarDevolveProximoCursorNoHeader() throws Exception {
+        PautaResponse response = new PautaResponse(1L, "Pauta", "Descricao", Instant.now(), null);
+        when(pautaQueryService.listar("abc", 1)).thenReturn(new PautaPagina(List.of(response), "def"));
+
+        mockMvc.perform(get("/api/v1/pautas").param("cursor", "abc").param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PautaController.PROXIMO_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void listarComEtagAtualRetornaNaoModificadoSemConsultar() throws Exception {
+        when(versaoRegistry.etagListagem()).thenReturn("\"l1-7\"");
+        PautaResponse response = new PautaResponse(1L, "Pauta", "Descricao", Instant.now(), null);
+        when(pautaQueryService.listar(null, null)).thenReturn(new PautaPagina(List.of(response), null));
+
+        mockMvc.perform(get("/api/v1/pautas"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"l1-7\""))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+
+        mockMvc.perform(get("/api/v1/pautas").header("If-None-Match", "\"l1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(pautaQueryService, times(1)).listar(null, null);
+    }
+
+    @Test
+    void buscarComEtagAtualRetornaNaoModificadoSemConsultar() throws Exception {
+        when(versaoRegistry.etagPauta(1L)).thenReturn("\"p1-3\"");
+
+        mockMvc.perform(get("/api/v1/pautas/1").header("If-None-Match", "\"p1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"p1-3\""));
+
+        mockMvc.perform(get("/api/v1/pautas/1").header("If-None-Match", "\"p1-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(pautaQueryService, times(1)).buscar(1L);
+    }
+
+    @Test
+    void resultadoComEtagAtualRetornaNaoModificadoSemConsultar() throws Exception {
+        when(versaoRegistry.etagResultado(1L)).thenReturn("\"r1-5\"");
+
+        mockMvc.perform(get("/api/v1/pautas/1/resultado").header("If-None-Match", "\"r1-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"r1-5\""));
+
+        verifyNoInteractions(votoService);
+    }
+
     @Test
     void criarRetornaPautaCriada() throws Exception {
         Pauta pauta = new Pauta();
@@ -95,14 +196,138 @@ class PautaControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void votarRetornaAcceptedQuandoIngestaoAssincrona() throws Exception {
+        when(votoIngestaoService.isEnabled()).thenReturn(true);
+        when(votoIngestaoService.enfileirar(eq(1L), any()))
+                .thenReturn(new VotoReciboResponse("abc", 1L, "PENDENTE"));
+
+        mockMvc.perform(post("/api/v1/pautas/1/votos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"associadoId\":\"12345678901\",\"voto\":\"SIM\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.reciboId").value("abc"))
+                .andExpect(jsonPath("$.status").value("PENDENTE"));
+    }
+
+    @Test
+    void votarComMesmaIdempotencyKeyRepeteRespostaSemVotarDeNovo() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/pautas/1/votos")
+                            .header(IdempotenciaService.HEADER, "tentativa-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"associadoId\":\"12345678901\",\"voto\":\"SIM\"}"))
+                    .andExpect(status().isCreated());
+        }
+
+        verify(votoService, times(1)).votar(eq(1L), any());
+    }
+
+    @Test
+    void votarRejeitadoComIdempotencyKeyRepeteRejeicao() throws Exception {
+        doThrow(new ConflictException("Associado já votou nesta pauta")).when(votoService).votar(eq(1L), any());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/pautas/1/votos")
+                            .header(IdempotenciaService.HEADER, "tentativa-2")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"associadoId\":\"12345678901\",\"voto\":\"SIM\"}"))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.message").value("Associado já votou nesta pauta"));
+        }
+        mockMvc.perform(post("/api/v1/pautas/1/votos")
+                        .header(IdempotenciaService.HEADER, "tentativa-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"associadoId\":\"12345678901\",\"voto\":\"NAO\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(votoService, times(1)).votar(eq(1L), any());
+    }
+
+    @Test
+    void votarSobrecarregadoRetornaRetryAfter() throws Exception {
+        doThrow(new ServiceUnavailableException("Serviço de CPF indisponível", Duration.ofMillis(1500)))
+                .when(votoService).votar(eq(1L), any());
+
+        mockMvc.perform(post("/api/v1/pautas/1/votos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"associadoId\":\"12345678901\",\"voto\":\"SIM\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void votarLoteTransmiteResultadoPorLinha() throws Exception {
+        Pauta pauta = new Pauta();
+        Sessao sessao = new Sessao();
+        when(pautaService.buscarPorId(1L)).thenReturn(pauta);
+        when(sessaoService.buscarPorPauta(1L)).thenReturn(sessao);
+        doAnswer(invocation -> {
+            OutputStream saida = invocation.getArgument(3);
+            saida.write("{\"linha\":1,\"status\":\"ACEITO\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(votoLoteService).processar(eq(pauta), eq(sessao), any(), any());
+
+        MvcResult result = mockMvc.perform(post("/api/v1/pautas/1/votos/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"associadoId\":\"12345678901\",\"voto\":\"SIM\"}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"linha\":1,\"status\":\"ACEITO\"}\n"));
+    }
+
+    @Test
+    void reciboRetornaStatus() throws Exception {
+        when(votoIngestaoService.buscarRecibo(1L, "abc"))
+                .thenReturn(new VotoReciboResponse("abc", 1L, "PERSISTIDO"));
+
+        mockMvc.perform(get("/api/v1/pautas/1/votos/recibos/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PERSISTIDO"));
+    }
+
     @Test
     void resultadoRetornaResumo() throws Exception {
         ResultadoResponse response = new ResultadoResponse(1L, 2L, 1L, 1L, "ABERTA");
-        when(votoService.resultado(1L)).thenReturn(response);
+        when(votoService.resultadoEmAndamento(1L)).thenReturn(response);
 
         mockMvc.perform(get("/api/v1/pautas/1/resultado"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalVotos").value(2L));
+        verify(resultadoFinalService, times(1)).buscar(1L);
+    }
+
+    @Test
+    void resultadoFinalizadoUsaEtagForteECacheLongo() throws Exception {
+        ResultadoFinal resultadoFinal = new ResultadoFinal(1L, 3L, 1L, Instant.now(), Instant.now());
+        when(resultadoFinalService.buscar(1L)).thenReturn(Optional.of(resultadoFinal));
+        when(resultadoFinalService.etag(resultadoFinal)).thenReturn("\"final-1-3-1\"");
+        when(resultadoFinalService.getMaxAge()).thenReturn(Duration.ofDays(1));
+        when(resultadoFinalService.toResponse(resultadoFinal))
+                .thenReturn(new ResultadoResponse(1L, 4L, 3L, 1L, "ENCERRADA"));
+
+        mockMvc.perform(get("/api/v1/pautas/1/resultado"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"final-1-3-1\""))
+                .andExpect(header().string("Cache-Control", "max-age=86400, public, immutable"))
+                .andExpect(jsonPath("$.status").value("ENCERRADA"));
+
+        mockMvc.perform(get("/api/v1/pautas/1/resultado").header("If-None-Match", "\"final-1-3-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"final-1-3-1\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void resultadoStreamIniciaEventos() throws Exception {
+        when(resultadoBroadcaster.assinar(1L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/pautas/1/resultado/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
     }
 
     @Test
@@ -112,5 +337,17 @@ class PautaControllerTest {
         mockMvc.perform(delete("/api/v1/pautas/1"))
                 .andExpect(status().isNoContent());
     }
-}
 
+    @TestConfiguration
+    static class IdempotenciaConfig {
+        @Bean
+        IdempotenciaService idempotenciaService() {
+            return new IdempotenciaService(true, Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+        }
+
+        @Bean
+        AdmissaoVotoService admissaoVotoService() {
+            return new AdmissaoVotoService(new AdmissaoProperties(), new SimpleMeterRegistry());
+        }
+    }
+}
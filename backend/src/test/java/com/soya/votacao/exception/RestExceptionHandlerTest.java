@@ -26,6 +26,16 @@ class RestExceptionHandlerTest {
         assertThat(response.getMessage()).isEqualTo("Nao achou");
     }
 
+    @Test
+    void handleUnavailableBuildsResponse() {
+        HttpServletRequest request = mockRequest("/pautas/1/votos");
+        ErrorResponse response = handler.handleUnavailable(new ServiceUnavailableException("Fila cheia"), request).getBody();
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getMessage()).isEqualTo("Fila cheia");
+    }
+
     @Test
     void handleValidationBuildsMessage() {
         HttpServletRequest request = mockRequest("/pautas");
@@ -0,0 +1,135 @@
+package com.soya.votacao.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.soya.votacao.VotacaoApplication;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Voto;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.VotoRepository;
+import com.soya.votacao.service.AssociadoChaveService;
+import com.soya.votacao.service.PautaService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Stores the same votes in a file database with text and with compact associado keys and
+ * compares insert time, lookup time and the database size after {@code SHUTDOWN COMPACT}.
+ * H2 reports table size without indexes, so the index share is the file size minus the table.
+ * Settings are passed as arguments so they win over the test {@code application.yml}.
+ */
+class AssociadoChavePerformanceTest {
+    private static final Logger log = LoggerFactory.getLogger(AssociadoChavePerformanceTest.class);
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf", matches = "true")
+    void compareTextAndCompactKeys() throws Exception {
+        int votos = Integer.getInteger("perf.votos", 200_000);
+        int consultas = Integer.getInteger("perf.consultas", 20_000);
+
+        Resultado texto = executar("texto", false, votos, consultas);
+        Resultado compacta = executar("compacta", true, votos, consultas);
+
+        log.info("texto:    {}", texto);
+        log.info("compacta: {}", compacta);
+        assertThat(texto.encontrados).isEqualTo(consultas);
+        assertThat(compacta.encontrados).isEqualTo(consultas);
+    }
+
+    private Resultado executar(String modo, boolean compacta, int votos, int consultas) throws Exception {
+        String url = "jdbc:h2:file:" + diretorio.resolve(modo).toAbsolutePath();
+        Resultado resultado = new Resultado();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VotacaoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + url,
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--votacao.associado.chave-compacta=" + compacta,
+                        "--votacao.tally.enabled=false",
+                        "--votacao.filtro-duplicado.enabled=false",
+                        "--management.tracing.sampling.probability=0.0",
+                        "--logging.level.com.soya=WARN",
+                        "--logging.level.com.soya.votacao.perf=INFO")) {
+            CreatePautaRequest request = new CreatePautaRequest();
+            request.setTitulo("Pauta " + modo);
+            request.setDescricao("Chaves de associado");
+            Pauta pauta = context.getBean(PautaService.class).criar(request);
+            VotoRepository votoRepository = context.getBean(VotoRepository.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+            long inicio = System.nanoTime();
+            for (int lote = 0; lote < votos; lote += 1000) {
+                List<Voto> chunk = new ArrayList<>(1000);
+                for (int i = lote; i < Math.min(lote + 1000, votos); i++) {
+                    Voto voto = new Voto();
+                    voto.setPauta(pauta);
+                    voto.setAssociadoId(cpf(i));
+                    voto.setValor(i % 2 == 0 ? VotoValor.SIM : VotoValor.NAO);
+                    if (compacta) {
+                        voto.compactarAssociado();
+                    }
+                    chunk.add(voto);
+                }
+                transactionTemplate.executeWithoutResult(tx -> votoRepository.salvarEmLote(chunk));
+            }
+            resultado.insercaoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+            AssociadoChaveService associadoChaveService = context.getBean(AssociadoChaveService.class);
+            inicio = System.nanoTime();
+            for (int i = 0; i < consultas; i++) {
+                if (associadoChaveService.jaVotou(pauta.getId(), cpf(ThreadLocalRandom.current().nextInt(votos)))) {
+                    resultado.encontrados++;
+                }
+            }
+            resultado.consultaUs = (System.nanoTime() - inicio) / 1_000.0 / consultas;
+            resultado.tabelaBytes = context.getBean(JdbcTemplate.class)
+                    .queryForObject("select disk_space_used('VOTOS')", Long.class);
+        }
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("shutdown compact");
+        }
+        resultado.arquivoBytes = Files.size(diretorio.resolve(modo + ".mv.db"));
+        return resultado;
+    }
+
+    private static String cpf(int i) {
+        return String.format("%011d", 10_000_000_000L + i * 7919L);
+    }
+
+    private static final class Resultado {
+        private long insercaoMs;
+        private double consultaUs;
+        private int encontrados;
+        private long tabelaBytes;
+        private long arquivoBytes;
+
+        @Override
+        public String toString() {
+            return String.format("insercao=%dms consulta=%.1fus arquivo=%dKB tabela=%dKB indices~%dKB",
+                    insercaoMs, consultaUs, arquivoBytes / 1024, tabelaBytes / 1024,
+                    (arquivoBytes - tabelaBytes) / 1024);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.soya.votacao.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * HTTP load generator for the pauta API. Each request is one of {@link Operacao}, drawn by
+ * weight: create a pauta, open a session on a created pauta, vote on an open pauta or poll its
+ * resultado with {@code If-None-Match}. It runs either closed-model ({@code usuarios} users,
+ * each sending its next request once the previous one returns) or open-model (requests started
+ * at {@code taxa} per second on up to {@code usuarios} threads, whatever the server's pace).
+ * Open-model latencies count from the scheduled start, so a stalled server shows up as queueing
+ * instead of as fewer samples. Latencies go to one HdrHistogram per operation; the warm-up
+ * window is discarded. Every vote uses a new associado id, so a server with
+ * {@code votacao.admissao.enabled} never rate-limits the harness per associado.
+ */
+final class CargaHttp {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    enum Modelo {
+        FECHADO, ABERTO
+    }
+
+    enum Operacao {
+        CRIAR(201), SESSAO(201), VOTAR(201, 202, 404), RESULTADO(200, 304);
+
+        private final int[] esperados;
+
+        Operacao(int... esperados) {
+            this.esperados = esperados;
+        }
+
+        private boolean esperado(int status) {
+            for (int esperado : esperados) {
+                if (esperado == status) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Settings read from {@code perf.*} system properties.
+     */
+    static final class Configuracao {
+        final int usuarios = Integer.getInteger("perf.usuarios", 50);
+        final double taxa = Double.parseDouble(System.getProperty("perf.taxa", "200"));
+        final Duration duracao = duracao("perf.duracao", "30s");
+        final Duration aquecimento = duracao("perf.aquecimento", "5s");
+        final Duration pensar = duracao("perf.pensar", "0ms");
+        final Duration cpfLatencia = duracao("perf.cpf-latency", "20ms");
+        final Map<Operacao, Integer> mix = mix(System.getProperty("perf.mix", "criar=1,sessao=1,votar=88,resultado=10"));
+
+        private static Duration duracao(String propriedade, String padrao) {
+            return DurationStyle.detectAndParse(System.getProperty(propriedade, padrao));
+        }
+
+        private static Map<Operacao, Integer> mix(String texto) {
+            Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+            for (String item : texto.split(",")) {
+                String[] partes = item.trim().split("=");
+                pesos.put(Operacao.valueOf(partes[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(partes[1].trim()));
+            }
+            return pesos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "usuarios=%d taxa=%.0f/s duracao=%s aquecimento=%s pensar=%s cpf-latency=%s mix=%s",
+                    usuarios, taxa, duracao, aquecimento, pensar, cpfLatencia, mix);
+        }
+    }
+
+    private final URI base;
+    private final Configuracao configuracao;
+    private final HttpClient http;
+    private final Operacao[] sorteio;
+    private final Map<Operacao, Recorder> latencias = new EnumMap<>(Operacao.class);
+    private final Map<Operacao, Map<Integer, LongAdder>> status = new EnumMap<>(Operacao.class);
+    private final Queue<Long> semSessao = new ConcurrentLinkedQueue<>();
+    private final List<Long> abertas = new CopyOnWriteArrayList<>();
+    private final Map<Long, String> etags = new ConcurrentHashMap<>();
+    private final AtomicLong associados = new AtomicLong();
+    private volatile boolean parar;
+
+    /**
+     * @param base URI of the pautas collection, e.g. {@code http://localhost:8080/api/v1/pautas}
+     */
+    CargaHttp(URI base, Configuracao configuracao) {
+        this.base = base;
+        this.configuracao = configuracao;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.sorteio = configuracao.mix.entrySet().stream()
+                .flatMap(peso -> Stream.generate(peso::getKey).limit(peso.getValue()))
+                .toArray(Operacao[]::new);
+        for (Operacao operacao : Operacao.values()) {
+            latencias.put(operacao, new Recorder(3));
+            status.put(operacao, new ConcurrentHashMap<>());
+        }
+    }
+
+    Relatorio executar(Modelo modelo) throws Exception {
+        preparar();
+        ExecutorService usuarios = Executors.newFixedThreadPool(configuracao.usuarios);
+        Thread despachante = null;
+        if (modelo == Modelo.FECHADO) {
+            for (int i = 0; i < configuracao.usuarios; i++) {
+                usuarios.execute(this::usuario);
+            }
+        } else {
+            despachante = new Thread(() -> despachar(usuarios), "carga-despachante");
+            despachante.start();
+        }
+        try {
+            Thread.sleep(configuracao.aquecimento.toMillis());
+            coletar();
+            contarStatus();
+            long inicio = System.nanoTime();
+            Thread.sleep(configuracao.duracao.toMillis());
+            Relatorio relatorio = new Relatorio(modelo, System.nanoTime() - inicio);
+            parar = true;
+            if (despachante != null) {
+                despachante.join();
+            }
+            relatorio.naoIniciadas = usuarios.shutdownNow().size();
+            return relatorio;
+        } finally {
+            parar = true;
+            usuarios.shutdownNow();
+            usuarios.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Creates one pauta with an open session so votes and resultado polls have a target from
+     * the first request.
+     */
+    private void preparar() throws IOException, InterruptedException {
+        if (criar() != 201 || sessao(semSessao.poll()) != 201) {
+            throw new IllegalStateException("Não foi possível abrir a pauta inicial em " + base);
+        }
+    }
+
+    private void usuario() {
+        while (!parar && !Thread.currentThread().isInterrupted()) {
+            executar(System.nanoTime());
+            if (!configuracao.pensar.isZero()) {
+                LockSupport.parkNanos(configuracao.pensar.toNanos());
+            }
+        }
+    }
+
+    private void despachar(ExecutorService usuarios) {
+        long intervalo = (long) (1_000_000_000L / configuracao.taxa);
+        long proximo = System.nanoTime();
+        while (!parar) {
+            long espera = proximo - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+                continue;
+            }
+            long previsto = proximo;
+            usuarios.execute(() -> executar(previsto));
+            proximo += intervalo;
+        }
+    }
+
+    private void executar(long inicio) {
+        Operacao operacao = sorteio[ThreadLocalRandom.current().nextInt(sorteio.length)];
+        Long pendente = operacao == Operacao.SESSAO ? semSessao.poll() : null;
+        if (operacao == Operacao.SESSAO && pendente == null) {
+            operacao = Operacao.CRIAR;
+        }
+        int codigo;
+        try {
+            codigo = switch (operacao) {
+                case CRIAR -> criar();
+                case SESSAO -> sessao(pendente);
+                case VOTAR -> votar();
+                case RESULTADO -> resultado();
+            };
+        } catch (IOException ex) {
+            codigo = -1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        latencias.get(operacao).recordValue(System.nanoTime() - inicio);
+        status.get(operacao).computeIfAbsent(codigo, chave -> new LongAdder()).increment();
+    }
+
+    private int criar() throws IOException, InterruptedException {
+        String corpo = "{\"titulo\":\"Carga " + associados.incrementAndGet() + "\",\"descricao\":\"Teste de carga\"}";
+        HttpResponse<String> resposta = http.send(post(base, corpo), HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() == 201) {
+            semSessao.add(JSON.readTree(resposta.body()).get("id").asLong());
+        }
+        return resposta.statusCode();
+    }
+
+    private int sessao(Long pautaId) throws IOException, InterruptedException {
+        long minutos = configuracao.aquecimento.plus(configuracao.duracao).toMinutes() + 2;
+        HttpRequest request = post(base.resolve(base.getPath() + "/" + pautaId + "/sessoes"),
+                "{\"duracaoMinutos\":" + minutos + "}");
+        int codigo = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (codigo == 201) {
+            abertas.add(pautaId);
+        }
+        return codigo;
+    }
+
+    private int votar() throws IOException, InterruptedException {
+        String voto = ThreadLocalRandom.current().nextBoolean() ? "SIM" : "NAO";
+        String corpo = "{\"associadoId\":\"c" + associados.incrementAndGet() + "\",\"voto\":\"" + voto + "\"}";
+        HttpRequest request = post(base.resolve(base.getPath() + "/" + aberta() + "/votos"), corpo);
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int resultado() throws IOException, InterruptedException {
+        Long pautaId = aberta();
+        HttpRequest.Builder request = HttpRequest.newBuilder(base.resolve(base.getPath() + "/" + pautaId + "/resultado")).GET();
+        String etag = etags.get(pautaId);
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        HttpResponse<Void> resposta = http.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        resposta.headers().firstValue("ETag").ifPresent(valor -> etags.put(pautaId, valor));
+        return resposta.statusCode();
+    }
+
+    private Long aberta() {
+        return abertas.get(ThreadLocalRandom.current().nextInt(abertas.size()));
+    }
+
+    private static HttpRequest post(URI uri, String corpo) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+    }
+
+    private Map<Operacao, Histogram> coletar() {
+        Map<Operacao, Histogram> histogramas = new EnumMap<>(Operacao.class);
+        latencias.forEach((operacao, recorder) -> histogramas.put(operacao, recorder.getIntervalHistogram()));
+        return histogramas;
+    }
+
+    private Map<Operacao, Map<Integer, Long>> contarStatus() {
+        Map<Operacao, Map<Integer, Long>> contagem = new EnumMap<>(Operacao.class);
+        status.forEach((operacao, porCodigo) -> {
+            Map<Integer, Long> codigos = new TreeMap<>();
+            porCodigo.forEach((codigo, adder) -> codigos.put(codigo, adder.sumThenReset()));
+            contagem.put(operacao, codigos);
+        });
+        return contagem;
+    }
+
+    final class Relatorio {
+        private final Modelo modelo;
+        private final long janelaNanos;
+        private final Map<Operacao, Histogram> histogramas;
+        private final Map<Operacao, Map<Integer, Long>> codigos;
+        private int naoIniciadas;
+
+        private Relatorio(Modelo modelo, long janelaNanos) {
+            this.modelo = modelo;
+            this.janelaNanos = janelaNanos;
+            this.histogramas = coletar();
+            this.codigos = contarStatus();
+        }
+
+        long erros() {
+            long erros = 0;
+            for (Map.Entry<Operacao, Map<Integer, Long>> entrada : codigos.entrySet()) {
+                for (Map.Entry<Integer, Long> codigo : entrada.getValue().entrySet()) {
+                    if (!entrada.getKey().esperado(codigo.getKey())) {
+                        erros += codigo.getValue();
+                    }
+                }
+            }
+            return erros;
+        }
+
+        /**
+         * Writes the summary followed by each operation's percentile distribution (in ms) to a
+         * new file under {@code diretorio}.
+         */
+        Path escrever(Path diretorio) throws IOException {
+            Files.createDirectories(diretorio);
+            String nome = "carga-" + modelo.name().toLowerCase(Locale.ROOT) + "-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt";
+            Path arquivo = diretorio.resolve(nome);
+            try (PrintStream saida = new PrintStream(Files.newOutputStream(arquivo), true, StandardCharsets.UTF_8)) {
+                saida.println(this);
+                histogramas.forEach((operacao, histograma) -> {
+                    saida.println();
+                    saida.println("# " + operacao.name().toLowerCase(Locale.ROOT));
+                    histograma.outputPercentileDistribution(saida, 1_000_000.0);
+                });
+            }
+            return arquivo;
+        }
+
+        @Override
+        public String toString() {
+            Histogram total = new Histogram(3);
+            StringBuilder texto = new StringBuilder(String.format(Locale.ROOT, "modelo=%s %s janela=%.1fs nao-iniciadas=%d%n",
+                    modelo.name().toLowerCase(Locale.ROOT), configuracao, janelaNanos / 1e9, naoIniciadas));
+            histogramas.forEach((operacao, histograma) -> {
+                total.add(histograma);
+                texto.append(linha(operacao.name().toLowerCase(Locale.ROOT), histograma))
+                        .append(" status=").append(codigos.get(operacao)).append(System.lineSeparator());
+            });
+            texto.append(linha("total", total)).append(" erros=").append(erros());
+            return texto.toString();
+        }
+
+        private String linha(String nome, Histogram histograma) {
+            return String.format(Locale.ROOT, "%-9s n=%d req/s=%.1f p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                    nome, histograma.getTotalCount(), histograma.getTotalCount() / (janelaNanos / 1e9),
+                    histograma.getValueAtPercentile(50) / 1e6, histograma.getValueAtPercentile(99) / 1e6,
+                    histograma.getValueAtPercentile(99.9) / 1e6, histograma.getMaxValue() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.soya.votacao.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.soya.votacao.VotacaoApplication;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs {@link CargaHttp} against an embedded server whose CPF client is the fake one with
+ * {@code perf.cpf-latency}, or against {@code perf.url} when set. The report is written to
+ * {@code perf.saida} (target/carga).
+ */
+class CargaHttpLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(CargaHttpLoadTest.class);
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf", matches = "true")
+    void cargaFechada() throws Exception {
+        executar(CargaHttp.Modelo.FECHADO);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf", matches = "true")
+    void cargaAberta() throws Exception {
+        executar(CargaHttp.Modelo.ABERTO);
+    }
+
+    private void executar(CargaHttp.Modelo modelo) throws Exception {
+        CargaHttp.Configuracao configuracao = new CargaHttp.Configuracao();
+        String url = System.getProperty("perf.url");
+        if (url != null) {
+            medir(URI.create(url), configuracao, modelo);
+            return;
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VotacaoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:carga-" + modelo.name().toLowerCase(Locale.ROOT) + ";DB_CLOSE_DELAY=-1",
+                        "votacao.cpf.fake-latencia=" + configuracao.cpfLatencia.toMillis() + "ms",
+                        "votacao.cpf.cache.enabled=false",
+                        "votacao.cpf.max-concurrent=100000",
+                        "votacao.cpf.timeout=30s",
+                        "votacao.admissao.enabled=false",
+                        "management.tracing.sampling.probability=0.0",
+                        "logging.level.com.soya=WARN",
+                        "logging.level.com.soya.votacao.perf=INFO",
+                        "votacao.log.acesso.enabled=false")
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            medir(URI.create("http://localhost:" + port + "/api/v1/pautas"), configuracao, modelo);
+        }
+    }
+
+    private void medir(URI base, CargaHttp.Configuracao configuracao, CargaHttp.Modelo modelo) throws Exception {
+        CargaHttp.Relatorio relatorio = new CargaHttp(base, configuracao).executar(modelo);
+        Path arquivo = relatorio.escrever(Path.of(System.getProperty("perf.saida", "target/carga")));
+        log.info("{}\n{}", arquivo, relatorio);
+        assertThat(relatorio.erros()).isZero();
+    }
+}
@@ -0,0 +1,95 @@
+package com.soya.votacao.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.soya.votacao.VotacaoApplication;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Voto;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.VotoRepository;
+import com.soya.votacao.service.PautaService;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Insert throughput of {@code VotoRepository.salvarEmLote} in a file database:
+ * <ul>
+ *   <li>{@code por-linha}: allocation size 1 and no JDBC batching, one sequence call and one
+ *   insert statement per vote, close to what {@code IDENTITY} allowed;</li>
+ *   <li>{@code pooled}: one sequence call per 50 ids, still one statement per vote;</li>
+ *   <li>{@code pooled+lote}: pooled ids with inserts sent in JDBC batches of 50.</li>
+ * </ul>
+ * Settings are passed as arguments so they win over the test {@code application.yml}.
+ */
+class InsercaoLotePerformanceTest {
+    private static final Logger log = LoggerFactory.getLogger(InsercaoLotePerformanceTest.class);
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf", matches = "true")
+    void compareRowByRowAndBatchedInserts() {
+        int votos = Integer.getInteger("perf.votos", 100_000);
+
+        double porLinha = executar("por-linha", 1, 0, votos);
+        double pooled = executar("pooled", 50, 0, votos);
+        double lote = executar("pooled-lote", 50, 50, votos);
+
+        log.info("por-linha:   {} votos/s", String.format("%.0f", porLinha));
+        log.info("pooled:      {} votos/s", String.format("%.0f", pooled));
+        log.info("pooled+lote: {} votos/s ({}x por-linha)", String.format("%.0f", lote),
+                String.format("%.2f", lote / porLinha));
+        assertThat(lote).isGreaterThan(porLinha);
+    }
+
+    private double executar(String modo, int allocationSize, int batchSize, int votos) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VotacaoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:file:" + diretorio.resolve(modo).toAbsolutePath(),
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--votacao.id.allocation-size=" + allocationSize,
+                        "--votacao.tally.enabled=false",
+                        "--votacao.filtro-duplicado.enabled=false",
+                        "--management.tracing.sampling.probability=0.0",
+                        "--logging.level.com.soya=WARN",
+                        "--logging.level.com.soya.votacao.perf=INFO")) {
+            CreatePautaRequest request = new CreatePautaRequest();
+            request.setTitulo("Pauta " + modo);
+            request.setDescricao("Insercao em lote");
+            Pauta pauta = context.getBean(PautaService.class).criar(request);
+            VotoRepository votoRepository = context.getBean(VotoRepository.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+            long inicio = System.nanoTime();
+            for (int lote = 0; lote < votos; lote += 1000) {
+                List<Voto> chunk = new ArrayList<>(1000);
+                for (int i = lote; i < Math.min(lote + 1000, votos); i++) {
+                    Voto voto = new Voto();
+                    voto.setPauta(pauta);
+                    voto.setAssociadoId(String.format("%011d", i));
+                    voto.setValor(i % 2 == 0 ? VotoValor.SIM : VotoValor.NAO);
+                    chunk.add(voto);
+                }
+                transactionTemplate.executeWithoutResult(tx -> votoRepository.salvarEmLote(chunk));
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            assertThat(votoRepository.count()).isEqualTo(votos);
+            return votos / segundos;
+        }
+    }
+}
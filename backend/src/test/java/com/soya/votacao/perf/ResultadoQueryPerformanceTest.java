@@ -0,0 +1,109 @@
+package com.soya.votacao.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.VotoApuracao;
+import com.soya.votacao.repository.VotoRepository;
+import com.soya.votacao.service.PautaService;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Compares the two count queries previously used by resultado with the single
+ * aggregate query served by the (pauta_id, valor) index.
+ */
+@SpringBootTest
+@DirtiesContext
+class ResultadoQueryPerformanceTest {
+    private static final Logger log = LoggerFactory.getLogger(ResultadoQueryPerformanceTest.class);
+    private static final int CHUNK = 10_000;
+
+    @Autowired
+    private PautaService pautaService;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf", matches = "true")
+    void compareCountQueries() {
+        int totalVotes = Integer.getInteger("perf.votes", 1_000_000);
+        int iterations = Integer.getInteger("perf.iterations", 20);
+        Long pautaId = criarPauta().getId();
+        inserirVotos(pautaId, totalVotes);
+
+        long legacy = medir("two count queries", iterations, () ->
+                votoRepository.countByPautaIdAndValor(pautaId, VotoValor.SIM)
+                        + votoRepository.countByPautaIdAndValor(pautaId, VotoValor.NAO));
+        long aggregate = medir("single aggregate query", iterations, () -> {
+            VotoApuracao apuracao = votoRepository.apurarPorPauta(pautaId);
+            return apuracao.getTotal();
+        });
+
+        log.info("resultado over {} votes: legacy {} us/op, aggregate {} us/op", totalVotes, legacy, aggregate);
+        assertThat(votoRepository.apurarPorPauta(pautaId).getTotal()).isEqualTo(totalVotes);
+    }
+
+    private long medir(String nome, int iterations, LongSupplier consulta) {
+        for (int i = 0; i < 3; i++) {
+            consulta.getAsLong();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            consulta.getAsLong();
+        }
+        long micros = (System.nanoTime() - start) / 1_000 / iterations;
+        log.info("{}: {} us/op over {} iterations", nome, micros, iterations);
+        return micros;
+    }
+
+    private void inserirVotos(Long pautaId, int totalVotes) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        for (int offset = 0; offset < totalVotes; offset += CHUNK) {
+            int base = offset;
+            int size = Math.min(CHUNK, totalVotes - offset);
+            jdbcTemplate.batchUpdate(
+                    "insert into votos (id, pauta_id, associado_id, valor, created_at) values (next value for votos_seq, ?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            int n = base + i;
+                            ps.setLong(1, pautaId);
+                            ps.setString(2, "cpf-" + n);
+                            ps.setString(3, (n % 3 == 0 ? VotoValor.NAO : VotoValor.SIM).name());
+                            ps.setObject(4, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    });
+        }
+    }
+
+    private Pauta criarPauta() {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo("Pauta Benchmark");
+        request.setDescricao("Resultado benchmark");
+        return pautaService.criar(request);
+    }
+}
@@ -0,0 +1,163 @@
+package com.soya.votacao.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.soya.votacao.VotacaoApplication;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.service.PautaService;
+import com.soya.votacao.service.SessaoService;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Closed-model load test of POST /votos against a slow CPF client, once on Tomcat's platform
+ * thread pool and once with virtual threads. The virtual run only differs on Java 21+
+ * (build with -Pjava21); on older runtimes both runs use platform threads.
+ */
+class VirtualThreadLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf", matches = "true")
+    void comparePlatformAndVirtualThreads() throws Exception {
+        int concurrency = Integer.getInteger("perf.concurrency", 400);
+        int requestsPerClient = Integer.getInteger("perf.requests", 25);
+        String latency = System.getProperty("perf.cpf-latency", "100ms");
+
+        Resultado platform = executar("platform", false, latency, concurrency, requestsPerClient);
+        Resultado virtual = executar("virtual", true, latency, concurrency, requestsPerClient);
+
+        log.info("platform: {}", platform);
+        log.info("virtual:  {}", virtual);
+        assertThat(platform.erros).isZero();
+        assertThat(virtual.erros).isZero();
+    }
+
+    private Resultado executar(String modo, boolean virtual, String latency, int concurrency, int requestsPerClient)
+            throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VotacaoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + modo + ";DB_CLOSE_DELAY=-1",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "votacao.cpf.fake-latencia=" + latency,
+                        "votacao.cpf.cache.enabled=false",
+                        "votacao.cpf.max-concurrent=100000",
+                        "votacao.cpf.timeout=30s",
+                        "votacao.admissao.enabled=false",
+                        "management.tracing.sampling.probability=0.0",
+                        "logging.level.com.soya=WARN",
+                        "logging.level.com.soya.votacao.perf=INFO",
+                        "votacao.log.acesso.enabled=false")
+                .run()) {
+            boolean ativo = Threading.VIRTUAL.isActive(context.getEnvironment());
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            Long pautaId = abrirPauta(context);
+            URI uri = URI.create("http://localhost:" + port + "/api/v1/pautas/" + pautaId + "/votos");
+            Resultado resultado = carga(uri, modo, concurrency, requestsPerClient);
+            resultado.virtualAtivo = ativo;
+            return resultado;
+        }
+    }
+
+    private Resultado carga(URI uri, String modo, int concurrency, int requestsPerClient) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        AtomicInteger sequencia = new AtomicInteger();
+        AtomicInteger erros = new AtomicInteger();
+        ExecutorService clientes = Executors.newFixedThreadPool(concurrency);
+        long inicio = System.nanoTime();
+        try {
+            List<Future<long[]>> futuros = new ArrayList<>(concurrency);
+            for (int c = 0; c < concurrency; c++) {
+                futuros.add(clientes.submit(() -> {
+                    long[] latencias = new long[requestsPerClient];
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        String corpo = "{\"associadoId\":\"" + modo + "-" + sequencia.incrementAndGet() + "\",\"voto\":\"SIM\"}";
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                                .build();
+                        long t0 = System.nanoTime();
+                        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        latencias[i] = System.nanoTime() - t0;
+                        if (status != 201 && status != 404) {
+                            erros.incrementAndGet();
+                        }
+                    }
+                    return latencias;
+                }));
+            }
+            long[] todas = new long[concurrency * requestsPerClient];
+            int pos = 0;
+            for (Future<long[]> futuro : futuros) {
+                long[] latencias = futuro.get();
+                System.arraycopy(latencias, 0, todas, pos, latencias.length);
+                pos += latencias.length;
+            }
+            long duracao = System.nanoTime() - inicio;
+            Arrays.sort(todas);
+            return new Resultado(todas, duracao, erros.get());
+        } finally {
+            clientes.shutdownNow();
+        }
+    }
+
+    private Long abrirPauta(ConfigurableApplicationContext context) {
+        CreatePautaRequest pauta = new CreatePautaRequest();
+        pauta.setTitulo("Pauta Carga");
+        pauta.setDescricao("Virtual threads");
+        Pauta saved = context.getBean(PautaService.class).criar(pauta);
+        OpenSessaoRequest sessao = new OpenSessaoRequest();
+        sessao.setDuracaoMinutos(60);
+        context.getBean(SessaoService.class).abrirSessao(saved.getId(), sessao);
+        return saved.getId();
+    }
+
+    private static final class Resultado {
+        private final long[] latencias;
+        private final long duracaoNanos;
+        private final int erros;
+        private boolean virtualAtivo;
+
+        private Resultado(long[] latencias, long duracaoNanos, int erros) {
+            this.latencias = latencias;
+            this.duracaoNanos = duracaoNanos;
+            this.erros = erros;
+        }
+
+        private double percentil(double p) {
+            int indice = (int) Math.ceil(p * latencias.length) - 1;
+            return latencias[Math.max(0, indice)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            double throughput = latencias.length / (duracaoNanos / 1_000_000_000.0);
+            return String.format("virtual=%s requests=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms errors=%d",
+                    virtualAtivo, latencias.length, throughput, percentil(0.50), percentil(0.99), erros);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.soya.votacao.config.AdmissaoProperties;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.exception.ServiceUnavailableException;
+import com.soya.votacao.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdmissaoVotoServiceTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissaoProperties properties = new AdmissaoProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+    }
+
+    @Test
+    void associadoAlemDaRajadaRecebe429ComRetryAfter() {
+        properties.setAssociadoPorSegundo(1);
+        properties.setAssociadoRajada(2);
+        AdmissaoVotoService service = novo();
+
+        service.executar("a", () -> "ok");
+        service.executar("a", () -> "ok");
+
+        assertThatThrownBy(() -> service.executar("a", () -> "ok"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(ex -> assertThat(((TooManyRequestsException) ex).getRetryAfter())
+                        .isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1)));
+        assertThat(service.executar("b", () -> "ok")).isEqualTo("ok");
+        assertThat(rejeitados("associado")).isEqualTo(1.0);
+    }
+
+    @Test
+    void taxaGlobalEsgotadaRecebe503() {
+        properties.setGlobalPorSegundo(1);
+        properties.setGlobalRajada(2);
+        AdmissaoVotoService service = novo();
+
+        service.executar("a", () -> "ok");
+        service.executar("b", () -> "ok");
+
+        assertThatThrownBy(() -> service.executar("c", () -> "ok"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .satisfies(ex -> assertThat(((ServiceUnavailableException) ex).getRetryAfter()).isPositive());
+        assertThat(rejeitados("global")).isEqualTo(1.0);
+    }
+
+    @Test
+    void votosAlemDoLimiteSaoDescartados() throws Exception {
+        properties.setLimiteInicial(1);
+        properties.setLimiteMinimo(1);
+        AdmissaoVotoService service = novo();
+        CountDownLatch executando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<String> primeiro = CompletableFuture.supplyAsync(() -> service.executar("a", () -> {
+            executando.countDown();
+            aguardar(liberar);
+            return "ok";
+        }));
+        assertThat(executando.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(meterRegistry.find("votacao.admissao.em_andamento").gauge().value()).isEqualTo(1.0);
+        assertThatThrownBy(() -> service.executar("b", () -> "ok"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .satisfies(ex -> assertThat(((ServiceUnavailableException) ex).getRetryAfter()).isEqualTo(Duration.ofSeconds(1)));
+        liberar.countDown();
+
+        assertThat(primeiro.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(rejeitados("limite")).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.admissao.em_andamento").gauge().value()).isZero();
+    }
+
+    @Test
+    void limiteReduzComLentidaoESobrecargaECresceComVotosRapidos() {
+        properties.setLimiteInicial(100);
+        properties.setLimiteMinimo(10);
+        properties.setLatenciaAlvo(Duration.ZERO);
+        AdmissaoVotoService service = novo();
+
+        service.executar("a", () -> "ok");
+        assertThat(service.getLimite()).isEqualTo(90);
+        assertThatThrownBy(() -> service.executar("b", () -> {
+            throw new ServiceUnavailableException("Serviço de CPF indisponível");
+        })).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(service.getLimite()).isEqualTo(81);
+        for (int i = 0; i < 50; i++) {
+            service.executar("c" + i, () -> "ok");
+        }
+        assertThat(service.getLimite()).isEqualTo(10);
+        assertThat(meterRegistry.find("votacao.admissao.limite").gauge().value()).isEqualTo(10.0);
+
+        properties.setLimiteInicial(1);
+        properties.setLimiteMinimo(1);
+        properties.setLatenciaAlvo(Duration.ofMinutes(1));
+        AdmissaoVotoService rapido = novo();
+        rapido.executar("d", () -> "ok");
+        assertThat(rapido.getLimite()).isEqualTo(2);
+        for (int i = 0; i < 10; i++) {
+            rapido.executar("e" + i, () -> "ok");
+        }
+        // One vote at a time never uses half of a limit above 2, so it stops growing.
+        assertThat(rapido.getLimite()).isEqualTo(2);
+    }
+
+    @Test
+    void rejeicaoDeNegocioNaoReduzLimite() {
+        properties.setLimiteInicial(50);
+        AdmissaoVotoService service = novo();
+
+        assertThatThrownBy(() -> service.executar("a", () -> {
+            throw new ConflictException("Associado já votou nesta pauta");
+        })).isInstanceOf(ConflictException.class);
+
+        assertThat(service.getLimite()).isEqualTo(50);
+    }
+
+    @Test
+    void desabilitadoNaoLimita() {
+        properties.setEnabled(false);
+        properties.setAssociadoRajada(1);
+        AdmissaoVotoService service = novo();
+
+        for (int i = 0; i < 5; i++) {
+            service.executar("a", () -> "ok");
+        }
+        assertThat(rejeitados("associado")).isZero();
+    }
+
+    private AdmissaoVotoService novo() {
+        return new AdmissaoVotoService(properties, meterRegistry);
+    }
+
+    private double rejeitados(String motivo) {
+        return meterRegistry.find("votacao.admissao.rejeitado").tag("motivo", motivo).counter().count();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class AssociadoBloomFilterTest {
+    @Test
+    void naoTemFalsoNegativoEMantemTaxaDeFalsoPositivo() {
+        AssociadoBloomFilter filtro = new AssociadoBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.put(String.format("%011d", i));
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filtro.mightContain(String.format("%011d", i))).isTrue();
+            if (filtro.mightContain(String.format("%011d", 50_000_000 + i))) {
+                falsosPositivos++;
+            }
+        }
+
+        assertThat(falsosPositivos).isLessThan(300);
+        assertThat(filtro.falsoPositivoEstimado()).isBetween(0.001, 0.03);
+        assertThat(filtro.bytes()).isBetween(10_000L, 20_000L);
+    }
+
+    @Test
+    void filtroVazioNaoContemNada() {
+        AssociadoBloomFilter filtro = new AssociadoBloomFilter(0, 0.01);
+
+        assertThat(filtro.mightContain("12345678901")).isFalse();
+        assertThat(filtro.falsoPositivoEstimado()).isZero();
+    }
+}
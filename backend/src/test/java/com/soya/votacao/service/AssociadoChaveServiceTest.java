@@ -0,0 +1,192 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.soya.votacao.client.CpfClient;
+import com.soya.votacao.client.CpfClientResult;
+import com.soya.votacao.client.CpfStatus;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.model.AssociadoChave;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Voto;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.VotoRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(properties = "votacao.associado.chave-compacta=true")
+@DirtiesContext
+class AssociadoChaveServiceTest {
+    @Autowired
+    private PautaService pautaService;
+
+    @Autowired
+    private SessaoService sessaoService;
+
+    @Autowired
+    private VotoService votoService;
+
+    @Autowired
+    private VotoLoteService votoLoteService;
+
+    @Autowired
+    private AssociadoChaveService associadoChaveService;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void codificaSomenteOnzeDigitos() {
+        assertThat(AssociadoChave.codificar("01234567890")).isEqualTo(1234567890L);
+        assertThat(AssociadoChave.codificar("00000000000")).isZero();
+        assertThat(AssociadoChave.decodificar(1234567890L)).isEqualTo("01234567890");
+        assertThat(AssociadoChave.decodificar(AssociadoChave.codificar("99999999999"))).isEqualTo("99999999999");
+        assertThat(AssociadoChave.codificar("1234567890")).isNull();
+        assertThat(AssociadoChave.codificar("123456789012")).isNull();
+        assertThat(AssociadoChave.codificar("012.345.678-90")).isNull();
+        assertThat(AssociadoChave.codificar("1234567890a")).isNull();
+        assertThat(AssociadoChave.codificar(null)).isNull();
+    }
+
+    @Test
+    void cpfNumericoGravadoComoChaveEOutrosIdsComoTexto() {
+        Pauta pauta = criarPautaComSessao();
+
+        Voto numerico = votoService.votar(pauta.getId(), voto("01234567890", VotoValor.SIM));
+        votoService.votar(pauta.getId(), voto("012.345.678-90", VotoValor.NAO));
+
+        assertThat(numerico.getAssociadoNum()).isEqualTo(1234567890L);
+        assertThat(numerico.getAssociadoId()).isEqualTo("01234567890");
+        List<Map<String, Object>> linhas = jdbcTemplate.queryForList(
+                "select associado_id, associado_num from votos where pauta_id = ? order by id", pauta.getId());
+        assertThat(linhas.get(0).get("ASSOCIADO_ID")).isNull();
+        assertThat(linhas.get(0).get("ASSOCIADO_NUM")).isEqualTo(1234567890L);
+        assertThat(linhas.get(1).get("ASSOCIADO_ID")).isEqualTo("012.345.678-90");
+        assertThat(linhas.get(1).get("ASSOCIADO_NUM")).isNull();
+        assertThat(votoRepository.findAssociadoIdsByPautaId(pauta.getId()))
+                .containsExactlyInAnyOrder("01234567890", "012.345.678-90");
+
+        assertThatThrownBy(() -> votoService.votar(pauta.getId(), voto("01234567890", VotoValor.NAO)))
+                .isInstanceOf(ConflictException.class);
+        assertThat(associadoChaveService.jaVotou(pauta.getId(), "01234567890")).isTrue();
+        assertThat(associadoChaveService.jaVotou(pauta.getId(), "012.345.678-90")).isTrue();
+        assertThat(associadoChaveService.jaVotou(pauta.getId(), "11111111111")).isFalse();
+    }
+
+    @Test
+    void loteRejeitaJaVotaramNasDuasColunas() throws IOException {
+        Pauta pauta = criarPautaComSessao();
+        votoService.votar(pauta.getId(), voto("11111111111", VotoValor.SIM));
+        votoService.votar(pauta.getId(), voto("associado-a", VotoValor.SIM));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        votoLoteService.processar(pauta, sessaoService.buscarPorPauta(pauta.getId()), new ByteArrayInputStream(String.join("\n",
+                "{\"associadoId\":\"11111111111\",\"voto\":\"NAO\"}",
+                "{\"associadoId\":\"associado-a\",\"voto\":\"NAO\"}",
+                "{\"associadoId\":\"22222222222\",\"voto\":\"NAO\"}").getBytes(StandardCharsets.UTF_8)), saida);
+
+        assertThat(saida.toString(StandardCharsets.UTF_8).lines())
+                .filteredOn(linha -> linha.contains("Associado já votou nesta pauta")).hasSize(2);
+        assertThat(associadoChaveService.jaVotaram(pauta.getId(), List.of("11111111111", "associado-a", "22222222222", "33333333333")))
+                .containsExactlyInAnyOrder("11111111111", "associado-a", "22222222222");
+        assertThat(votoService.resultado(pauta.getId()).getTotalVotos()).isEqualTo(3);
+    }
+
+    @Test
+    void migracaoMoveVotosEntreAsColunas() {
+        Pauta pauta = criarPautaComSessao();
+        for (String associadoId : List.of("00000000001", "33333333333", "cpf-invalido")) {
+            jdbcTemplate.update("insert into votos (id, pauta_id, associado_id, valor, created_at) "
+                            + "values (next value for votos_seq, ?, ?, 'SIM', ?)",
+                    pauta.getId(), associadoId, Instant.now());
+        }
+        jdbcTemplate.update("update associado_chave_modo set compacta = false");
+
+        associadoChaveService.migrar();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from votos where pauta_id = ? and associado_num is not null", Long.class, pauta.getId()))
+                .isEqualTo(2);
+        assertThat(associadoChaveService.jaVotou(pauta.getId(), "00000000001")).isTrue();
+
+        new AssociadoChaveService(votoRepository, jdbcTemplate, false, 1).migrar();
+
+        assertThat(jdbcTemplate.queryForList(
+                "select associado_id from votos where pauta_id = ? and associado_num is null", String.class, pauta.getId()))
+                .containsExactlyInAnyOrder("00000000001", "33333333333", "cpf-invalido");
+
+        associadoChaveService.migrar();
+
+        assertThat(votoRepository.findAssociadoIdsByPautaId(pauta.getId()))
+                .containsExactlyInAnyOrder("00000000001", "33333333333", "cpf-invalido");
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from votos where associado_id is not null and regexp_like(associado_id, '^[0-9]{11}$')",
+                Long.class)).isZero();
+    }
+
+    @Test
+    void migracaoNaoPercorreVotosQuandoOModoNaoMudou() {
+        Pauta pauta = criarPautaComSessao();
+        jdbcTemplate.update("insert into votos (id, pauta_id, associado_id, valor, created_at) "
+                        + "values (next value for votos_seq, ?, '44444444444', 'SIM', ?)",
+                pauta.getId(), Instant.now());
+        try {
+            associadoChaveService.migrar();
+
+            assertThat(jdbcTemplate.queryForObject(
+                    "select count(*) from votos where pauta_id = ? and associado_num is null", Long.class, pauta.getId()))
+                    .isEqualTo(1);
+            assertThat(jdbcTemplate.queryForObject("select is_nullable from information_schema.columns "
+                    + "where table_name = 'VOTOS' and column_name = 'ASSOCIADO_ID'", String.class)).isEqualTo("YES");
+        } finally {
+            jdbcTemplate.update("delete from votos where pauta_id = ?", pauta.getId());
+        }
+    }
+
+    private VotoRequest voto(String associadoId, VotoValor valor) {
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId(associadoId);
+        request.setVoto(valor);
+        return request;
+    }
+
+    private Pauta criarPautaComSessao() {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo("Pauta chave compacta");
+        request.setDescricao("Descrição");
+        Pauta pauta = pautaService.criar(request);
+        OpenSessaoRequest sessao = new OpenSessaoRequest();
+        sessao.setDuracaoMinutos(5);
+        sessaoService.abrirSessao(pauta.getId(), sessao);
+        return pauta;
+    }
+
+    @TestConfiguration
+    static class FixedCpfClientConfig {
+        @Bean
+        @Primary
+        CpfClient cpfClient() {
+            return cpf -> new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+        }
+    }
+}
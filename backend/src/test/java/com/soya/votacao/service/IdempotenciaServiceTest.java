@@ -0,0 +1,166 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.soya.votacao.exception.BadRequestException;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class IdempotenciaServiceTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotenciaService service = new IdempotenciaService(true, Duration.ofMinutes(1), 100, meterRegistry);
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    @Test
+    void repeticaoDevolveRespostaOriginalSemExecutar() {
+        ResponseEntity<String> primeira = service.executar(1L, "k1", "a:SIM", this::criado);
+        ResponseEntity<String> repetida = service.executar(1L, "k1", "a:SIM", this::criado);
+
+        assertThat(execucoes).hasValue(1);
+        assertThat(primeira.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(primeira.getHeaders().containsKey(IdempotenciaService.REPETIDA_HEADER)).isFalse();
+        assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(repetida.getBody()).isEqualTo("voto-1");
+        assertThat(repetida.getHeaders().getFirst(IdempotenciaService.REPETIDA_HEADER)).isEqualTo("true");
+        assertThat(contador("nova")).isEqualTo(1.0);
+        assertThat(contador("repetida")).isEqualTo(1.0);
+    }
+
+    @Test
+    void chaveEscopadaPorPautaESemChaveSempreExecuta() {
+        service.executar(1L, "k1", "a:SIM", this::criado);
+        service.executar(2L, "k1", "a:SIM", this::criado);
+        service.executar(1L, null, "a:SIM", this::criado);
+        service.executar(1L, null, "a:SIM", this::criado);
+
+        assertThat(execucoes).hasValue(4);
+    }
+
+    @Test
+    void rejeicaoDeNegocioEhRepetida() {
+        assertThatThrownBy(() -> service.executar(1L, "k1", "a:SIM", () -> {
+            execucoes.incrementAndGet();
+            throw new ConflictException("Associado já votou nesta pauta");
+        })).isInstanceOf(ConflictException.class);
+
+        assertThatThrownBy(() -> service.executar(1L, "k1", "a:SIM", this::criado))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Associado já votou nesta pauta");
+        assertThat(execucoes).hasValue(1);
+    }
+
+    @Test
+    void falhaTransitoriaNaoEhGuardada() {
+        assertThatThrownBy(() -> service.executar(1L, "k1", "a:SIM", () -> {
+            throw new ServiceUnavailableException("Fila de votos cheia, tente novamente");
+        })).isInstanceOf(ServiceUnavailableException.class);
+
+        assertThat(service.executar(1L, "k1", "a:SIM", this::criado).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(execucoes).hasValue(1);
+    }
+
+    @Test
+    void votoEmProcessamentoNaoEhGuardado() {
+        assertThatThrownBy(() -> service.executar(1L, "k1", "a:SIM", () -> {
+            throw new ConflictException("Voto do associado já está em processamento", true);
+        })).isInstanceOf(ConflictException.class);
+
+        assertThat(service.executar(1L, "k1", "a:SIM", this::criado).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(execucoes).hasValue(1);
+    }
+
+    @Test
+    void erroNaPrimeiraExecucaoLiberaQuemAguarda() throws Exception {
+        CountDownLatch executando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> primeira = CompletableFuture.supplyAsync(
+                () -> service.executar(1L, "k1", "a:SIM", () -> {
+                    executando.countDown();
+                    await(liberar);
+                    throw new StackOverflowError();
+                }));
+        assertThat(executando.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<String>> repetida = CompletableFuture.supplyAsync(
+                () -> service.executar(1L, "k1", "a:SIM", this::criado));
+        Thread.sleep(50);
+        liberar.countDown();
+
+        assertThatThrownBy(() -> repetida.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(() -> primeira.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        assertThat(service.executar(1L, "k1", "a:SIM", this::criado).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void chaveReusadaComOutroVotoOuInvalidaEhRejeitada() {
+        service.executar(1L, "k1", "a:SIM", this::criado);
+
+        assertThatThrownBy(() -> service.executar(1L, "k1", "a:NAO", this::criado))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Idempotency-Key já usada com outro voto");
+        assertThatThrownBy(() -> service.executar(1L, " ", "a:SIM", this::criado))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.executar(1L, "k".repeat(256), "a:SIM", this::criado))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(contador("divergente")).isEqualTo(1.0);
+        assertThat(execucoes).hasValue(1);
+    }
+
+    @Test
+    void repeticaoSimultaneaAguardaAPrimeira() throws Exception {
+        CountDownLatch executando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> primeira = CompletableFuture.supplyAsync(
+                () -> service.executar(1L, "k1", "a:SIM", () -> {
+                    executando.countDown();
+                    await(liberar);
+                    return criado();
+                }));
+        assertThat(executando.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<ResponseEntity<String>> repetida = CompletableFuture.supplyAsync(
+                () -> service.executar(1L, "k1", "a:SIM", this::criado));
+        Thread.sleep(50);
+        assertThat(repetida).isNotDone();
+        liberar.countDown();
+
+        assertThat(repetida.get(5, TimeUnit.SECONDS).getBody()).isEqualTo(primeira.get(5, TimeUnit.SECONDS).getBody());
+        assertThat(execucoes).hasValue(1);
+    }
+
+    @Test
+    void desabilitadoSempreExecuta() {
+        IdempotenciaService desabilitado = new IdempotenciaService(false, Duration.ofMinutes(1), 100, meterRegistry);
+
+        desabilitado.executar(1L, "k1", "a:SIM", this::criado);
+        desabilitado.executar(1L, "k1", "a:SIM", this::criado);
+
+        assertThat(execucoes).hasValue(2);
+    }
+
+    private ResponseEntity<String> criado() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("voto-" + execucoes.incrementAndGet());
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.find("votacao.idempotencia.requisicoes").tag("resultado", resultado).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
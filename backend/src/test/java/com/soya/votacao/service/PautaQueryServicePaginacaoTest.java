@@ -0,0 +1,78 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.dto.PautaPagina;
+import com.soya.votacao.dto.PautaResponse;
+import com.soya.votacao.model.Pauta;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DirtiesContext
+class PautaQueryServicePaginacaoTest {
+    @Autowired
+    private PautaService pautaService;
+
+    @Autowired
+    private SessaoService sessaoService;
+
+    @Autowired
+    private PautaQueryService pautaQueryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void percorrePaginasComUmaConsultaPorPagina() {
+        List<Long> criadas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Pauta pauta = criarPauta("Pauta " + i);
+            if (i % 2 == 0) {
+                abrirSessao(pauta.getId());
+            }
+            criadas.add(0, pauta.getId());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<PautaResponse> todas = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            statistics.clear();
+            PautaPagina pagina = pautaQueryService.listar(cursor, 2);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(pagina.getItens()).hasSizeLessThanOrEqualTo(2);
+            todas.addAll(pagina.getItens());
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(paginas).isEqualTo(3);
+        assertThat(todas).extracting(PautaResponse::getId).containsExactlyElementsOf(criadas);
+        assertThat(todas).extracting(response -> response.getSessao() != null)
+                .containsExactly(true, false, true, false, true);
+    }
+
+    private Pauta criarPauta(String titulo) {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo(titulo);
+        request.setDescricao("Paginação");
+        return pautaService.criar(request);
+    }
+
+    private void abrirSessao(Long pautaId) {
+        OpenSessaoRequest request = new OpenSessaoRequest();
+        request.setDuracaoMinutos(10);
+        sessaoService.abrirSessao(pautaId, request);
+    }
+}
@@ -1,18 +1,24 @@
 package com.soya.votacao.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.soya.votacao.dto.PautaPagina;
 import com.soya.votacao.dto.PautaResponse;
+import com.soya.votacao.exception.BadRequestException;
 import com.soya.votacao.model.Pauta;
 import com.soya.votacao.model.Sessao;
+import com.soya.votacao.repository.PautaSessao;
 import com.soya.votacao.repository.SessaoRepository;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -27,13 +33,16 @@ class PautaQueryServiceTest {
     @Mock
     private SessaoService sessaoService;
 
-    @InjectMocks
     private PautaQueryService pautaQueryService;
 
+    @BeforeEach
+    void setUp() {
+        pautaQueryService = new PautaQueryService(pautaService, sessaoRepository, sessaoService, 2, 3);
+    }
+
     @Test
     void listarMapeiaSessaoQuandoExiste() {
-        Pauta pauta = new Pauta();
-        setId(pauta, 1L);
+        Pauta pauta = pauta(1L);
         pauta.setTitulo("Título");
         pauta.setDescricao("Descrição");
 
@@ -41,15 +50,60 @@ class PautaQueryServiceTest {
         sessao.setAbertaEm(Instant.parse("2026-01-01T10:10:00Z"));
         sessao.setFechaEm(Instant.parse("2026-01-01T10:20:00Z"));
 
-        when(pautaService.listar()).thenReturn(List.of(pauta));
-        when(sessaoRepository.findByPautaId(1L)).thenReturn(Optional.of(sessao));
+        when(pautaService.listar(null, null, 3)).thenReturn(List.of(linha(pauta, sessao)));
         when(sessaoService.sessaoAberta(sessao)).thenReturn(true);
 
-        List<PautaResponse> result = pautaQueryService.listar();
+        PautaPagina result = pautaQueryService.listar(null, null);
+
+        assertThat(result.getItens()).hasSize(1);
+        assertThat(result.getItens().get(0).getSessao()).isNotNull();
+        assertThat(result.getItens().get(0).getSessao().isAberta()).isTrue();
+        assertThat(result.getProximoCursor()).isNull();
+        verifyNoInteractions(sessaoRepository);
+    }
+
+    @Test
+    void listarDevolveCursorQuandoHaMaisPaginas() {
+        Pauta primeira = pauta(1L);
+        Pauta segunda = pauta(2L);
+        when(pautaService.listar(null, null, 3))
+                .thenReturn(List.of(linha(primeira, null), linha(segunda, null), linha(pauta(3L), null)));
+
+        PautaPagina result = pautaQueryService.listar(null, null);
+
+        assertThat(result.getItens()).extracting(PautaResponse::getId).containsExactly(1L, 2L);
+        assertThat(result.getProximoCursor()).isNotNull();
+
+        when(pautaService.listar(segunda.getCreatedAt(), 2L, 3)).thenReturn(List.of(linha(pauta(3L), null)));
+
+        PautaPagina proxima = pautaQueryService.listar(result.getProximoCursor(), null);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getSessao()).isNotNull();
-        assertThat(result.get(0).getSessao().isAberta()).isTrue();
+        assertThat(proxima.getItens()).extracting(PautaResponse::getId).containsExactly(3L);
+        assertThat(proxima.getProximoCursor()).isNull();
+    }
+
+    @Test
+    void listarLimitaTamanhoDaPagina() {
+        when(pautaService.listar(null, null, 4)).thenReturn(List.of());
+
+        PautaPagina result = pautaQueryService.listar(null, 1000);
+
+        assertThat(result.getItens()).isEmpty();
+        verify(pautaService).listar(null, null, 4);
+    }
+
+    @Test
+    void listarRejeitaLimiteInvalido() {
+        assertThatThrownBy(() -> pautaQueryService.listar(null, 0))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Limite deve ser maior que zero");
+    }
+
+    @Test
+    void listarRejeitaCursorInvalido() {
+        assertThatThrownBy(() -> pautaQueryService.listar("nao-e-cursor", null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Cursor inválido");
     }
 
     @Test
@@ -67,6 +121,26 @@ class PautaQueryServiceTest {
         assertThat(response.getSessao()).isNull();
     }
 
+    private Pauta pauta(long id) {
+        Pauta pauta = new Pauta();
+        setId(pauta, id);
+        return pauta;
+    }
+
+    private PautaSessao linha(Pauta pauta, Sessao sessao) {
+        return new PautaSessao() {
+            @Override
+            public Pauta getPauta() {
+                return pauta;
+            }
+
+            @Override
+            public Sessao getSessao() {
+                return sessao;
+            }
+        };
+    }
+
     private void setId(Pauta pauta, long id) {
         try {
             var field = Pauta.class.getDeclaredField("id");
@@ -30,6 +30,24 @@ class PautaServiceTest {
     @Mock
     private VotoRepository votoRepository;
 
+    @Mock
+    private VotoTallyRegistry votoTallyRegistry;
+
+    @Mock
+    private PautaTallyService pautaTallyService;
+
+    @Mock
+    private VotoDuplicadoFiltro votoDuplicadoFiltro;
+
+    @Mock
+    private SessaoAbertaRegistry sessaoAbertaRegistry;
+
+    @Mock
+    private ResultadoFinalService resultadoFinalService;
+
+    @Mock
+    private VersaoRegistry versaoRegistry;
+
     @InjectMocks
     private PautaService pautaService;
 
@@ -48,6 +66,7 @@ class PautaServiceTest {
         Pauta saved = pautaService.criar(request);
 
         assertThat(saved.getId()).isEqualTo(10L);
+        verify(versaoRegistry).alterarPauta(10L);
         assertThat(saved.getTitulo()).isEqualTo("Nova pauta");
         assertThat(saved.getDescricao()).isEqualTo("Descrição");
     }
@@ -71,6 +90,12 @@ class PautaServiceTest {
         verify(votoRepository).deleteByPautaId(5L);
         verify(sessaoRepository).deleteByPautaId(5L);
         verify(pautaRepository).delete(pauta);
+        verify(votoTallyRegistry).remover(5L);
+        verify(pautaTallyService).remover(5L);
+        verify(votoDuplicadoFiltro).remover(5L);
+        verify(sessaoAbertaRegistry).remover(5L);
+        verify(resultadoFinalService).remover(5L);
+        verify(versaoRegistry).alterarPauta(5L);
     }
 
     private void setId(Pauta pauta, long id) {
@@ -0,0 +1,173 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.soya.votacao.VotacaoApplication;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.dto.ResultadoResponse;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.NotFoundException;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Voto;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.VotoApuracao;
+import com.soya.votacao.repository.VotoRepository;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Several application contexts on one H2 file, as instances sharing the database: each has
+ * its own in-memory registries, so only the tally cells can agree on the count.
+ */
+class PautaTallyServiceTest {
+    private static final int INSTANCIAS = 3;
+    private static final int THREADS = 4;
+    private static final int VOTOS_POR_THREAD = 25;
+    private static final AtomicLong ASSOCIADOS = new AtomicLong(10_000_000_000L);
+
+    @TempDir
+    static Path diretorio;
+
+    private static final List<ConfigurableApplicationContext> contextos = new ArrayList<>();
+
+    @BeforeAll
+    static void iniciar() {
+        for (int i = 0; i < INSTANCIAS; i++) {
+            contextos.add(new SpringApplicationBuilder(VotacaoApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(
+                            "--spring.datasource.url=jdbc:h2:file:" + diretorio.resolve("tally").toAbsolutePath(),
+                            "--spring.jpa.hibernate.ddl-auto=update",
+                            "--votacao.tally.celulas.enabled=true",
+                            "--votacao.tally.celulas.quantidade=4",
+                            "--management.tracing.sampling.probability=0.0",
+                            "--logging.level.com.soya=WARN"));
+        }
+    }
+
+    @AfterAll
+    static void encerrar() {
+        contextos.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void votosConcorrentesEmVariasInstanciasMantemContagemExata() throws Exception {
+        Long pautaId = abrirPauta();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(INSTANCIAS * THREADS);
+        List<Future<long[]>> futuros = new ArrayList<>();
+        try {
+            for (ConfigurableApplicationContext contexto : contextos) {
+                VotoService votoService = contexto.getBean(VotoService.class);
+                for (int t = 0; t < THREADS; t++) {
+                    futuros.add(executor.submit(() -> votar(votoService, pautaId, largada)));
+                }
+            }
+            largada.countDown();
+            long sim = 0;
+            long nao = 0;
+            for (Future<long[]> futuro : futuros) {
+                long[] aceitos = futuro.get();
+                sim += aceitos[0];
+                nao += aceitos[1];
+            }
+
+            VotoApuracao contagem = contextos.get(0).getBean(VotoRepository.class).apurarPorPauta(pautaId);
+            assertThat(contagem.getSim()).isEqualTo(sim);
+            assertThat(contagem.getNao()).isEqualTo(nao);
+            for (ConfigurableApplicationContext contexto : contextos) {
+                assertThat(contexto.getBean(VotoTallyRegistry.class).isEnabled()).isFalse();
+                ResultadoResponse resultado = contexto.getBean(VotoService.class).resultado(pautaId);
+                assertThat(resultado.getVotosSim()).isEqualTo(sim);
+                assertThat(resultado.getVotosNao()).isEqualTo(nao);
+            }
+            Integer celulasUsadas = contextos.get(0).getBean(JdbcTemplate.class).queryForObject(
+                    "select count(*) from pauta_tally_cell where pauta_id = ? and total > 0", Integer.class, pautaId);
+            assertThat(celulasUsadas).isGreaterThan(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void celulasCriadasDepoisDosVotosComecamComOsVotosJaGravados() {
+        Long pautaId = abrirPauta();
+        VotoRepository votoRepository = contextos.get(1).getBean(VotoRepository.class);
+        Pauta pauta = contextos.get(1).getBean(PautaService.class).buscarPorId(pautaId);
+        votoRepository.saveAll(List.of(
+                voto(pauta, VotoValor.SIM), voto(pauta, VotoValor.SIM), voto(pauta, VotoValor.NAO)));
+
+        ResultadoResponse antes = contextos.get(2).getBean(VotoService.class).resultado(pautaId);
+        boolean aceito = false;
+        while (!aceito) {
+            aceito = votarUmaVez(contextos.get(1).getBean(VotoService.class), pautaId, VotoValor.SIM);
+        }
+        ResultadoResponse depois = contextos.get(0).getBean(VotoService.class).resultado(pautaId);
+
+        assertThat(antes.getVotosSim()).isEqualTo(2);
+        assertThat(antes.getVotosNao()).isEqualTo(1);
+        assertThat(depois.getVotosSim()).isEqualTo(3);
+        assertThat(depois.getTotalVotos()).isEqualTo(4);
+    }
+
+    private static long[] votar(VotoService votoService, Long pautaId, CountDownLatch largada) throws InterruptedException {
+        largada.await();
+        long[] aceitos = new long[2];
+        for (int i = 0; i < VOTOS_POR_THREAD; i++) {
+            VotoValor valor = ThreadLocalRandom.current().nextBoolean() ? VotoValor.SIM : VotoValor.NAO;
+            if (votarUmaVez(votoService, pautaId, valor)) {
+                aceitos[valor.ordinal()]++;
+            }
+        }
+        return aceitos;
+    }
+
+    private static boolean votarUmaVez(VotoService votoService, Long pautaId, VotoValor valor) {
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId(String.valueOf(ASSOCIADOS.incrementAndGet()));
+        request.setVoto(valor);
+        try {
+            votoService.votar(pautaId, request);
+            return true;
+        } catch (NotFoundException ex) {
+            return false;
+        }
+    }
+
+    private static Long abrirPauta() {
+        CreatePautaRequest pauta = new CreatePautaRequest();
+        pauta.setTitulo("Pauta Tally");
+        pauta.setDescricao("Varias instancias");
+        Pauta saved = contextos.get(0).getBean(PautaService.class).criar(pauta);
+        OpenSessaoRequest sessao = new OpenSessaoRequest();
+        sessao.setDuracaoMinutos(60);
+        contextos.get(0).getBean(SessaoService.class).abrirSessao(saved.getId(), sessao);
+        return saved.getId();
+    }
+
+    private static Voto voto(Pauta pauta, VotoValor valor) {
+        Voto voto = new Voto();
+        voto.setPauta(pauta);
+        voto.setAssociadoId(String.valueOf(ASSOCIADOS.incrementAndGet()));
+        voto.setValor(valor);
+        voto.setCreatedAt(Instant.now());
+        return voto;
+    }
+}
@@ -0,0 +1,82 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.PautaTallyCellRepository;
+import com.soya.votacao.repository.VotoRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class PautaTallyServiceUnitTest {
+    @Mock
+    private PautaTallyCellRepository pautaTallyCellRepository;
+
+    @Mock
+    private VotoRepository votoRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PautaTallyService pautaTallyService;
+
+    @BeforeEach
+    void setUp() {
+        pautaTallyService = new PautaTallyService(
+                pautaTallyCellRepository, votoRepository, jdbcTemplate, transactionManager, true, 2);
+    }
+
+    @Test
+    void timeoutDeLockAoCriarCelulasUsaAsCelulasDaOutraInstancia() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new CannotAcquireLockException("Timeout trying to lock table"));
+        when(pautaTallyCellRepository.countByIdPautaId(1L)).thenReturn(4L);
+
+        pautaTallyService.preparar(1L);
+        pautaTallyService.preparar(1L);
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void celulasAindaInvisiveisNaoMarcamAPautaComoPreparada() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new CannotAcquireLockException("Timeout trying to lock table"));
+        when(pautaTallyCellRepository.countByIdPautaId(1L)).thenReturn(0L);
+
+        pautaTallyService.preparar(1L);
+        pautaTallyService.preparar(1L);
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void incrementoSemCelulasCriaAsCelulasEmVezDeFalhar() {
+        when(pautaTallyCellRepository.incrementar(eq(1L), eq(VotoValor.SIM), anyInt(), anyLong()))
+                .thenReturn(0, 1);
+
+        assertThatCode(() -> pautaTallyService.incrementar(1L, List.of(VotoValor.SIM))).doesNotThrowAnyException();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        verify(pautaTallyCellRepository, times(2)).incrementar(eq(1L), eq(VotoValor.SIM), anyInt(), anyLong());
+    }
+}
@@ -0,0 +1,160 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.soya.votacao.client.CpfClient;
+import com.soya.votacao.client.CpfClientResult;
+import com.soya.votacao.client.CpfStatus;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.model.VotoValor;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockReset;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest(properties = {
+        "votacao.resultado.stream.intervalo=20ms",
+        "votacao.resultado.stream.max-assinantes=2"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+class ResultadoBroadcasterTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PautaService pautaService;
+
+    private static final Set<Long> ENCERRADAS = ConcurrentHashMap.newKeySet();
+    private static boolean sessaoAbertaStubbed;
+
+    @SpyBean(reset = MockReset.NONE)
+    private SessaoService sessaoService;
+
+    @Autowired
+    private VotoService votoService;
+
+    @Autowired
+    private ResultadoBroadcaster resultadoBroadcaster;
+
+    @Autowired
+    private ResultadoFinalService resultadoFinalService;
+
+    /**
+     * Stubbed once, before any subscriber exists: stubbing the spy while the broadcaster thread
+     * calls it fails with UnfinishedStubbingException.
+     */
+    @BeforeEach
+    void encerrarPautasMarcadas() {
+        if (!sessaoAbertaStubbed) {
+            doAnswer(invocation -> {
+                Sessao sessao = invocation.getArgument(0);
+                boolean encerrada = sessao != null && ENCERRADAS.contains(sessao.getPauta().getId());
+                return !encerrada && (boolean) invocation.callRealMethod();
+            }).when(sessaoService).sessaoAberta(any());
+            sessaoAbertaStubbed = true;
+        }
+    }
+
+    @Test
+    void enviaAtualizacoesEEventoFinalQuandoSessaoEncerra() throws Exception {
+        Pauta pauta = criarPautaAberta();
+        MvcResult primeiro = assinar(pauta.getId());
+        MvcResult segundo = assinar(pauta.getId());
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> conteudo(primeiro).contains("event:resultado"));
+        assertThat(resultadoBroadcaster.assinantes(pauta.getId())).isEqualTo(2);
+
+        votar(pauta.getId(), "11111111111", VotoValor.SIM);
+        votar(pauta.getId(), "22222222222", VotoValor.NAO);
+        await().atMost(Duration.ofSeconds(5)).until(() -> conteudo(primeiro).contains("\"totalVotos\":2"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> conteudo(segundo).contains("\"totalVotos\":2"));
+
+        ENCERRADAS.add(pauta.getId());
+        resultadoFinalService.finalizar(pauta.getId());
+        await().atMost(Duration.ofSeconds(5)).until(() -> conteudo(primeiro).contains("event:encerrado"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> resultadoBroadcaster.assinantes(pauta.getId()) == 0);
+        assertThat(conteudo(segundo)).contains("event:encerrado");
+        assertThat(conteudo(segundo)).contains("\"status\":\"ENCERRADA\"");
+    }
+
+    @Test
+    void rejeitaAssinanteAlemDoLimite() throws Exception {
+        Pauta pauta = criarPautaAberta();
+        assinar(pauta.getId());
+        assinar(pauta.getId());
+
+        mockMvc.perform(get("/api/v1/pautas/" + pauta.getId() + "/resultado/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void rejeitaPautaSemSessao() throws Exception {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo("Sem sessão");
+        Pauta pauta = pautaService.criar(request);
+
+        mockMvc.perform(get("/api/v1/pautas/" + pauta.getId() + "/resultado/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+
+    private MvcResult assinar(Long pautaId) throws Exception {
+        return mockMvc.perform(get("/api/v1/pautas/" + pautaId + "/resultado/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static String conteudo(MvcResult result) throws Exception {
+        return result.getResponse().getContentAsString().replace(" ", "");
+    }
+
+    private void votar(Long pautaId, String associadoId, VotoValor valor) {
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId(associadoId);
+        request.setVoto(valor);
+        votoService.votar(pautaId, request);
+    }
+
+    private Pauta criarPautaAberta() {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo("Pauta Stream");
+        request.setDescricao("SSE");
+        Pauta pauta = pautaService.criar(request);
+        OpenSessaoRequest sessao = new OpenSessaoRequest();
+        sessao.setDuracaoMinutos(10);
+        sessaoService.abrirSessao(pauta.getId(), sessao);
+        return pauta;
+    }
+
+    @TestConfiguration
+    static class StreamCpfClientConfig {
+        @Bean
+        @Primary
+        CpfClient cpfClient() {
+            return cpf -> new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.soya.votacao.config.ResultadoStreamProperties;
+import com.soya.votacao.dto.ResultadoResponse;
+import com.soya.votacao.model.Sessao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class ResultadoBroadcasterUnitTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+    private ResultadoBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        VotoService votoService = mock(VotoService.class);
+        SessaoService sessaoService = mock(SessaoService.class);
+        ResultadoFinalService resultadoFinalService = mock(ResultadoFinalService.class);
+        Sessao sessao = new Sessao();
+        when(sessaoService.buscarPorPauta(1L)).thenReturn(sessao);
+        when(sessaoService.sessaoAberta(any())).thenReturn(true);
+        when(resultadoFinalService.buscar(1L)).thenReturn(Optional.empty());
+        when(votoService.resultado(1L, sessao)).thenReturn(new ResultadoResponse(1L, 0L, 0L, 0L, "ABERTA"));
+
+        ResultadoStreamProperties properties = new ResultadoStreamProperties();
+        properties.setIntervalo(Duration.ofMillis(10));
+        properties.setThreadsEnvio(1);
+        properties.setPrazoEnvio(Duration.ofMillis(200));
+        broadcaster = new ResultadoBroadcaster(votoService, sessaoService, resultadoFinalService, properties, meterRegistry) {
+            @Override
+            SseEmitter novoEmitter(long timeout) {
+                return emitters.poll();
+            }
+        };
+        broadcaster.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void envioTravadoAlemDoPrazoEncerraSoOAssinanteLento() throws InterruptedException {
+        EmitterTravado travado = new EmitterTravado();
+        EmitterContador contador = new EmitterContador();
+        emitters.add(travado);
+        emitters.add(contador);
+
+        broadcaster.assinar(1L);
+        assertThat(travado.enviando.await(5, TimeUnit.SECONDS)).isTrue();
+        broadcaster.assinar(1L);
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> contador.enviados.get() > 0);
+        assertThat(travado.erro.get()).isInstanceOf(IOException.class);
+        assertThat(broadcaster.assinantes(1L)).isEqualTo(1);
+        assertThat(meterRegistry.find("votacao.resultado.stream.expirado").counter().count()).isEqualTo(1.0);
+    }
+
+    /** Blocks on send until the emitter is completed with an error, like a write to a stuck client. */
+    private static final class EmitterTravado extends SseEmitter {
+        private final CountDownLatch enviando = new CountDownLatch(1);
+        private final CountDownLatch encerrado = new CountDownLatch(1);
+        private final AtomicReference<Throwable> erro = new AtomicReference<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            enviando.countDown();
+            try {
+                encerrado.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Conexao encerrada");
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            erro.compareAndSet(null, ex);
+            encerrado.countDown();
+            super.completeWithError(ex);
+        }
+    }
+
+    private static final class EmitterContador extends SseEmitter {
+        private final AtomicInteger enviados = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            enviados.incrementAndGet();
+        }
+    }
+}
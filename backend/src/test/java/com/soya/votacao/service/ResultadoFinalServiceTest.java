@@ -0,0 +1,174 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.soya.votacao.client.CpfClient;
+import com.soya.votacao.client.CpfClientResult;
+import com.soya.votacao.client.CpfStatus;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.dto.ResultadoResponse;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.BadRequestException;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.ResultadoFinal;
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.model.Voto;
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.ResultadoFinalRepository;
+import com.soya.votacao.repository.VotoRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs with a grace period longer than the sessions, so every vote write takes the session lock.
+ */
+@SpringBootTest(properties = "votacao.finalizacao.carencia=10m")
+@DirtiesContext
+class ResultadoFinalServiceTest {
+    @Autowired
+    private PautaService pautaService;
+
+    @Autowired
+    private SessaoService sessaoService;
+
+    @Autowired
+    private VotoService votoService;
+
+    @Autowired
+    private VotoLoteService votoLoteService;
+
+    @Autowired
+    private ResultadoFinalService resultadoFinalService;
+
+    @Autowired
+    private ResultadoFinalRepository resultadoFinalRepository;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void finalizaContandoSoVotosAdmitidosAntesDoFechamento() {
+        Pauta pauta = criarPauta();
+        Sessao sessao = abrirSessao(pauta.getId());
+        votoService.votar(pauta.getId(), voto("11111111111", VotoValor.SIM));
+        votoService.votar(pauta.getId(), voto("22222222222", VotoValor.NAO));
+        Voto tardio = new Voto();
+        tardio.setPauta(pauta);
+        tardio.setAssociadoId("33333333333");
+        tardio.setValor(VotoValor.SIM);
+        tardio.setCreatedAt(sessao.getFechaEm().plusSeconds(1));
+        votoRepository.save(tardio);
+
+        ResultadoFinal resultado = resultadoFinalService.finalizar(pauta.getId()).orElseThrow();
+
+        assertThat(resultado.getVotosSim()).isEqualTo(1);
+        assertThat(resultado.getVotosNao()).isEqualTo(1);
+        assertThat(resultado.getFechaEm()).isEqualTo(sessao.getFechaEm());
+        ResultadoFinal repetido = resultadoFinalService.finalizar(pauta.getId()).orElseThrow();
+        assertThat(repetido.getFinalizadoEm()).isEqualTo(resultado.getFinalizadoEm());
+        assertThat(repetido.getTotalVotos()).isEqualTo(2);
+        assertThat(resultadoFinalService.etag(resultado)).isEqualTo("\"final-" + pauta.getId() + "-1-1\"");
+
+        ResultadoResponse response = votoService.resultado(pauta.getId());
+        assertThat(response.getTotalVotos()).isEqualTo(2);
+        assertThat(response.getStatus()).isEqualTo("ENCERRADA");
+    }
+
+    @Test
+    void votoDepoisDoResultadoFinalEhRejeitado() throws IOException {
+        Pauta pauta = criarPauta();
+        abrirSessao(pauta.getId());
+        votoService.votar(pauta.getId(), voto("11111111111", VotoValor.SIM));
+        resultadoFinalService.finalizar(pauta.getId());
+
+        assertThatThrownBy(() -> votoService.votar(pauta.getId(), voto("22222222222", VotoValor.SIM)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Sessão encerrada");
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        votoLoteService.processar(pauta, sessaoService.buscarPorPauta(pauta.getId()),
+                new ByteArrayInputStream("{\"associadoId\":\"33333333333\",\"voto\":\"NAO\"}\n"
+                        .getBytes(StandardCharsets.UTF_8)), saida);
+        assertThat(saida.toString(StandardCharsets.UTF_8)).contains("Sessão encerrada");
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(
+                tx -> resultadoFinalService.bloquearSeEmFechamento(pauta.getId())))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(votoService.resultado(pauta.getId()).getTotalVotos()).isEqualTo(1);
+        assertThat(votoRepository.findAssociadoIdsByPautaId(pauta.getId())).containsExactly("11111111111");
+    }
+
+    @Test
+    void agendamentoVencidoFinalizaImediatamente() {
+        Pauta pauta = criarPauta();
+        abrirSessao(pauta.getId());
+
+        resultadoFinalService.agendar(pauta.getId(), Instant.now().minus(Duration.ofMinutes(11)));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> resultadoFinalService.buscar(pauta.getId()).isPresent());
+        assertThat(resultadoFinalRepository.existsById(pauta.getId())).isTrue();
+    }
+
+    @Test
+    void removerPautaApagaResultadoFinal() {
+        Pauta pauta = criarPauta();
+        abrirSessao(pauta.getId());
+        resultadoFinalService.finalizar(pauta.getId());
+
+        pautaService.remover(pauta.getId());
+
+        assertThat(resultadoFinalService.buscar(pauta.getId())).isEmpty();
+        assertThat(resultadoFinalRepository.existsById(pauta.getId())).isFalse();
+        assertThat(resultadoFinalService.finalizar(pauta.getId())).isEmpty();
+    }
+
+    private VotoRequest voto(String associadoId, VotoValor valor) {
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId(associadoId);
+        request.setVoto(valor);
+        return request;
+    }
+
+    private Pauta criarPauta() {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo("Pauta finalizada");
+        request.setDescricao("Descrição");
+        return pautaService.criar(request);
+    }
+
+    private Sessao abrirSessao(Long pautaId) {
+        OpenSessaoRequest request = new OpenSessaoRequest();
+        request.setDuracaoMinutos(1);
+        return sessaoService.abrirSessao(pautaId, request);
+    }
+
+    @TestConfiguration
+    static class FixedCpfClientConfig {
+        @Bean
+        @Primary
+        CpfClient cpfClient() {
+            return cpf -> new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+        }
+    }
+}
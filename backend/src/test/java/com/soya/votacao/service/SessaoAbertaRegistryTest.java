@@ -0,0 +1,119 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.repository.SessaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SessaoAbertaRegistryTest {
+    @Mock
+    private SessaoRepository sessaoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VersaoRegistry versaoRegistry;
+    private SessaoAbertaRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        versaoRegistry = new VersaoRegistry(true);
+        registry = new SessaoAbertaRegistry(sessaoRepository, versaoRegistry, Duration.ofMillis(10), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.stop();
+    }
+
+    @Test
+    void carregaSessoesAbertasNaInicializacao() {
+        Pauta pauta = new Pauta();
+        setId(pauta, 1L);
+        Sessao sessao = new Sessao();
+        sessao.setPauta(pauta);
+        sessao.setFechaEm(Instant.now().plusSeconds(60));
+        when(sessaoRepository.findByFechaEmAfter(any())).thenReturn(List.of(sessao));
+
+        registry.carregar();
+
+        assertThat(registry.estaAberta(1L)).isTrue();
+        assertThat(registry.estaAberta(2L)).isFalse();
+        assertThat(meterRegistry.get("votacao.sessao.abertas").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void removeSessaoAoFechar() {
+        registry.carregar();
+        registry.registrar(1L, Instant.now().plusMillis(50));
+        registry.registrar(2L, Instant.now().plusSeconds(60));
+        String etagAberta = versaoRegistry.etagPauta(1L);
+
+        assertThat(registry.estaAberta(1L)).isTrue();
+        await().atMost(Duration.ofSeconds(2)).until(() -> registry.tamanho() == 1);
+        assertThat(registry.estaAberta(1L)).isFalse();
+        assertThat(versaoRegistry.etagPauta(1L)).isNotEqualTo(etagAberta);
+        assertThat(registry.estaAberta(2L)).isTrue();
+    }
+
+    @Test
+    void ignoraSessaoJaEncerrada() {
+        registry.carregar();
+        registry.registrar(1L, Instant.now().minusSeconds(1));
+
+        assertThat(registry.estaAberta(1L)).isFalse();
+        assertThat(registry.tamanho()).isZero();
+    }
+
+    @Test
+    void removerDescartaSessao() {
+        registry.carregar();
+        registry.registrar(1L, Instant.now().plusSeconds(60));
+
+        registry.remover(1L);
+
+        assertThat(registry.estaAberta(1L)).isFalse();
+    }
+
+    @Test
+    void timerWheelExecutaPrazoQueDaMaisDeUmaVoltaNaRoda() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel("teste", Duration.ofMillis(5), 4);
+        CountDownLatch disparo = new CountDownLatch(1);
+        long inicio = System.currentTimeMillis();
+        wheel.start();
+        try {
+            wheel.agendar(inicio + 100, disparo::countDown);
+
+            assertThat(disparo.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(System.currentTimeMillis()).isGreaterThanOrEqualTo(inicio + 100);
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    private void setId(Pauta pauta, long id) {
+        try {
+            var field = Pauta.class.getDeclaredField("id");
+            field.setAccessible(true);
+            field.set(pauta, id);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Failed to set id", ex);
+        }
+    }
+}
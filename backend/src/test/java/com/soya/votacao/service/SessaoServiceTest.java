@@ -28,6 +28,18 @@ class SessaoServiceTest {
     @Mock
     private PautaService pautaService;
 
+    @Mock
+    private VotoDuplicadoFiltro votoDuplicadoFiltro;
+
+    @Mock
+    private SessaoAbertaRegistry sessaoAbertaRegistry;
+
+    @Mock
+    private ResultadoFinalService resultadoFinalService;
+
+    @Mock
+    private VersaoRegistry versaoRegistry;
+
     @InjectMocks
     private SessaoService sessaoService;
 
@@ -86,6 +98,10 @@ class SessaoServiceTest {
         Sessao saved = captor.getValue();
         assertThat(saved.getPauta()).isEqualTo(pauta);
         assertThat(saved.getFechaEm()).isAfter(saved.getAbertaEm());
+        verify(votoDuplicadoFiltro).iniciar(3L, saved.getFechaEm());
+        verify(sessaoAbertaRegistry).registrar(3L, saved.getFechaEm());
+        verify(resultadoFinalService).agendar(3L, saved.getFechaEm());
+        verify(versaoRegistry).alterarPauta(3L);
     }
 
     private void setId(Pauta pauta, long id) {
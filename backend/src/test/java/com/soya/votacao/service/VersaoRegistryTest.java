@@ -0,0 +1,62 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class VersaoRegistryTest {
+    private final VersaoRegistry registry = new VersaoRegistry(true);
+
+    @Test
+    void votoMudaPautaEResultadoMasNaoListagem() {
+        String listagem = registry.etagListagem();
+        String pauta = registry.etagPauta(1L);
+        String resultado = registry.etagResultado(1L);
+
+        registry.alterarVotos(1L);
+
+        assertThat(registry.etagListagem()).isEqualTo(listagem);
+        assertThat(registry.etagPauta(1L)).isNotEqualTo(pauta);
+        assertThat(registry.etagResultado(1L)).isNotEqualTo(resultado);
+        assertThat(registry.etagPauta(2L)).isEqualTo(registry.etagPauta(3L));
+    }
+
+    @Test
+    void alteracaoDaPautaMudaListagem() {
+        String listagem = registry.etagListagem();
+        String outraPauta = registry.etagPauta(2L);
+
+        registry.alterarPauta(1L);
+
+        assertThat(registry.etagListagem()).isNotEqualTo(listagem);
+        assertThat(registry.etagPauta(1L)).isNotEqualTo(registry.etagPauta(2L));
+        assertThat(registry.etagPauta(2L)).isEqualTo(outraPauta);
+    }
+
+    @Test
+    void versaoMudaSoDepoisDoCommit() {
+        String pauta = registry.etagPauta(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            registry.alterarPauta(1L);
+            assertThat(registry.etagPauta(1L)).isEqualTo(pauta);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(registry.etagPauta(1L)).isNotEqualTo(pauta);
+    }
+
+    @Test
+    void desabilitadoNaoGeraEtag() {
+        VersaoRegistry desabilitado = new VersaoRegistry(false);
+
+        assertThat(desabilitado.etagListagem()).isNull();
+        assertThat(desabilitado.etagPauta(1L)).isNull();
+        assertThat(desabilitado.etagResultado(1L)).isNull();
+    }
+}
@@ -0,0 +1,121 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.soya.votacao.config.FiltroDuplicadoProperties;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.repository.SessaoRepository;
+import com.soya.votacao.repository.VotoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class VotoDuplicadoFiltroTest {
+    @Mock
+    private VotoRepository votoRepository;
+
+    @Mock
+    private SessaoRepository sessaoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FiltroDuplicadoProperties properties;
+    private VotoDuplicadoFiltro filtro;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new FiltroDuplicadoProperties();
+        properties.setExpectedVotos(1000);
+        filtro = new VotoDuplicadoFiltro(votoRepository, sessaoRepository, properties, meterRegistry);
+    }
+
+    @Test
+    void carregarMontaFiltroDasSessoesAbertas() {
+        Pauta pauta = new Pauta();
+        setId(pauta, 1L);
+        Sessao sessao = new Sessao();
+        sessao.setPauta(pauta);
+        sessao.setFechaEm(Instant.now().plusSeconds(60));
+        when(sessaoRepository.findByFechaEmAfter(any())).thenReturn(List.of(sessao));
+        when(votoRepository.findAssociadoIdsByPautaId(1L)).thenReturn(List.of("11111111111"));
+
+        filtro.carregar();
+
+        assertThat(filtro.jaVotou(1L, "11111111111", () -> true)).isTrue();
+        assertThat(filtro.jaVotou(1L, "22222222222", () -> {
+            throw new AssertionError("consulta nao deveria ocorrer");
+        })).isFalse();
+        assertThat(contagem("duplicado")).isEqualTo(1.0);
+        assertThat(contagem("ignorada")).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.filtro.memoria").gauge().value()).isPositive();
+        assertThat(meterRegistry.find("votacao.voto.filtro.falso_positivo.estimado").gauge().value()).isPositive();
+    }
+
+    @Test
+    void semFiltroConsultaBanco() {
+        AtomicInteger consultas = new AtomicInteger();
+
+        assertThat(filtro.jaVotou(9L, "11111111111", () -> consultas.incrementAndGet() > 0)).isTrue();
+        assertThat(consultas).hasValue(1);
+        assertThat(meterRegistry.find("votacao.voto.filtro.falso_positivo.estimado").gauge().value()).isZero();
+    }
+
+    @Test
+    void falsoPositivoContabilizado() {
+        filtro.iniciar(1L, Instant.now().plusSeconds(60));
+        filtro.registrar(1L, "11111111111");
+
+        assertThat(filtro.jaVotou(1L, "11111111111", () -> false)).isFalse();
+        assertThat(contagem("falso_positivo")).isEqualTo(1.0);
+    }
+
+    @Test
+    void iniciarDescartaFiltrosEncerradosERemoverLimpa() {
+        filtro.iniciar(1L, Instant.now().minusSeconds(1));
+        filtro.registrar(1L, "11111111111");
+        filtro.iniciar(2L, Instant.now().plusSeconds(60));
+        filtro.registrar(3L, "11111111111");
+
+        assertThat(filtro.jaVotou(1L, "11111111111", () -> false)).isFalse();
+        assertThat(contagem("falso_positivo")).isZero();
+
+        filtro.remover(2L);
+        assertThat(meterRegistry.find("votacao.voto.filtro.memoria").gauge().value()).isZero();
+    }
+
+    @Test
+    void desabilitadoNaoCarregaNemInicia() {
+        properties.setEnabled(false);
+
+        filtro.carregar();
+        filtro.iniciar(1L, Instant.now().plusSeconds(60));
+
+        assertThat(meterRegistry.find("votacao.voto.filtro.memoria").gauge().value()).isZero();
+        verifyNoInteractions(sessaoRepository, votoRepository);
+    }
+
+    private double contagem(String resultado) {
+        return meterRegistry.find("votacao.voto.filtro.consulta").tag("resultado", resultado).counter().count();
+    }
+
+    private void setId(Pauta pauta, long id) {
+        try {
+            var field = Pauta.class.getDeclaredField("id");
+            field.setAccessible(true);
+            field.set(pauta, id);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Failed to set id", ex);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.soya.votacao.client.CpfClient;
+import com.soya.votacao.client.CpfClientResult;
+import com.soya.votacao.client.CpfStatus;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.dto.ResultadoResponse;
+import com.soya.votacao.dto.VotoReciboResponse;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.VotoValor;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(properties = {
+        "votacao.ingestao.enabled=true",
+        "votacao.ingestao.batch-size=2",
+        "votacao.ingestao.flush-interval=10ms"
+})
+@DirtiesContext
+class VotoIngestaoServiceTest {
+    @Autowired
+    private PautaService pautaService;
+
+    @Autowired
+    private SessaoService sessaoService;
+
+    @Autowired
+    private VotoService votoService;
+
+    @Autowired
+    private VotoIngestaoService votoIngestaoService;
+
+    @Autowired
+    private VotoIdGerador votoIdGerador;
+
+    @Test
+    void votosEnfileiradosSaoPersistidosEmLote() {
+        Pauta pauta = criarPauta();
+        abrirSessao(pauta.getId());
+
+        List<VotoReciboResponse> recibos = List.of(
+                votoIngestaoService.enfileirar(pauta.getId(), voto("11111111111", VotoValor.SIM)),
+                votoIngestaoService.enfileirar(pauta.getId(), voto("22222222222", VotoValor.NAO)),
+                votoIngestaoService.enfileirar(pauta.getId(), voto("33333333333", VotoValor.SIM))
+        );
+        assertThat(recibos).allMatch(recibo -> recibo.getStatus().equals("PENDENTE"));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(recibos)
+                .allMatch(recibo -> votoIngestaoService.buscarRecibo(pauta.getId(), recibo.getReciboId())
+                        .getStatus().equals("PERSISTIDO")));
+
+        ResultadoResponse resultado = votoService.resultado(pauta.getId());
+        assertThat(resultado.getTotalVotos()).isEqualTo(3);
+        assertThat(resultado.getVotosSim()).isEqualTo(2);
+    }
+
+    @Test
+    void idsDaIngestaoSaemDoMesmoBlocoDosVotosJpa() {
+        Pauta pauta = criarPauta();
+        abrirSessao(pauta.getId());
+
+        List<Long> ids = votoIdGerador.gerar(3);
+        Long idJpa = votoService.votar(pauta.getId(), voto("44444444444", VotoValor.SIM)).getId();
+
+        assertThat(ids.get(2) - ids.get(0)).isEqualTo(2);
+        assertThat(idJpa).isGreaterThan(ids.get(2));
+    }
+
+    @Test
+    void votoJaPersistidoNaoEntraNaFila() {
+        Pauta pauta = criarPauta();
+        abrirSessao(pauta.getId());
+
+        VotoReciboResponse recibo = votoIngestaoService.enfileirar(pauta.getId(), voto("44444444444", VotoValor.SIM));
+        await().atMost(Duration.ofSeconds(5)).until(() -> votoIngestaoService
+                .buscarRecibo(pauta.getId(), recibo.getReciboId()).getStatus().equals("PERSISTIDO"));
+
+        assertThatThrownBy(() -> votoIngestaoService.enfileirar(pauta.getId(), voto("44444444444", VotoValor.NAO)))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    private VotoRequest voto(String associadoId, VotoValor valor) {
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId(associadoId);
+        request.setVoto(valor);
+        return request;
+    }
+
+    private Pauta criarPauta() {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo("Pauta assíncrona");
+        request.setDescricao("Descrição");
+        return pautaService.criar(request);
+    }
+
+    private void abrirSessao(Long pautaId) {
+        OpenSessaoRequest request = new OpenSessaoRequest();
+        request.setDuracaoMinutos(1);
+        sessaoService.abrirSessao(pautaId, request);
+    }
+
+    @TestConfiguration
+    static class FixedCpfClientConfig {
+        @Bean
+        @Primary
+        CpfClient cpfClient() {
+            return cpf -> new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.soya.votacao.config.FiltroDuplicadoProperties;
+import com.soya.votacao.config.IngestaoProperties;
+import com.soya.votacao.dto.VotoReciboResponse;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.exception.NotFoundException;
+import com.soya.votacao.exception.ServiceUnavailableException;
+import com.soya.votacao.model.Voto;
+import com.soya.votacao.model.VotoValor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class VotoIngestaoServiceUnitTest {
+    @Mock
+    private VotoService votoService;
+
+    @Mock
+    private ResultadoFinalService resultadoFinalService;
+
+    @Mock
+    private PautaTallyService pautaTallyService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private VotoIdGerador votoIdGerador;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IngestaoProperties properties;
+    private VotoTallyRegistry votoTallyRegistry;
+    private VotoIngestaoService ingestaoService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new IngestaoProperties();
+        properties.setQueueCapacity(2);
+        properties.setBatchSize(2);
+        properties.setFlushInterval(Duration.ofMillis(5));
+        properties.setMaxRecibos(2);
+        votoTallyRegistry = new VotoTallyRegistry(null, true);
+        VotoDuplicadoFiltro votoDuplicadoFiltro = new VotoDuplicadoFiltro(
+                null, null, new FiltroDuplicadoProperties(), meterRegistry);
+        AtomicLong ids = new AtomicLong();
+        lenient().when(votoIdGerador.gerar(anyInt())).thenAnswer(invocation -> LongStream
+                .rangeClosed(1, invocation.<Integer>getArgument(0))
+                .mapToObj(i -> ids.incrementAndGet())
+                .toList());
+        ingestaoService = new VotoIngestaoService(votoService, votoTallyRegistry, pautaTallyService, votoDuplicadoFiltro, resultadoFinalService, new VersaoRegistry(true), jdbcTemplate, votoIdGerador, transactionManager, properties, meterRegistry);
+    }
+
+    @Test
+    void startNaoCriaWriterQuandoDesabilitado() throws Exception {
+        ingestaoService.start();
+        ingestaoService.stop();
+
+        assertThat(ingestaoService.isEnabled()).isFalse();
+    }
+
+    @Test
+    void duplicadoPendenteRejeitadoSemConsultarRegras() {
+        admitirQualquerVoto();
+        ingestaoService.enfileirar(1L, request("12345678901"));
+
+        assertThatThrownBy(() -> ingestaoService.enfileirar(1L, request("12345678901")))
+                .isInstanceOf(ConflictException.class);
+        assertThat(meterRegistry.find("votacao.voto.rejeitado").tag("motivo", "duplicado").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void filaCheiaRetornaServicoIndisponivel() {
+        admitirQualquerVoto();
+        ingestaoService.enfileirar(1L, request("1"));
+        ingestaoService.enfileirar(1L, request("2"));
+
+        assertThatThrownBy(() -> ingestaoService.enfileirar(1L, request("3")))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(meterRegistry.find("votacao.ingestao.fila").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void falhaNaAdmissaoLiberaChavePendente() {
+        when(votoService.admitir(eq(1L), any())).thenThrow(new NotFoundException("Associado não pode votar"));
+
+        assertThatThrownBy(() -> ingestaoService.enfileirar(1L, request("1")))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> ingestaoService.enfileirar(1L, request("1")))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void loteComFalhaGravaVotoAVoto() throws InterruptedException {
+        admitirQualquerVoto();
+        VotoReciboResponse ok = ingestaoService.enfileirar(1L, request("1"));
+        VotoReciboResponse duplicado = ingestaoService.enfileirar(1L, request("2"));
+        when(jdbcTemplate.batchUpdate(eq(VotoIngestaoService.INSERT_SQL), anyList(), anyInt(), any()))
+                .thenThrow(new DuplicateKeyException("dupe"));
+        when(jdbcTemplate.update(eq(VotoIngestaoService.INSERT_SQL), any(PreparedStatementSetter.class)))
+                .thenReturn(1)
+                .thenThrow(new DuplicateKeyException("dupe"));
+
+        assertThat(ingestaoService.processarFila()).isEqualTo(2);
+
+        assertThat(ingestaoService.buscarRecibo(1L, ok.getReciboId()).getStatus()).isEqualTo("PERSISTIDO");
+        assertThat(ingestaoService.buscarRecibo(1L, duplicado.getReciboId()).getStatus()).isEqualTo("REJEITADO");
+        assertThat(meterRegistry.find("votacao.voto.salvo").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.constraint.fallback").counter().count()).isEqualTo(1.0);
+        assertThat(votoTallyRegistry.buscar(1L).getSim()).isEqualTo(1);
+        assertThat(meterRegistry.find("votacao.ingestao.lote").summary().count()).isEqualTo(1);
+        verify(votoIdGerador, times(1)).gerar(anyInt());
+    }
+
+    @Test
+    void falhaTransitoriaRepeteAteGravarOVoto() throws InterruptedException {
+        properties.setEsperaTentativa(Duration.ofMillis(1));
+        admitirQualquerVoto();
+        VotoReciboResponse recibo = ingestaoService.enfileirar(1L, request("1"));
+        when(jdbcTemplate.batchUpdate(eq(VotoIngestaoService.INSERT_SQL), anyList(), anyInt(), any()))
+                .thenThrow(new TransientDataAccessResourceException("conexao perdida"));
+        when(jdbcTemplate.update(eq(VotoIngestaoService.INSERT_SQL), any(PreparedStatementSetter.class)))
+                .thenThrow(new TransientDataAccessResourceException("conexao perdida"))
+                .thenReturn(1);
+
+        ingestaoService.processarFila();
+
+        assertThat(ingestaoService.buscarRecibo(1L, recibo.getReciboId()).getStatus()).isEqualTo("PERSISTIDO");
+        verify(jdbcTemplate, times(2)).update(eq(VotoIngestaoService.INSERT_SQL), any(PreparedStatementSetter.class));
+        assertThat(meterRegistry.find("votacao.voto.rejeitado").tag("motivo", "erro").counter().count()).isZero();
+    }
+
+    @Test
+    void votoDoJournalQueNaoGravaFicaPendenteParaReaplicar(@TempDir Path diretorio) throws Exception {
+        properties.setEsperaTentativa(Duration.ofMillis(1));
+        admitirQualquerVoto();
+        when(jdbcTemplate.batchUpdate(eq(VotoIngestaoService.INSERT_SQL), anyList(), anyInt(), any()))
+                .thenThrow(new TransientDataAccessResourceException("conexao perdida"));
+        when(jdbcTemplate.update(eq(VotoIngestaoService.INSERT_SQL), any(PreparedStatementSetter.class)))
+                .thenThrow(new TransientDataAccessResourceException("conexao perdida"));
+        habilitarJournal(diretorio);
+        ingestaoService.start();
+
+        VotoReciboResponse recibo = ingestaoService.enfileirar(1L, request("12345678901"));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(jdbcTemplate, times(properties.getTentativas()))
+                .update(eq(VotoIngestaoService.INSERT_SQL), any(PreparedStatementSetter.class)));
+        ingestaoService.stop();
+        assertThat(ingestaoService.buscarRecibo(1L, recibo.getReciboId()).getStatus()).isEqualTo("PENDENTE");
+        VotoJournal reaberto = new VotoJournal(diretorio, 1024, Duration.ZERO, new SimpleMeterRegistry());
+        assertThat(reaberto.abrir()).extracting(VotoJournal.Registro::associadoId).containsExactly("12345678901");
+        reaberto.close();
+    }
+
+    @Test
+    void filaVaziaNaoGravaNada() throws InterruptedException {
+        assertThat(ingestaoService.processarFila()).isZero();
+    }
+
+    @Test
+    void reciboDeOutraPautaOuDescartadoNaoEncontrado() throws InterruptedException {
+        admitirQualquerVoto();
+        VotoReciboResponse antigo = ingestaoService.enfileirar(1L, request("1"));
+        ingestaoService.enfileirar(1L, request("2"));
+        when(jdbcTemplate.batchUpdate(eq(VotoIngestaoService.INSERT_SQL), anyList(), anyInt(), any()))
+                .thenReturn(new int[][]{{1, 1}});
+
+        assertThatThrownBy(() -> ingestaoService.buscarRecibo(2L, antigo.getReciboId()))
+                .isInstanceOf(NotFoundException.class);
+
+        ingestaoService.processarFila();
+        ingestaoService.enfileirar(2L, request("3"));
+        assertThatThrownBy(() -> ingestaoService.buscarRecibo(1L, antigo.getReciboId()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void journalReaplicaVotosNaoAplicadosNaInicializacao(@TempDir Path diretorio) throws Exception {
+        VotoJournal anterior = new VotoJournal(diretorio, 1024, Duration.ZERO, meterRegistry);
+        anterior.abrir();
+        anterior.concluir(anterior.registrar(1L, "aplicado", null, VotoValor.SIM, Instant.now()));
+        anterior.registrar(1L, "pendente", null, VotoValor.NAO, Instant.now());
+        anterior.registrar(1L, null, 12345678901L, VotoValor.SIM, Instant.now());
+        anterior.checkpoint();
+        when(jdbcTemplate.batchUpdate(eq(VotoIngestaoService.INSERT_SQL), anyList(), anyInt(), any()))
+                .thenReturn(new int[][]{{1, 1}});
+        habilitarJournal(diretorio);
+
+        ingestaoService.start();
+        ingestaoService.stop();
+
+        verify(jdbcTemplate).batchUpdate(eq(VotoIngestaoService.INSERT_SQL),
+                argThat(lote -> lote.size() == 2), eq(2), any());
+        assertThat(votoTallyRegistry.buscar(1L).getSim()).isEqualTo(1);
+        assertThat(votoTallyRegistry.buscar(1L).getNao()).isEqualTo(1);
+        VotoJournal reaberto = new VotoJournal(diretorio, 1024, Duration.ZERO, new SimpleMeterRegistry());
+        assertThat(reaberto.abrir()).isEmpty();
+        reaberto.close();
+    }
+
+    @Test
+    void votoComJournalEhReconhecidoEAplicado(@TempDir Path diretorio) throws Exception {
+        admitirQualquerVoto();
+        when(jdbcTemplate.batchUpdate(eq(VotoIngestaoService.INSERT_SQL), anyList(), anyInt(), any()))
+                .thenReturn(new int[][]{{1}});
+        habilitarJournal(diretorio);
+        ingestaoService.start();
+
+        VotoReciboResponse recibo = ingestaoService.enfileirar(1L, request("12345678901"));
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> ingestaoService.buscarRecibo(1L, recibo.getReciboId()).getStatus().equals("PERSISTIDO"));
+        assertThat(meterRegistry.find("votacao.ingestao.journal.grupo").summary().count()).isPositive();
+        ingestaoService.stop();
+        VotoJournal reaberto = new VotoJournal(diretorio, 1024, Duration.ZERO, new SimpleMeterRegistry());
+        assertThat(reaberto.abrir()).isEmpty();
+        reaberto.close();
+    }
+
+    private void habilitarJournal(Path diretorio) {
+        properties.setEnabled(true);
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDiretorio(diretorio.toString());
+        properties.getJournal().setFsyncIntervalo(Duration.ZERO);
+    }
+
+    private void admitirQualquerVoto() {
+        when(votoService.admitir(any(), any())).thenAnswer(invocation -> {
+            VotoRequest request = invocation.getArgument(1);
+            Voto voto = new Voto();
+            voto.setAssociadoId(request.getAssociadoId());
+            voto.setValor(request.getVoto());
+            return voto;
+        });
+    }
+
+    private VotoRequest request(String associadoId) {
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId(associadoId);
+        request.setVoto(VotoValor.SIM);
+        return request;
+    }
+}
@@ -0,0 +1,122 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.soya.votacao.model.VotoValor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VotoJournalTest {
+    @TempDir
+    Path diretorio;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void reaberturaDevolveRegistrosNaoAplicados() throws Exception {
+        Instant agora = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        VotoJournal journal = abrir(1024);
+        long aplicado = journal.registrar(1L, "associado-1", null, VotoValor.SIM, agora);
+        journal.registrar(2L, "associado-2", null, VotoValor.NAO, agora);
+        journal.registrar(3L, null, 1234567890L, VotoValor.SIM, agora);
+        journal.concluir(aplicado);
+        journal.checkpoint();
+        journal.close();
+
+        List<VotoJournal.Registro> registros = reabrir();
+
+        assertThat(registros).containsExactly(
+                new VotoJournal.Registro(2, 2L, "associado-2", null, VotoValor.NAO, agora),
+                new VotoJournal.Registro(3, 3L, null, 1234567890L, VotoValor.SIM, agora));
+    }
+
+    @Test
+    void segmentosAplicadosSaoApagados() throws Exception {
+        VotoJournal journal = abrir(2L * VotoJournal.TAMANHO_REGISTRO);
+        List<Long> sequencias = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sequencias.add(journal.registrar(1L, "a" + i, null, VotoValor.SIM, Instant.now()));
+        }
+        assertThat(segmentos()).hasSize(3);
+
+        sequencias.subList(0, 3).forEach(journal::concluir);
+        journal.checkpoint();
+
+        assertThat(segmentos()).hasSize(2);
+        sequencias.forEach(journal::concluir);
+        journal.close();
+        assertThat(segmentos()).hasSize(1);
+        assertThat(reabrir()).isEmpty();
+    }
+
+    @Test
+    void registroCortadoEncerraALeitura() throws Exception {
+        VotoJournal journal = abrir(1024);
+        journal.registrar(1L, "inteiro", null, VotoValor.SIM, Instant.now());
+        journal.registrar(1L, "cortado", null, VotoValor.SIM, Instant.now());
+        journal.registrar(1L, "depois", null, VotoValor.SIM, Instant.now());
+        journal.close();
+        try (FileChannel channel = FileChannel.open(segmentos().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), VotoJournal.TAMANHO_REGISTRO + 30L);
+        }
+
+        assertThat(reabrir()).extracting(VotoJournal.Registro::associadoId).containsExactly("inteiro");
+    }
+
+    @Test
+    void votosSimultaneosCompartilhamSincronizacao() throws Exception {
+        VotoJournal journal = new VotoJournal(diretorio, 1 << 20, Duration.ofMillis(5), meterRegistry);
+        journal.abrir();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Long>> futuros = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String id = "associado-" + i;
+                futuros.add(executor.submit(() -> journal.registrar(1L, id, null, VotoValor.SIM, Instant.now())));
+            }
+            for (Future<Long> futuro : futuros) {
+                assertThat(futuro.get()).isPositive();
+            }
+        } finally {
+            executor.shutdownNow();
+            journal.close();
+        }
+
+        assertThat(meterRegistry.find("votacao.ingestao.journal.grupo").summary().totalAmount()).isEqualTo(64);
+        assertThat(meterRegistry.find("votacao.ingestao.journal.grupo").summary().count()).isLessThan(64);
+        assertThat(meterRegistry.find("votacao.ingestao.journal.pendentes").gauge().value()).isEqualTo(64);
+    }
+
+    private VotoJournal abrir(long tamanhoSegmento) throws Exception {
+        VotoJournal journal = new VotoJournal(diretorio, tamanhoSegmento, Duration.ZERO, new SimpleMeterRegistry());
+        journal.abrir();
+        return journal;
+    }
+
+    private List<VotoJournal.Registro> reabrir() throws Exception {
+        try (VotoJournal journal = new VotoJournal(diretorio, 1024, Duration.ZERO, new SimpleMeterRegistry())) {
+            return journal.abrir();
+        }
+    }
+
+    private List<Path> segmentos() throws Exception {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+}
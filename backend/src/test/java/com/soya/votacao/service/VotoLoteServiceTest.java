@@ -0,0 +1,194 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soya.votacao.client.AsyncCpfClient;
+import com.soya.votacao.client.CpfClient;
+import com.soya.votacao.client.CpfClientResult;
+import com.soya.votacao.client.CpfStatus;
+import com.soya.votacao.client.ResilientCpfClient;
+import com.soya.votacao.dto.CreatePautaRequest;
+import com.soya.votacao.dto.OpenSessaoRequest;
+import com.soya.votacao.dto.ResultadoResponse;
+import com.soya.votacao.dto.VotoRequest;
+import com.soya.votacao.exception.ConflictException;
+import com.soya.votacao.model.AssociadoPautaId;
+import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.Sessao;
+import com.soya.votacao.model.VotoValor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.annotation.DirtiesContext;
+
+@SpringBootTest(properties = "votacao.lote.chunk-size=3")
+@DirtiesContext
+class VotoLoteServiceTest {
+    private static final String INELEGIVEL = "99999999999";
+    private static final String CPF_LENTO = "77777777777";
+
+    @Autowired
+    private PautaService pautaService;
+
+    @Autowired
+    private SessaoService sessaoService;
+
+    @Autowired
+    private VotoService votoService;
+
+    @Autowired
+    private VotoLoteService votoLoteService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void processaLinhasEmBlocosComResultadoPorLinha() throws IOException {
+        Pauta pauta = criarPauta();
+        Sessao sessao = abrirSessao(pauta.getId());
+        votoService.votar(pauta.getId(), voto("33333333333", VotoValor.SIM));
+
+        String entrada = String.join("\n",
+                "{\"associadoId\":\"11111111111\",\"voto\":\"SIM\"}",
+                "{\"associadoId\":\"22222222222\",\"voto\":\"NAO\"}",
+                "{\"associadoId\":\"11111111111\",\"voto\":\"NAO\"}",
+                "",
+                "{\"associadoId\":\"33333333333\",\"voto\":\"NAO\"}",
+                "nao e json",
+                "{\"associadoId\":\"\",\"voto\":\"SIM\"}",
+                "{\"associadoId\":\"" + INELEGIVEL + "\",\"voto\":\"SIM\"}",
+                "null");
+
+        List<JsonNode> resultados = processar(pauta, sessao, entrada);
+
+        assertThat(resultados).extracting(node -> node.get("linha").asInt())
+                .containsExactly(1, 2, 3, 5, 6, 7, 8, 9);
+        assertThat(resultados).extracting(node -> node.get("status").asText())
+                .containsExactly("ACEITO", "ACEITO", "REJEITADO", "REJEITADO", "REJEITADO", "REJEITADO", "REJEITADO", "REJEITADO");
+        assertThat(resultados.get(2).get("motivo").asText()).isEqualTo("Associado repetido no lote");
+        assertThat(resultados.get(3).get("motivo").asText()).isEqualTo("Associado já votou nesta pauta");
+        assertThat(resultados.get(4).get("motivo").asText()).isEqualTo("Corpo da requisição inválido");
+        assertThat(resultados.get(5).get("motivo").asText()).startsWith("associadoId:");
+        assertThat(resultados.get(6).get("motivo").asText()).isEqualTo("Associado não pode votar");
+
+        ResultadoResponse resultado = votoService.resultado(pauta.getId());
+        assertThat(resultado.getTotalVotos()).isEqualTo(3);
+        assertThat(resultado.getVotosSim()).isEqualTo(2);
+    }
+
+    @Test
+    void associadoComVotoEmAndamentoRejeitadoNoLote() throws IOException {
+        Pauta pauta = criarPauta();
+        Sessao sessao = abrirSessao(pauta.getId());
+        AssociadoPautaId emAndamento = new AssociadoPautaId(pauta.getId(), "55555555555");
+        votoService.reservar(emAndamento);
+        try {
+            List<JsonNode> resultados = processar(pauta, sessao, String.join("\n",
+                    "{\"associadoId\":\"55555555555\",\"voto\":\"SIM\"}",
+                    "{\"associadoId\":\"66666666666\",\"voto\":\"SIM\"}"));
+
+            assertThat(resultados).extracting(node -> node.get("status").asText())
+                    .containsExactly("REJEITADO", "ACEITO");
+            assertThat(resultados.get(0).get("motivo").asText()).isEqualTo("Voto do associado já está em processamento");
+        } finally {
+            votoService.liberar(emAndamento);
+        }
+
+        assertThatThrownBy(() -> votoService.votar(pauta.getId(), voto("66666666666", VotoValor.NAO)))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Associado já votou nesta pauta");
+    }
+
+    @Test
+    void sessaoEncerradaRejeitaTodasAsLinhas() throws IOException {
+        Pauta pauta = criarPauta();
+        Sessao sessao = abrirSessao(pauta.getId());
+        sessao.setFechaEm(Instant.now().minusSeconds(1));
+
+        List<JsonNode> resultados = processar(pauta, sessao, "{\"associadoId\":\"44444444444\",\"voto\":\"SIM\"}\n");
+
+        assertThat(resultados).hasSize(1);
+        assertThat(resultados.get(0).get("motivo").asText()).isEqualTo("Sessão encerrada");
+    }
+
+    @Test
+    void consultaDeCpfEsgotadaRejeitaSoALinhaDoAssociado() throws IOException {
+        Pauta pauta = criarPauta();
+        Sessao sessao = abrirSessao(pauta.getId());
+
+        List<JsonNode> resultados = processar(pauta, sessao, String.join("\n",
+                "{\"associadoId\":\"" + CPF_LENTO + "\",\"voto\":\"SIM\"}",
+                "{\"associadoId\":\"12121212121\",\"voto\":\"NAO\"}",
+                "{\"associadoId\":\"13131313131\",\"voto\":\"SIM\"}",
+                "{\"associadoId\":\"14141414141\",\"voto\":\"SIM\"}"));
+
+        assertThat(resultados).extracting(node -> node.get("status").asText())
+                .containsExactly("REJEITADO", "ACEITO", "ACEITO", "ACEITO");
+        assertThat(resultados.get(0).get("motivo").asText()).isEqualTo("Tempo de consulta de CPF esgotado");
+        assertThat(votoService.resultado(pauta.getId()).getTotalVotos()).isEqualTo(3);
+    }
+
+    private List<JsonNode> processar(Pauta pauta, Sessao sessao, String entrada) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        votoLoteService.processar(pauta, sessao,
+                new ByteArrayInputStream(entrada.getBytes(StandardCharsets.UTF_8)), saida);
+        List<JsonNode> resultados = new ArrayList<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).split("\n")) {
+            resultados.add(objectMapper.readTree(linha));
+        }
+        return resultados;
+    }
+
+    private VotoRequest voto(String associadoId, VotoValor valor) {
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId(associadoId);
+        request.setVoto(valor);
+        return request;
+    }
+
+    private Pauta criarPauta() {
+        CreatePautaRequest request = new CreatePautaRequest();
+        request.setTitulo("Pauta em lote");
+        request.setDescricao("Descrição");
+        return pautaService.criar(request);
+    }
+
+    private Sessao abrirSessao(Long pautaId) {
+        OpenSessaoRequest request = new OpenSessaoRequest();
+        request.setDuracaoMinutos(1);
+        return sessaoService.abrirSessao(pautaId, request);
+    }
+
+    @TestConfiguration
+    static class FixedCpfClientConfig {
+        @Bean
+        @Primary
+        CpfClient cpfClient(MeterRegistry meterRegistry) {
+            AsyncCpfClient consulta = cpf -> {
+                if (CPF_LENTO.equals(cpf)) {
+                    return new CompletableFuture<>();
+                }
+                return CompletableFuture.completedFuture(INELEGIVEL.equals(cpf)
+                        ? new CpfClientResult(true, CpfStatus.UNABLE_TO_VOTE)
+                        : new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE));
+            };
+            return new ResilientCpfClient(consulta, Duration.ofMillis(200), 100, meterRegistry);
+        }
+    }
+}
@@ -12,6 +12,8 @@ import com.soya.votacao.dto.ResultadoResponse;
 import com.soya.votacao.dto.VotoRequest;
 import com.soya.votacao.exception.ConflictException;
 import com.soya.votacao.model.Pauta;
+import com.soya.votacao.repository.VotoApuracao;
+import com.soya.votacao.repository.VotoRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -32,6 +34,9 @@ class VotoServiceTest {
     @Autowired
     private VotoService votoService;
 
+    @Autowired
+    private VotoRepository votoRepository;
+
     @Test
     void voteOncePerAssociado() {
         Pauta pauta = criarPauta();
@@ -66,6 +71,22 @@ class VotoServiceTest {
         assertThat(resultado.getTotalVotos()).isEqualTo(2);
         assertThat(resultado.getVotosSim()).isEqualTo(1);
         assertThat(resultado.getVotosNao()).isEqualTo(1);
+
+        VotoApuracao apuracao = votoRepository.apurarPorPauta(pauta.getId());
+        assertThat(apuracao.getTotal()).isEqualTo(2);
+        assertThat(apuracao.getSim()).isEqualTo(1);
+        assertThat(apuracao.getNao()).isEqualTo(1);
+    }
+
+    @Test
+    void apuracaoSemVotosRetornaZeros() {
+        Pauta pauta = criarPauta();
+
+        VotoApuracao apuracao = votoRepository.apurarPorPauta(pauta.getId());
+
+        assertThat(apuracao.getTotal()).isZero();
+        assertThat(apuracao.getSim()).isZero();
+        assertThat(apuracao.getNao()).isZero();
     }
 
     private Pauta criarPauta() {
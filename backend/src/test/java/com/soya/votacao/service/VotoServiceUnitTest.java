@@ -2,12 +2,25 @@ package com.soya.votacao.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.soya.votacao.client.AsyncCpfClient;
 import com.soya.votacao.client.CpfClient;
 import com.soya.votacao.client.CpfClientResult;
 import com.soya.votacao.client.CpfStatus;
+import com.soya.votacao.client.ResilientCpfClient;
+import com.soya.votacao.config.FiltroDuplicadoProperties;
+import com.soya.votacao.dto.ResultadoResponse;
 import com.soya.votacao.dto.VotoRequest;
 import com.soya.votacao.exception.BadRequestException;
 import com.soya.votacao.exception.ConflictException;
@@ -15,13 +28,29 @@ import com.soya.votacao.exception.NotFoundException;
 import com.soya.votacao.model.AssociadoPautaId;
 import com.soya.votacao.model.AssociadoPautaStatus;
 import com.soya.votacao.model.Pauta;
+import com.soya.votacao.model.ResultadoFinal;
 import com.soya.votacao.model.Sessao;
 import com.soya.votacao.model.Voto;
 import com.soya.votacao.model.VotoValor;
 import com.soya.votacao.repository.AssociadoPautaStatusRepository;
+import com.soya.votacao.repository.VotoApuracao;
 import com.soya.votacao.repository.VotoRepository;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -46,18 +75,48 @@ class VotoServiceUnitTest {
     @Mock
     private AssociadoPautaStatusRepository associadoPautaStatusRepository;
 
+    @Mock
+    private SessaoAbertaRegistry sessaoAbertaRegistry;
+
+    @Mock
+    private ResultadoFinalService resultadoFinalService;
+
+    @Mock
+    private PautaTallyService pautaTallyService;
+
     private SimpleMeterRegistry meterRegistry;
+    private VotoTallyRegistry votoTallyRegistry;
+    private VotoDuplicadoFiltro votoDuplicadoFiltro;
+    private VersaoRegistry versaoRegistry;
     private VotoService votoService;
 
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
+        votoTallyRegistry = new VotoTallyRegistry(votoRepository, true);
+        versaoRegistry = new VersaoRegistry(true);
+        FiltroDuplicadoProperties filtroProperties = new FiltroDuplicadoProperties();
+        filtroProperties.setEnabled(false);
+        votoDuplicadoFiltro = new VotoDuplicadoFiltro(votoRepository, null, filtroProperties, meterRegistry);
+        lenient().when(resultadoFinalService.gravar(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(pautaTallyService.gravar(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
         votoService = new VotoService(
                 votoRepository,
                 pautaService,
                 sessaoService,
                 cpfClient,
                 associadoPautaStatusRepository,
+                votoTallyRegistry,
+                pautaTallyService,
+                votoDuplicadoFiltro,
+                sessaoAbertaRegistry,
+                resultadoFinalService,
+                versaoRegistry,
+                new AssociadoChaveService(votoRepository, null, false, 1000),
+                true,
+                64,
                 meterRegistry
         );
     }
@@ -75,7 +134,23 @@ class VotoServiceUnitTest {
         assertThatThrownBy(() -> votoService.votar(1L, request))
                 .isInstanceOf(BadRequestException.class);
 
-        assertThat(meterRegistry.find("votacao.voto.rejeitado").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.rejeitado").tag("motivo", "sessao_encerrada").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void sessaoNoRegistroDispensaConsultaDaSessao() {
+        when(pautaService.buscarPorId(2L)).thenReturn(new Pauta());
+        when(sessaoAbertaRegistry.estaAberta(2L)).thenReturn(true);
+        when(votoRepository.findByPautaIdAndAssociadoId(2L, "12345678901")).thenReturn(Optional.of(new Voto()));
+
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId("12345678901");
+        request.setVoto(VotoValor.SIM);
+
+        assertThatThrownBy(() -> votoService.votar(2L, request))
+                .isInstanceOf(ConflictException.class);
+        verify(sessaoService, never()).buscarPorPauta(2L);
+        verify(sessaoService, never()).sessaoAberta(any());
     }
 
     @Test
@@ -92,7 +167,7 @@ class VotoServiceUnitTest {
         assertThatThrownBy(() -> votoService.votar(2L, request))
                 .isInstanceOf(ConflictException.class);
 
-        assertThat(meterRegistry.find("votacao.voto.rejeitado").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.rejeitado").tag("motivo", "duplicado").counter().count()).isEqualTo(1.0);
     }
 
     @Test
@@ -111,7 +186,7 @@ class VotoServiceUnitTest {
         assertThatThrownBy(() -> votoService.votar(3L, request))
                 .isInstanceOf(NotFoundException.class);
 
-        assertThat(meterRegistry.find("votacao.voto.rejeitado").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.rejeitado").tag("motivo", "inelegivel").counter().count()).isEqualTo(1.0);
     }
 
     @Test
@@ -131,7 +206,7 @@ class VotoServiceUnitTest {
         assertThatThrownBy(() -> votoService.votar(4L, request))
                 .isInstanceOf(NotFoundException.class);
 
-        assertThat(meterRegistry.find("votacao.voto.rejeitado").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.rejeitado").tag("motivo", "inelegivel").counter().count()).isEqualTo(1.0);
     }
 
     @Test
@@ -142,15 +217,121 @@ class VotoServiceUnitTest {
         when(votoRepository.findByPautaIdAndAssociadoId(5L, "12345678901")).thenReturn(Optional.empty());
         when(associadoPautaStatusRepository.findById(any())).thenReturn(Optional.empty());
         when(cpfClient.consultar("12345678901")).thenReturn(new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE));
-        when(votoRepository.save(any(Voto.class))).thenReturn(new Voto());
+        when(votoRepository.save(any(Voto.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         VotoRequest request = new VotoRequest();
         request.setAssociadoId("12345678901");
         request.setVoto(VotoValor.SIM);
 
-        votoService.votar(5L, request);
+        Instant antes = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        String etagAntes = versaoRegistry.etagResultado(5L);
+        Voto voto = votoService.votar(5L, request);
 
+        assertThat(voto.getCreatedAt()).isBetween(antes, Instant.now());
         assertThat(meterRegistry.find("votacao.voto.salvo").counter().count()).isEqualTo(1.0);
+        for (String etapa : List.of("pauta", "sessao", "duplicado", "status", "cpf", "status_gravacao", "gravacao")) {
+            assertThat(meterRegistry.find("votacao.voto.etapa").tag("etapa", etapa).timer().count()).isEqualTo(1);
+        }
+        assertThat(votoTallyRegistry.buscar(5L).getSim()).isEqualTo(1);
+        assertThat(versaoRegistry.etagResultado(5L)).isNotEqualTo(etagAntes);
+    }
+
+    @Test
+    void resultadoUsaContadoresEmMemoria() {
+        Sessao sessao = new Sessao();
+        when(sessaoService.buscarPorPauta(7L)).thenReturn(sessao);
+        when(sessaoService.sessaoAberta(sessao)).thenReturn(true);
+        votoTallyRegistry.registrar(7L, VotoValor.SIM);
+        votoTallyRegistry.registrar(7L, VotoValor.NAO);
+        votoTallyRegistry.registrar(7L, VotoValor.NAO);
+
+        ResultadoResponse resultado = votoService.resultado(7L);
+
+        assertThat(resultado.getTotalVotos()).isEqualTo(3);
+        assertThat(resultado.getVotosNao()).isEqualTo(2);
+        assertThat(resultado.getStatus()).isEqualTo("ABERTA");
+        verifyNoInteractions(votoRepository);
+    }
+
+    @Test
+    void resultadoEmAndamentoNaoBuscaResultadoFinalDeNovo() {
+        Sessao sessao = new Sessao();
+        when(sessaoService.buscarPorPauta(8L)).thenReturn(sessao);
+        when(sessaoService.sessaoAberta(sessao)).thenReturn(true);
+        votoTallyRegistry.registrar(8L, VotoValor.SIM);
+
+        ResultadoResponse resultado = votoService.resultadoEmAndamento(8L);
+
+        assertThat(resultado.getVotosSim()).isEqualTo(1);
+        verify(resultadoFinalService, never()).buscar(any());
+    }
+
+    @Test
+    void resultadoConsultaBancoQuandoContadoresDesabilitados() {
+        votoService = new VotoService(
+                votoRepository,
+                pautaService,
+                sessaoService,
+                cpfClient,
+                associadoPautaStatusRepository,
+                new VotoTallyRegistry(votoRepository, false),
+                pautaTallyService,
+                votoDuplicadoFiltro,
+                sessaoAbertaRegistry,
+                resultadoFinalService,
+                versaoRegistry,
+                new AssociadoChaveService(votoRepository, null, false, 1000),
+                true,
+                64,
+                meterRegistry
+        );
+        Sessao sessao = new Sessao();
+        when(sessaoService.buscarPorPauta(8L)).thenReturn(sessao);
+        when(sessaoService.sessaoAberta(sessao)).thenReturn(false);
+        VotoApuracao apuracao = mock(VotoApuracao.class);
+        when(apuracao.getSim()).thenReturn(4L);
+        when(apuracao.getNao()).thenReturn(1L);
+        when(votoRepository.apurarPorPauta(8L)).thenReturn(apuracao);
+
+        ResultadoResponse resultado = votoService.resultado(8L);
+
+        assertThat(resultado.getTotalVotos()).isEqualTo(5);
+        assertThat(resultado.getStatus()).isEqualTo("ENCERRADA");
+    }
+
+    @Test
+    void statusPorPautaDesabilitadoNaoLeNemGravaStatus() {
+        votoService = new VotoService(
+                votoRepository,
+                pautaService,
+                sessaoService,
+                cpfClient,
+                associadoPautaStatusRepository,
+                votoTallyRegistry,
+                pautaTallyService,
+                votoDuplicadoFiltro,
+                sessaoAbertaRegistry,
+                resultadoFinalService,
+                versaoRegistry,
+                new AssociadoChaveService(votoRepository, null, false, 1000),
+                false,
+                64,
+                meterRegistry
+        );
+        when(pautaService.buscarPorId(9L)).thenReturn(new Pauta());
+        when(sessaoService.buscarPorPauta(9L)).thenReturn(new Sessao());
+        when(sessaoService.sessaoAberta(any())).thenReturn(true);
+        when(votoRepository.findByPautaIdAndAssociadoId(9L, "12345678901")).thenReturn(Optional.empty());
+        when(cpfClient.consultar("12345678901")).thenReturn(new CpfClientResult(true, CpfStatus.UNABLE_TO_VOTE));
+
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId("12345678901");
+        request.setVoto(VotoValor.SIM);
+
+        assertThatThrownBy(() -> votoService.votar(9L, request))
+                .isInstanceOf(NotFoundException.class);
+        assertThat(votoService.isStatusPorPauta()).isFalse();
+        verifyNoInteractions(associadoPautaStatusRepository);
     }
 
     @Test
@@ -170,7 +351,181 @@ class VotoServiceUnitTest {
         assertThatThrownBy(() -> votoService.votar(6L, request))
                 .isInstanceOf(ConflictException.class);
 
-        assertThat(meterRegistry.find("votacao.voto.rejeitado").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.rejeitado").tag("motivo", "constraint").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.constraint.fallback").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.admissao.em_andamento").gauge().value()).isZero();
     }
-}
 
+    @Test
+    void votoRejeitadoQuandoResultadoFinalJaExiste() {
+        when(pautaService.buscarPorId(10L)).thenReturn(new Pauta());
+        when(sessaoAbertaRegistry.estaAberta(10L)).thenReturn(true);
+        when(votoRepository.findByPautaIdAndAssociadoId(10L, "12345678901")).thenReturn(Optional.empty());
+        when(associadoPautaStatusRepository.findById(any())).thenReturn(Optional.empty());
+        when(cpfClient.consultar("12345678901")).thenReturn(new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE));
+        doThrow(new BadRequestException("Sessão encerrada")).when(resultadoFinalService).gravar(any(), any());
+
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId("12345678901");
+        request.setVoto(VotoValor.SIM);
+
+        assertThatThrownBy(() -> votoService.votar(10L, request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Sessão encerrada");
+
+        assertThat(meterRegistry.find("votacao.voto.rejeitado").tag("motivo", "sessao_encerrada").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.salvo").counter().count()).isZero();
+    }
+
+    @Test
+    void resultadoUsaResultadoFinalQuandoSessaoFinalizada() {
+        ResultadoFinal resultadoFinal = new ResultadoFinal(11L, 2L, 1L, Instant.now(), Instant.now());
+        ResultadoResponse response = new ResultadoResponse(11L, 3L, 2L, 1L, "ENCERRADA");
+        when(resultadoFinalService.buscar(11L)).thenReturn(Optional.of(resultadoFinal));
+        when(resultadoFinalService.toResponse(resultadoFinal)).thenReturn(response);
+
+        assertThat(votoService.resultado(11L)).isSameAs(response);
+        assertThat(votoService.resultado(11L, new Sessao())).isSameAs(response);
+        verifyNoInteractions(sessaoService, votoRepository);
+    }
+
+    @Test
+    void votoConcorrenteDoMesmoAssociadoRejeitadoAntesDeQualquerConsulta() throws Exception {
+        when(pautaService.buscarPorId(12L)).thenReturn(new Pauta());
+        when(sessaoAbertaRegistry.estaAberta(12L)).thenReturn(true);
+        when(votoRepository.findByPautaIdAndAssociadoId(12L, "12345678901")).thenReturn(Optional.empty());
+        when(associadoPautaStatusRepository.findById(any())).thenReturn(Optional.empty());
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberarConsulta = new CountDownLatch(1);
+        when(cpfClient.consultar("12345678901")).thenAnswer(invocation -> {
+            consultando.countDown();
+            liberarConsulta.await(5, TimeUnit.SECONDS);
+            return new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+        });
+        when(votoRepository.save(any(Voto.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        VotoRequest request = new VotoRequest();
+        request.setAssociadoId("12345678901");
+        request.setVoto(VotoValor.SIM);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Voto> primeiro = executor.submit(() -> votoService.votar(12L, request));
+            assertThat(consultando.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> votoService.votar(12L, request))
+                    .isInstanceOf(ConflictException.class)
+                    .hasMessage("Voto do associado já está em processamento");
+
+            liberarConsulta.countDown();
+            assertThat(primeiro.get(5, TimeUnit.SECONDS)).isNotNull();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(cpfClient, times(1)).consultar("12345678901");
+        verify(pautaService, times(1)).buscarPorId(12L);
+        assertThat(meterRegistry.find("votacao.voto.admissao.concorrente").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("votacao.voto.admissao.em_andamento").gauge().value()).isZero();
+    }
+
+    @Test
+    void elegibilidadeEmLoteConsultaCpfsConcorrentementeEGravaStatusDeUmaVez() {
+        ConsultaConjunta cpf = new ConsultaConjunta(3, "33333333333");
+        votoService = new VotoService(
+                votoRepository,
+                pautaService,
+                sessaoService,
+                cpf,
+                associadoPautaStatusRepository,
+                votoTallyRegistry,
+                pautaTallyService,
+                votoDuplicadoFiltro,
+                sessaoAbertaRegistry,
+                resultadoFinalService,
+                versaoRegistry,
+                new AssociadoChaveService(votoRepository, null, false, 1000),
+                true,
+                64,
+                meterRegistry
+        );
+        AssociadoPautaStatus conhecido = new AssociadoPautaStatus(
+                new AssociadoPautaId(13L, "44444444444"), CpfStatus.UNABLE_TO_VOTE);
+
+        Map<String, RuntimeException> rejeitados = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> votoService.verificarElegibilidade(13L,
+                        List.of("11111111111", "22222222222", "33333333333", "44444444444"),
+                        Map.of("44444444444", conhecido)));
+
+        assertThat(rejeitados).containsOnlyKeys("33333333333", "44444444444");
+        assertThat(rejeitados.get("33333333333")).isInstanceOf(NotFoundException.class);
+        verify(associadoPautaStatusRepository, times(1)).saveAll(argThat((Iterable<AssociadoPautaStatus> statuses) ->
+                statuses instanceof List<?> lista && lista.size() == 3));
+        verify(associadoPautaStatusRepository, never()).save(any());
+    }
+
+    @Test
+    void loteMaiorQueOBulkheadNaoRejeitaConsultasDeCpf() {
+        AtomicInteger simultaneas = new AtomicInteger();
+        AtomicInteger pico = new AtomicInteger();
+        AsyncCpfClient lento = cpf -> {
+            pico.accumulateAndGet(simultaneas.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                simultaneas.decrementAndGet();
+                return new CpfClientResult(true, CpfStatus.ABLE_TO_VOTE);
+            }, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+        };
+        votoService = new VotoService(
+                votoRepository,
+                pautaService,
+                sessaoService,
+                new ResilientCpfClient(lento, Duration.ofSeconds(2), 4, meterRegistry),
+                associadoPautaStatusRepository,
+                votoTallyRegistry,
+                pautaTallyService,
+                votoDuplicadoFiltro,
+                sessaoAbertaRegistry,
+                resultadoFinalService,
+                versaoRegistry,
+                new AssociadoChaveService(votoRepository, null, false, 1000),
+                true,
+                4,
+                meterRegistry
+        );
+        List<String> associados = LongStream.range(0, 40)
+                .mapToObj(i -> String.valueOf(20_000_000_000L + i))
+                .toList();
+
+        Map<String, RuntimeException> rejeitados = votoService.verificarElegibilidade(14L, associados, Map.of());
+
+        assertThat(rejeitados).isEmpty();
+        assertThat(pico.get()).isLessThanOrEqualTo(4);
+        assertThat(meterRegistry.find("votacao.cpf.bulkhead.rejeitado").counter().count()).isZero();
+    }
+
+    /** Answers only once all expected CPFs were requested, so sequential lookups never finish. */
+    private static final class ConsultaConjunta implements CpfClient, AsyncCpfClient {
+        private final CompletableFuture<Void> todas = new CompletableFuture<>();
+        private final AtomicInteger faltam;
+        private final String inelegivel;
+
+        ConsultaConjunta(int esperadas, String inelegivel) {
+            this.faltam = new AtomicInteger(esperadas);
+            this.inelegivel = inelegivel;
+        }
+
+        @Override
+        public CpfClientResult consultar(String cpf) {
+            return consultarAsync(cpf).join();
+        }
+
+        @Override
+        public CompletableFuture<CpfClientResult> consultarAsync(String cpf) {
+            if (faltam.decrementAndGet() == 0) {
+                todas.complete(null);
+            }
+            CpfStatus status = cpf.equals(inelegivel) ? CpfStatus.UNABLE_TO_VOTE : CpfStatus.ABLE_TO_VOTE;
+            return todas.thenApply(ignorado -> new CpfClientResult(true, status));
+        }
+    }
+}
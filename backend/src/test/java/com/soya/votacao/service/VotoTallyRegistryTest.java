@@ -0,0 +1,95 @@
+package com.soya.votacao.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.soya.votacao.model.VotoValor;
+import com.soya.votacao.repository.VotoContagem;
+import com.soya.votacao.repository.VotoRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class VotoTallyRegistryTest {
+    @Mock
+    private VotoRepository votoRepository;
+
+    @Test
+    void reconstruirCarregaContagensDoBanco() {
+        when(votoRepository.contarAgrupadoPorPautaEValor()).thenReturn(List.of(
+                contagem(1L, VotoValor.SIM, 10),
+                contagem(1L, VotoValor.NAO, 4),
+                contagem(2L, VotoValor.NAO, 1)
+        ));
+        VotoTallyRegistry registry = new VotoTallyRegistry(votoRepository, true);
+
+        registry.reconstruir();
+
+        assertThat(registry.buscar(1L).getSim()).isEqualTo(10);
+        assertThat(registry.buscar(1L).getNao()).isEqualTo(4);
+        assertThat(registry.buscar(2L).getNao()).isEqualTo(1);
+        assertThat(registry.buscar(3L).getSim()).isZero();
+    }
+
+    @Test
+    void desabilitadoNaoConsultaNemContabiliza() {
+        VotoTallyRegistry registry = new VotoTallyRegistry(votoRepository, false);
+
+        registry.reconstruir();
+        registry.registrar(1L, VotoValor.SIM);
+
+        assertThat(registry.isEnabled()).isFalse();
+        assertThat(registry.buscar(1L).getSim()).isZero();
+        verifyNoInteractions(votoRepository);
+    }
+
+    @Test
+    void registrarDentroDeTransacaoAguardaCommit() {
+        VotoTallyRegistry registry = new VotoTallyRegistry(votoRepository, true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            registry.registrar(1L, VotoValor.SIM);
+            assertThat(registry.buscar(1L).getSim()).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(registry.buscar(1L).getSim()).isEqualTo(1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void removerDescartaContadores() {
+        VotoTallyRegistry registry = new VotoTallyRegistry(votoRepository, true);
+        registry.registrar(1L, VotoValor.NAO);
+
+        registry.remover(1L);
+
+        assertThat(registry.buscar(1L).getNao()).isZero();
+    }
+
+    private VotoContagem contagem(Long pautaId, VotoValor valor, long total) {
+        return new VotoContagem() {
+            @Override
+            public Long getPautaId() {
+                return pautaId;
+            }
+
+            @Override
+            public VotoValor getValor() {
+                return valor;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
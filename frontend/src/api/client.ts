@@ -14,7 +14,17 @@ type RequestOptions = RequestInit & {
   headers?: Record<string, string>;
 };
 
+export type JsonResponse<T> = {
+  data: T;
+  headers: Headers;
+};
+
 export async function fetchJson<T>(path: string, options: RequestOptions = {}): Promise<T> {
+  const { data } = await fetchJsonResponse<T>(path, options);
+  return data;
+}
+
+export async function fetchJsonResponse<T>(path: string, options: RequestOptions = {}): Promise<JsonResponse<T>> {
   const response = await fetch(`${API_URL}${path}`, {
     headers: {
       "Content-Type": "application/json",
@@ -35,13 +45,13 @@ export async function fetchJson<T>(path: string, options: RequestOptions = {}):
   }
 
   if (response.status === 204) {
-    return null as T;
+    return { data: null as T, headers: response.headers };
   }
 
   const text = await response.text();
   if (!text) {
-    return null as T;
+    return { data: null as T, headers: response.headers };
   }
 
-  return JSON.parse(text) as T;
+  return { data: JSON.parse(text) as T, headers: response.headers };
 }
@@ -1,5 +1,7 @@
-import { fetchJson } from "./client";
-import type { Pauta, Resultado, VotoValor } from "../types";
+import { fetchJson, fetchJsonResponse } from "./client";
+import type { Pauta, PautaPagina, Resultado, VotoValor } from "../types";
+
+const NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
 type CreatePautaPayload = {
   titulo: string;
@@ -15,8 +17,10 @@ type VotoPayload = {
   voto: VotoValor;
 };
 
-export function listPautas(): Promise<Pauta[]> {
-  return fetchJson<Pauta[]>("/pautas");
+export async function listPautas(cursor?: string | null): Promise<PautaPagina> {
+  const path = cursor ? `/pautas?cursor=${encodeURIComponent(cursor)}` : "/pautas";
+  const { data, headers } = await fetchJsonResponse<Pauta[]>(path);
+  return { pautas: data ?? [], proximoCursor: headers?.get(NEXT_CURSOR_HEADER) ?? null };
 }
 
 export function getPauta(id: number): Promise<Pauta> {
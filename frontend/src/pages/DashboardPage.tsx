@@ -7,6 +7,8 @@ import type { Notification, NotificationType, Pauta } from "../types";
 export default function DashboardPage() {
   const [pautas, setPautas] = useState<Pauta[]>([]);
   const [loading, setLoading] = useState(false);
+  const [proximoCursor, setProximoCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [notification, setNotification] = useState<Notification | null>(null);
   const [errorMessage, setErrorMessage] = useState<string | null>(null);
 
@@ -17,13 +19,16 @@ export default function DashboardPage() {
     setNotification({ message, type });
   };
 
+  const sortByCreatedAt = (data: Pauta[]) =>
+    [...data].sort((a, b) => new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime());
+
   const loadPautas = async () => {
     setLoading(true);
     setErrorMessage(null);
     try {
-      const data = await listPautas();
-      const sorted = [...data].sort((a, b) => new Date(b.createdAt).getTime() - new Date(a.createdAt).getTime());
-      setPautas(sorted);
+      const pagina = await listPautas();
+      setPautas(sortByCreatedAt(pagina.pautas));
+      setProximoCursor(pagina.proximoCursor);
     } catch (error) {
       const message = error instanceof Error ? error.message : "Erro ao carregar pautas.";
       setErrorMessage(message);
@@ -33,6 +38,26 @@ export default function DashboardPage() {
     }
   };
 
+  const loadMorePautas = async () => {
+    if (!proximoCursor) {
+      return;
+    }
+    setLoadingMore(true);
+    try {
+      const pagina = await listPautas(proximoCursor);
+      setPautas((current) => {
+        const known = new Set(current.map((pauta) => pauta.id));
+        return sortByCreatedAt([...current, ...pagina.pautas.filter((pauta) => !known.has(pauta.id))]);
+      });
+      setProximoCursor(pagina.proximoCursor);
+    } catch (error) {
+      const message = error instanceof Error ? error.message : "Erro ao carregar pautas.";
+      pushNotification(message, "error");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     loadPautas();
   }, []);
@@ -58,16 +83,23 @@ export default function DashboardPage() {
           </button>
         </div>
       ) : pautas.length > 0 ? (
-        <div className="grid">
-          {pautas.map((pauta) => (
-            <PautaCard
-              key={pauta.id}
-              pauta={pauta}
-              onRefresh={loadPautas}
-              onNotify={pushNotification}
-            />
-          ))}
-        </div>
+        <>
+          <div className="grid">
+            {pautas.map((pauta) => (
+              <PautaCard
+                key={pauta.id}
+                pauta={pauta}
+                onRefresh={loadPautas}
+                onNotify={pushNotification}
+              />
+            ))}
+          </div>
+          {proximoCursor && (
+            <button type="button" className="ghost" onClick={loadMorePautas} disabled={loadingMore}>
+              {loadingMore ? "Carregando..." : "Carregar mais"}
+            </button>
+          )}
+        </>
       ) : (
         <p className="muted">Sem pautas ainda. Crie uma nova para iniciar a votação.</p>
       )}
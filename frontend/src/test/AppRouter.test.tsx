@@ -10,7 +10,7 @@ vi.mock("../api/pautas", () => ({
 const mockListPautas = vi.mocked(listPautas);
 
 it("renderiza a rota inicial com a lista", async () => {
-  mockListPautas.mockResolvedValueOnce([]);
+  mockListPautas.mockResolvedValueOnce({ pautas: [], proximoCursor: null });
 
   render(<AppRouter />);
 
@@ -4,7 +4,7 @@ import { MemoryRouter } from "react-router-dom";
 import { vi } from "vitest";
 import DashboardPage from "../pages/DashboardPage";
 import { deletePauta, getResultado, listPautas, openSessao, votar } from "../api/pautas";
-import type { Pauta } from "../types";
+import type { Pauta, PautaPagina } from "../types";
 
 vi.mock("../api/pautas", () => ({
   deletePauta: vi.fn(),
@@ -50,7 +50,7 @@ const buildPauta = (id: number, createdAt: string): Pauta => ({
 });
 
 it("exibe estado vazio quando nao ha pautas", async () => {
-  mockListPautas.mockResolvedValueOnce([]);
+  mockListPautas.mockResolvedValueOnce({ pautas: [], proximoCursor: null });
 
   renderPage();
 
@@ -77,8 +77,8 @@ it("ignora notificacao vazia quando erro nao tem mensagem", async () => {
 });
 
 it("exibe carregando enquanto busca e depois mostra a lista", async () => {
-  let resolveList: (value: Pauta[]) => void = () => undefined;
-  const pending = new Promise<Pauta[]>((resolve) => {
+  let resolveList: (value: PautaPagina) => void = () => undefined;
+  const pending = new Promise<PautaPagina>((resolve) => {
     resolveList = resolve;
   });
   mockListPautas.mockReturnValueOnce(pending);
@@ -88,10 +88,10 @@ it("exibe carregando enquanto busca e depois mostra a lista", async () => {
   expect(screen.getByText(/Carregando pautas/i)).toBeInTheDocument();
   expect(screen.getByRole("button", { name: /Atualizando/i })).toBeDisabled();
 
-  resolveList([
-    buildPauta(1, "2024-01-01T00:00:00.000Z"),
-    buildPauta(2, "2024-02-01T00:00:00.000Z")
-  ]);
+  resolveList({
+    pautas: [buildPauta(1, "2024-01-01T00:00:00.000Z"), buildPauta(2, "2024-02-01T00:00:00.000Z")],
+    proximoCursor: null
+  });
 
   await waitFor(() => {
     expect(screen.getByText("Pauta 2")).toBeInTheDocument();
@@ -99,10 +99,10 @@ it("exibe carregando enquanto busca e depois mostra a lista", async () => {
 });
 
 it("ordena as pautas pela data mais recente e permite atualizar", async () => {
-  mockListPautas.mockResolvedValueOnce([
-    buildPauta(1, "2024-01-01T00:00:00.000Z"),
-    buildPauta(2, "2024-03-01T00:00:00.000Z")
-  ]);
+  mockListPautas.mockResolvedValueOnce({
+    pautas: [buildPauta(1, "2024-01-01T00:00:00.000Z"), buildPauta(2, "2024-03-01T00:00:00.000Z")],
+    proximoCursor: null
+  });
 
   renderPage();
 
@@ -110,7 +110,7 @@ it("ordena as pautas pela data mais recente e permite atualizar", async () => {
   expect(titles[0]).toHaveTextContent("Pauta 2");
   expect(titles[1]).toHaveTextContent("Pauta 1");
 
-  mockListPautas.mockResolvedValueOnce([buildPauta(3, "2024-04-01T00:00:00.000Z")]);
+  mockListPautas.mockResolvedValueOnce({ pautas: [buildPauta(3, "2024-04-01T00:00:00.000Z")], proximoCursor: null });
 
   const callsBefore = mockListPautas.mock.calls.length;
 
@@ -120,3 +120,27 @@ it("ordena as pautas pela data mais recente e permite atualizar", async () => {
     expect(mockListPautas.mock.calls.length).toBe(callsBefore + 1);
   });
 });
+
+it("carrega a proxima pagina pelo cursor", async () => {
+  mockListPautas.mockResolvedValueOnce({
+    pautas: [buildPauta(2, "2024-03-01T00:00:00.000Z")],
+    proximoCursor: "abc"
+  });
+
+  renderPage();
+
+  await screen.findByText("Pauta 2");
+  mockListPautas.mockResolvedValueOnce({
+    pautas: [buildPauta(1, "2024-01-01T00:00:00.000Z")],
+    proximoCursor: null
+  });
+
+  await userEvent.click(screen.getByRole("button", { name: /Carregar mais/i }));
+
+  expect(await screen.findByText("Pauta 1")).toBeInTheDocument();
+  expect(mockListPautas).toHaveBeenLastCalledWith("abc");
+  expect(screen.queryByRole("button", { name: /Carregar mais/i })).toBeNull();
+  const titles = screen.getAllByRole("heading", { level: 3 });
+  expect(titles[0]).toHaveTextContent("Pauta 2");
+  expect(titles[1]).toHaveTextContent("Pauta 1");
+});
@@ -1,21 +1,35 @@
 import { vi } from "vitest";
 import { createPauta, deletePauta, getPauta, getResultado, listPautas, openSessao, votar } from "../api/pautas";
-import { fetchJson } from "../api/client";
+import { fetchJson, fetchJsonResponse } from "../api/client";
 
 vi.mock("../api/client", () => ({
-  fetchJson: vi.fn()
+  fetchJson: vi.fn(),
+  fetchJsonResponse: vi.fn()
 }));
 
 const mockFetchJson = vi.mocked(fetchJson);
+const mockFetchJsonResponse = vi.mocked(fetchJsonResponse);
 
 beforeEach(() => {
   mockFetchJson.mockReset();
+  mockFetchJsonResponse.mockReset();
 });
 
 it("lista pautas", async () => {
-  mockFetchJson.mockResolvedValueOnce([]);
-  await listPautas();
-  expect(mockFetchJson).toHaveBeenCalledWith("/pautas");
+  mockFetchJsonResponse.mockResolvedValueOnce({ data: [], headers: new Headers() });
+  const pagina = await listPautas();
+  expect(mockFetchJsonResponse).toHaveBeenCalledWith("/pautas");
+  expect(pagina).toEqual({ pautas: [], proximoCursor: null });
+});
+
+it("lista a proxima pagina pelo cursor", async () => {
+  mockFetchJsonResponse.mockResolvedValueOnce({
+    data: [],
+    headers: new Headers({ "X-Next-Cursor": "def" })
+  });
+  const pagina = await listPautas("a+b");
+  expect(mockFetchJsonResponse).toHaveBeenCalledWith("/pautas?cursor=a%2Bb");
+  expect(pagina.proximoCursor).toBe("def");
 });
 
 it("busca pauta por id", async () => {
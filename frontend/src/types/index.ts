@@ -12,6 +12,11 @@ export type Pauta = {
   sessao?: Sessao | null;
 };
 
+export type PautaPagina = {
+  pautas: Pauta[];
+  proximoCursor: string | null;
+};
+
 export type Resultado = {
   pautaId: number;
   totalVotos: number;